@@ -0,0 +1,100 @@
+package com.grokthecode.common.utilities;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A concurrency limiter that adapts its limit with additive increase / multiplicative decrease (AIMD).
+ * <p>
+ * The limit grows by one after a full window of fast, successful calls and is halved whenever a call
+ * fails or takes longer than the slow call threshold. It never leaves the {@code [minLimit, maxLimit]} range.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long slowCallThresholdNanos;
+    private final ReentrantLock lock = new ReentrantLock(true);
+    private final Condition permitAvailable = lock.newCondition();
+
+    private int limit;
+    private int inFlight;
+    private int successesSinceLastIncrease;
+
+    /**
+     * Instantiates a new Adaptive concurrency limiter.
+     *
+     * @param minLimit                 the lowest limit the limiter backs off to, must be at least one
+     * @param maxLimit                 the highest limit the limiter grows to
+     * @param initialLimit             the starting limit
+     * @param slowCallThresholdMillis  the latency above which a call counts as a slow down
+     */
+    public AdaptiveConcurrencyLimiter(final int minLimit, final int maxLimit, final int initialLimit,
+                                      final long slowCallThresholdMillis) {
+        if (minLimit < 1 || maxLimit < minLimit) {
+            throw new IllegalArgumentException("limits must satisfy 1 <= minLimit <= maxLimit.");
+        }
+
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.limit = Math.clamp(initialLimit, minLimit, maxLimit);
+        this.slowCallThresholdNanos = TimeUnit.MILLISECONDS.toNanos(slowCallThresholdMillis);
+    }
+
+    /**
+     * Takes a permit, blocking while the number of calls in flight is at the current limit.
+     *
+     * @throws InterruptedException if the calling thread is interrupted while waiting
+     */
+    public void acquire() throws InterruptedException {
+        lock.lock();
+        try {
+            while (inFlight >= limit) {
+                permitAvailable.await();
+            }
+            inFlight++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns a permit and adjusts the limit using the outcome of the call.
+     *
+     * @param elapsedNanos the call latency
+     * @param succeeded    whether the call succeeded
+     */
+    public void release(final long elapsedNanos, final boolean succeeded) {
+        lock.lock();
+        try {
+            inFlight--;
+
+            if (!succeeded || elapsedNanos > slowCallThresholdNanos) {
+                limit = Math.max(minLimit, limit / 2);
+                successesSinceLastIncrease = 0;
+            } else if (++successesSinceLastIncrease >= limit) {
+                limit = Math.min(maxLimit, limit + 1);
+                successesSinceLastIncrease = 0;
+            }
+
+            permitAvailable.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Gets the current limit.
+     *
+     * @return the limit
+     */
+    public int getLimit() {
+        lock.lock();
+        try {
+            return limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.grokthecode.common.utilities;
+
+import java.util.Locale;
+import java.util.Objects;
+
+/**
+ * Reads enum constants from request parameters and properties.
+ * <p>
+ * Names are matched in either upper snake case or camel case, ignoring case, and independently of the
+ * default locale.
+ */
+public final class EnumNames {
+
+    private EnumNames() {}
+
+    /**
+     * Reads a constant by its name, in either upper snake case or camel case, ignoring case.
+     *
+     * @param type the enum type
+     * @param name the name, e.g. {@code cnaRegion} or {@code avg_fill_percentage}
+     * @param <E>  the enum type
+     * @return the constant
+     * @throws IllegalArgumentException if there is no constant with that name
+     */
+    public static <E extends Enum<E>> E parse(final Class<E> type, final String name) {
+        Objects.requireNonNull(name, type.getSimpleName() + " cannot be null.");
+
+        try {
+            return Enum.valueOf(type, name.strip().replaceAll("([a-z])([A-Z])", "$1_$2").toUpperCase(Locale.ROOT));
+        } catch (final IllegalArgumentException e) {
+            throw new IllegalArgumentException("unknown " + type.getSimpleName() + ": " + name, e);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.grokthecode.common.utilities;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Opaque continuation tokens for keyset pagination.
+ * <p>
+ * A token holds the sort key values of the last row of a page, base64url encoded, so the next page
+ * starts right after that row with an index range scan; a deep page costs the same as the first one.
+ */
+public final class KeysetPageToken {
+
+    private static final String SEPARATOR = "\n";
+
+    private KeysetPageToken() {}
+
+    /**
+     * A sort key of the paged query and how to read its value back from a token.
+     *
+     * @param name   the key name, used in error messages
+     * @param parser parses the value written by {@link Object#toString()}
+     */
+    public record Key(String name, Function<String, ?> parser) {
+    }
+
+    /**
+     * Creates the token of the page that follows a row.
+     *
+     * @param keyValues the sort key values of the last row of the page, in sort order
+     * @return the token
+     */
+    public static String encode(final Object... keyValues) {
+        final List<String> valueList = Arrays.stream(keyValues).map(String::valueOf).toList();
+
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(String.join(SEPARATOR, valueList).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Reads the sort key values back from a token.
+     *
+     * @param pageToken the token, null or blank for the first page
+     * @param keys      the sort keys, in sort order
+     * @return the key values, or null for the first page
+     * @throws IllegalArgumentException if the token is not valid
+     */
+    public static List<Object> decode(final String pageToken, final Key... keys) {
+        if (pageToken == null || pageToken.isBlank()) {
+            return null;
+        }
+
+        try {
+            final String[] values = new String(Base64.getUrlDecoder().decode(pageToken), StandardCharsets.UTF_8)
+                    .split(SEPARATOR, -1);
+
+            if (values.length != keys.length) {
+                throw new IllegalArgumentException("expected " + keys.length + " keys.");
+            }
+
+            final List<Object> keyValueList = new ArrayList<>(keys.length);
+
+            for (int i = 0; i < keys.length; i++) {
+                keyValueList.add(keys[i].parser().apply(values[i]));
+            }
+
+            return keyValueList;
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("invalid page token.", e);
+        }
+    }
+
+    /**
+     * Applies the page size limits.
+     *
+     * @param pageSize        the requested page size, may be null
+     * @param defaultPageSize the page size used when none is requested
+     * @param maxPageSize     the largest page size allowed
+     * @return the page size to use
+     */
+    public static int pageSize(final Integer pageSize, final int defaultPageSize, final int maxPageSize) {
+        if (pageSize == null) {
+            return defaultPageSize;
+        }
+
+        return Math.clamp(pageSize, 1, maxPageSize);
+    }
+}
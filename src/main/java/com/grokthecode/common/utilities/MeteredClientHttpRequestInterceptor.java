@@ -0,0 +1,123 @@
+package com.grokthecode.common.utilities;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records the latency and the response body size of every request.
+ * <p>
+ * Latency is recorded under {@code <name>.requests} when the response headers arrive, tagged with the
+ * method and final status; registered before a retrying interceptor, it covers every attempt. The
+ * number of body bytes read, after decompression, is recorded under {@code <name>.response.bytes}
+ * when the response is closed.
+ */
+public class MeteredClientHttpRequestInterceptor implements ClientHttpRequestInterceptor {
+
+    private final MeterRegistry meterRegistry;
+    private final String metricName;
+    private final DistributionSummary responseBytesSummary;
+
+    public MeteredClientHttpRequestInterceptor(final MeterRegistry meterRegistry, final String metricName) {
+        this.meterRegistry = meterRegistry;
+        this.metricName = metricName;
+        this.responseBytesSummary = DistributionSummary.builder(metricName + ".response.bytes")
+                .baseUnit("bytes")
+                .description("Body bytes read from upstream responses")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public ClientHttpResponse intercept(final HttpRequest request, final byte[] body,
+                                        final ClientHttpRequestExecution execution) throws IOException {
+        final long startNanos = System.nanoTime();
+        String status = "IO_ERROR";
+
+        try {
+            final ClientHttpResponse response = execution.execute(request, body);
+            status = String.valueOf(response.getStatusCode().value());
+
+            return new CountingClientHttpResponse(response);
+        } finally {
+            Timer.builder(metricName + ".requests")
+                    .description("Latency of upstream requests")
+                    .tag("method", request.getMethod().name())
+                    .tag("status", status)
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private class CountingClientHttpResponse implements ClientHttpResponse {
+
+        private final ClientHttpResponse delegate;
+        private long byteCount;
+        private InputStream body;
+        private boolean closed;
+
+        CountingClientHttpResponse(final ClientHttpResponse delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() throws IOException {
+            return delegate.getStatusCode();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return delegate.getStatusText();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return delegate.getHeaders();
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            if (body == null) {
+                body = new FilterInputStream(delegate.getBody()) {
+                    @Override
+                    public int read() throws IOException {
+                        final int value = super.read();
+                        if (value != -1) {
+                            byteCount++;
+                        }
+                        return value;
+                    }
+
+                    @Override
+                    public int read(final byte[] buffer, final int offset, final int length) throws IOException {
+                        final int readCount = super.read(buffer, offset, length);
+                        if (readCount > 0) {
+                            byteCount += readCount;
+                        }
+                        return readCount;
+                    }
+                };
+            }
+            return body;
+        }
+
+        @Override
+        public void close() {
+            if (!closed) {
+                closed = true;
+                responseBytesSummary.record(byteCount);
+            }
+            delegate.close();
+        }
+    }
+}
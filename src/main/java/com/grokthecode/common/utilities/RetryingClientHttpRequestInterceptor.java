@@ -0,0 +1,104 @@
+package com.grokthecode.common.utilities;
+
+import lombok.extern.log4j.Log4j2;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Retries requests that time out, fail with an I/O error or get a 5xx response.
+ * <p>
+ * Attempts are spaced with exponential backoff and full jitter: before attempt {@code n + 1} the
+ * interceptor sleeps a random time between zero and {@code min(maxBackoff, initialBackoff * 2^(n - 1))}.
+ * Callers that retry on their own, such as the backfill engine, run their requests through
+ * {@link #callWithoutRetries(Callable)} so a failing request is not retried by both layers.
+ */
+@Log4j2
+public class RetryingClientHttpRequestInterceptor implements ClientHttpRequestInterceptor {
+
+    private static final ThreadLocal<Boolean> RETRIES_DISABLED = ThreadLocal.withInitial(() -> false);
+
+    private final int maxAttempts;
+    private final long initialBackoffMillis;
+    private final long maxBackoffMillis;
+
+    public RetryingClientHttpRequestInterceptor(final int maxAttempts, final long initialBackoffMillis,
+                                                final long maxBackoffMillis) {
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.initialBackoffMillis = Math.max(1, initialBackoffMillis);
+        this.maxBackoffMillis = Math.max(this.initialBackoffMillis, maxBackoffMillis);
+    }
+
+    /**
+     * Runs a task whose requests, sent from the current thread, are attempted only once.
+     *
+     * @param callable the task
+     * @param <T>      the result type
+     * @return the result of the task
+     * @throws Exception the exception thrown by the task
+     */
+    public static <T> T callWithoutRetries(final Callable<T> callable) throws Exception {
+        final boolean retriesDisabled = RETRIES_DISABLED.get();
+        RETRIES_DISABLED.set(true);
+
+        try {
+            return callable.call();
+        } finally {
+            RETRIES_DISABLED.set(retriesDisabled);
+        }
+    }
+
+    @Override
+    public ClientHttpResponse intercept(final HttpRequest request, final byte[] body,
+                                        final ClientHttpRequestExecution execution) throws IOException {
+        final int attempts = RETRIES_DISABLED.get() ? 1 : maxAttempts;
+
+        for (int attempt = 1; ; attempt++) {
+            final boolean lastAttempt = attempt >= attempts;
+
+            try {
+                final ClientHttpResponse response = execution.execute(request, body);
+
+                if (lastAttempt || !response.getStatusCode().is5xxServerError()) {
+                    return response;
+                }
+
+                log.warn("{} {} returned {}, attempt {}/{}.", request.getMethod(), request.getURI(),
+                        response.getStatusCode(), attempt, attempts);
+                response.close();
+            } catch (InterruptedIOException e) {
+                // Timeouts are retried, a thread interrupt is not.
+                if (lastAttempt || Thread.currentThread().isInterrupted()) {
+                    throw e;
+                }
+                log.warn("{} {} timed out, attempt {}/{}.", request.getMethod(), request.getURI(), attempt, attempts);
+            } catch (IOException e) {
+                if (lastAttempt) {
+                    throw e;
+                }
+                log.warn("{} {} failed: {}, attempt {}/{}.", request.getMethod(), request.getURI(),
+                        e.getMessage(), attempt, attempts);
+            }
+
+            backoff(attempt);
+        }
+    }
+
+    private void backoff(final int attempt) throws InterruptedIOException {
+        final long ceilingMillis = Math.min(maxBackoffMillis, initialBackoffMillis << Math.min(attempt - 1, 30));
+
+        try {
+            TimeUnit.MILLISECONDS.sleep(ThreadLocalRandom.current().nextLong(ceilingMillis + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("interrupted while waiting to retry.");
+        }
+    }
+}
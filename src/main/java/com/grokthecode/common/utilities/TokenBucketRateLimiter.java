@@ -0,0 +1,75 @@
+package com.grokthecode.common.utilities;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A blocking token bucket rate limiter.
+ * <p>
+ * Tokens are refilled continuously at {@code permitsPerSecond} up to {@code capacity}. Every call to
+ * {@link #acquire()} takes one token, waiting for the next refill when the bucket is empty.
+ */
+public class TokenBucketRateLimiter {
+
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final double permitsPerSecond;
+    private final double capacity;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private double availableTokens;
+    private long lastRefillNanos;
+
+    /**
+     * Instantiates a new Token bucket rate limiter.
+     *
+     * @param permitsPerSecond the refill rate, must be greater than zero
+     * @param capacity         the maximum number of tokens (burst size), must be at least one
+     */
+    public TokenBucketRateLimiter(final double permitsPerSecond, final int capacity) {
+        if (permitsPerSecond <= 0) {
+            throw new IllegalArgumentException("permitsPerSecond must be greater than zero.");
+        }
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be at least one.");
+        }
+
+        this.permitsPerSecond = permitsPerSecond;
+        this.capacity = capacity;
+        this.availableTokens = capacity;
+        this.lastRefillNanos = System.nanoTime();
+    }
+
+    /**
+     * Takes one token, blocking until one is available.
+     *
+     * @throws InterruptedException if the calling thread is interrupted while waiting
+     */
+    public void acquire() throws InterruptedException {
+        while (true) {
+            final long waitNanos;
+
+            lock.lock();
+            try {
+                refill();
+                if (availableTokens >= 1) {
+                    availableTokens -= 1;
+                    return;
+                }
+                waitNanos = (long) ((1 - availableTokens) / permitsPerSecond * NANOS_PER_SECOND);
+            } finally {
+                lock.unlock();
+            }
+
+            TimeUnit.NANOSECONDS.sleep(Math.max(waitNanos, 1));
+        }
+    }
+
+    private void refill() {
+        final long now = System.nanoTime();
+        final double refilledTokens = (now - lastRefillNanos) * permitsPerSecond / NANOS_PER_SECOND;
+
+        availableTokens = Math.min(capacity, availableTokens + refilledTokens);
+        lastRefillNanos = now;
+    }
+}
@@ -0,0 +1,84 @@
+package com.grokthecode.configs;
+
+import com.grokthecode.common.utilities.MeteredClientHttpRequestInterceptor;
+import com.grokthecode.common.utilities.RetryingClientHttpRequestInterceptor;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.RestClient;
+
+/**
+ * The HTTP client used for every call to the CONAGUA endpoint.
+ * <p>
+ * Connections are pooled and kept alive between syncs (which also reuses TLS sessions), responses are
+ * requested and decoded with gzip, and 5xx responses and timeouts are retried with jittered backoff.
+ * The base URL comes from {@code app.datasource.url}, so it can point at a local stub server.
+ */
+@Configuration
+public class UpstreamClientConfig {
+
+    @Value("${app.upstream.max-connections}")
+    private int maxConnections;
+    @Value("${app.upstream.connect-timeout-ms}")
+    private long connectTimeoutMillis;
+    @Value("${app.upstream.read-timeout-ms}")
+    private long readTimeoutMillis;
+    @Value("${app.upstream.connection-request-timeout-ms}")
+    private long connectionRequestTimeoutMillis;
+    @Value("${app.upstream.idle-eviction-seconds}")
+    private long idleEvictionSeconds;
+    @Value("${app.upstream.retry.max-attempts}")
+    private int retryMaxAttempts;
+    @Value("${app.upstream.retry.initial-backoff-ms}")
+    private long retryInitialBackoffMillis;
+    @Value("${app.upstream.retry.max-backoff-ms}")
+    private long retryMaxBackoffMillis;
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient upstreamHttpClient() {
+        final ConnectionConfig connectionConfig = ConnectionConfig.custom()
+                .setConnectTimeout(Timeout.ofMilliseconds(connectTimeoutMillis))
+                .setSocketTimeout(Timeout.ofMilliseconds(readTimeoutMillis))
+                .build();
+
+        final RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectionRequestTimeout(Timeout.ofMilliseconds(connectionRequestTimeoutMillis))
+                .setResponseTimeout(Timeout.ofMilliseconds(readTimeoutMillis))
+                .build();
+
+        // Content compression (Accept-Encoding: gzip, deflate) is on by default in HttpClients.custom().
+        return HttpClients.custom()
+                .setConnectionManager(PoolingHttpClientConnectionManagerBuilder.create()
+                        .setMaxConnTotal(maxConnections)
+                        .setMaxConnPerRoute(maxConnections)
+                        .setDefaultConnectionConfig(connectionConfig)
+                        .build())
+                .setDefaultRequestConfig(requestConfig)
+                .evictIdleConnections(TimeValue.ofSeconds(idleEvictionSeconds))
+                .evictExpiredConnections()
+                // Retries are done by the RestClient interceptor, with backoff.
+                .disableAutomaticRetries()
+                .build();
+    }
+
+    @Bean
+    public RestClient upstreamRestClient(final RestClient.Builder restClientBuilder,
+                                         final CloseableHttpClient upstreamHttpClient,
+                                         final MeterRegistry meterRegistry) {
+        return restClientBuilder
+                .requestFactory(new HttpComponentsClientHttpRequestFactory(upstreamHttpClient))
+                .requestInterceptor(new MeteredClientHttpRequestInterceptor(meterRegistry, "conagua.upstream"))
+                .requestInterceptor(new RetryingClientHttpRequestInterceptor(retryMaxAttempts,
+                        retryInitialBackoffMillis, retryMaxBackoffMillis))
+                .build();
+    }
+}
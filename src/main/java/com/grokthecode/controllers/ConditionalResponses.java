@@ -0,0 +1,71 @@
+package com.grokthecode.controllers;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.WebRequest;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Builds conditional GET responses.
+ * <p>
+ * The ETag is the data version of the response, so an {@code If-None-Match} that matches it is answered
+ * with 304 before the body is computed. Responses whose date range ended more than
+ * {@code app.api.cache.settled-after-days} days ago are out of reach of the gap sync and may be cached
+ * for {@code app.api.cache.historical-max-age-seconds}; any other response must be revalidated. They are
+ * not marked immutable, since a replay, a bulk load or a sync of explicit dates can still write old dates.
+ */
+@Component
+public class ConditionalResponses {
+
+    private final ZoneId zoneId;
+    private final int settledAfterDays;
+    private final long historicalMaxAgeSeconds;
+
+    public ConditionalResponses(@Value("${app.sync.schedule.zone}") final String zone,
+                                @Value("${app.api.cache.settled-after-days}") final int settledAfterDays,
+                                @Value("${app.api.cache.historical-max-age-seconds}") final long historicalMaxAgeSeconds) {
+        this.zoneId = ZoneId.of(zone);
+        this.settledAfterDays = settledAfterDays;
+        this.historicalMaxAgeSeconds = historicalMaxAgeSeconds;
+    }
+
+    /**
+     * Answers a GET request with 304 if the client holds the current version, or with the body otherwise.
+     *
+     * @param webRequest   the request
+     * @param version      the data version the body is built from
+     * @param endDate      the last date of the response, or null if it has no end
+     * @param bodySupplier builds the body, only called when it is sent
+     * @param <T>          the body type
+     * @return the response
+     */
+    public <T> ResponseEntity<T> respond(final WebRequest webRequest, final String version, final LocalDate endDate,
+                                         final Supplier<T> bodySupplier) {
+        Objects.requireNonNull(version, "version cannot be null.");
+
+        final String eTag = "\"" + version + "\"";
+        final CacheControl cacheControl = cacheControl(endDate);
+
+        if (webRequest.checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).cacheControl(cacheControl).build();
+        }
+
+        return ResponseEntity.ok().eTag(eTag).cacheControl(cacheControl).body(bodySupplier.get());
+    }
+
+    private CacheControl cacheControl(final LocalDate endDate) {
+        if (endDate != null && endDate.isBefore(LocalDate.now(zoneId).minusDays(settledAfterDays))) {
+            return CacheControl.maxAge(historicalMaxAgeSeconds, TimeUnit.SECONDS).cachePublic();
+        }
+
+        return CacheControl.noCache().cachePublic();
+    }
+}
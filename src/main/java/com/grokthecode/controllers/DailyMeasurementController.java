@@ -1,15 +1,37 @@
 package com.grokthecode.controllers;
 
-import com.grokthecode.data.entities.DailyMeasurementEntity;
+import com.grokthecode.common.utilities.EnumNames;
+import com.grokthecode.data.projections.DailyMeasurementView;
 import com.grokthecode.data.requests.DailyMeasurementDatesRequest;
 import com.grokthecode.data.requests.DailyMeasurementRequest;
+import com.grokthecode.data.responses.DailyMeasurementGapResponse;
 import com.grokthecode.data.responses.DailyMeasurementSyncResponse;
+import com.grokthecode.data.responses.DailyMeasurementSyncSummary;
+import com.grokthecode.data.responses.MeasurementAggregateResponse;
+import com.grokthecode.data.responses.PageResponse;
+import com.grokthecode.data.responses.PartitionMaintenanceResponse;
+import com.grokthecode.data.responses.RollupRebuildResponse;
+import com.grokthecode.data.responses.SyncJobResponse;
+import com.grokthecode.services.DailyMeasurementExportService;
+import com.grokthecode.services.DailyMeasurementGapSyncService;
 import com.grokthecode.services.DailyMeasurementService;
+import com.grokthecode.services.DataVersionService;
+import com.grokthecode.services.MeasurementAggregationService;
+import com.grokthecode.services.MeasurementRollupService;
+import com.grokthecode.services.PartitionMaintenanceService;
+import com.grokthecode.services.SyncJobService;
+import com.grokthecode.services.exceptions.ResourceNotFoundException;
+import com.grokthecode.services.exceptions.SyncJobLimitExceededException;
 import lombok.extern.log4j.Log4j2;
 import org.apache.commons.lang3.StringUtils;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.net.URI;
 import java.net.URISyntaxException;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
@@ -22,19 +44,121 @@ import java.util.Objects;
 public class DailyMeasurementController {
 
     public final DailyMeasurementService dailyMeasurementService;
+    public final DailyMeasurementGapSyncService dailyMeasurementGapSyncService;
+    public final SyncJobService syncJobService;
+    public final DailyMeasurementExportService dailyMeasurementExportService;
+    public final DataVersionService dataVersionService;
+    public final ConditionalResponses conditionalResponses;
+    public final MeasurementAggregationService measurementAggregationService;
+    public final MeasurementRollupService measurementRollupService;
+    public final PartitionMaintenanceService partitionMaintenanceService;
 
-    public DailyMeasurementController(final DailyMeasurementService dailyMeasurementService) {
+    public DailyMeasurementController(final DailyMeasurementService dailyMeasurementService,
+                                      final DailyMeasurementGapSyncService dailyMeasurementGapSyncService,
+                                      final SyncJobService syncJobService,
+                                      final DailyMeasurementExportService dailyMeasurementExportService,
+                                      final DataVersionService dataVersionService,
+                                      final ConditionalResponses conditionalResponses,
+                                      final MeasurementAggregationService measurementAggregationService,
+                                      final MeasurementRollupService measurementRollupService,
+                                      final PartitionMaintenanceService partitionMaintenanceService) {
         this.dailyMeasurementService = dailyMeasurementService;
+        this.dailyMeasurementGapSyncService = dailyMeasurementGapSyncService;
+        this.syncJobService = syncJobService;
+        this.dailyMeasurementExportService = dailyMeasurementExportService;
+        this.dataVersionService = dataVersionService;
+        this.conditionalResponses = conditionalResponses;
+        this.measurementAggregationService = measurementAggregationService;
+        this.measurementRollupService = measurementRollupService;
+        this.partitionMaintenanceService = partitionMaintenanceService;
     }
 
     @GetMapping("/api/dams/measurements")
-    public ResponseEntity<List<DailyMeasurementEntity>> getDailyAllMeasurements() {
+    public ResponseEntity<List<DailyMeasurementView>> getDailyAllMeasurements(final WebRequest webRequest) {
 
-        return ResponseEntity.ok(dailyMeasurementService.getDailyMeasurements());
+        return conditionalResponses.respond(webRequest, dataVersionService.getGlobalVersion(), null,
+                dailyMeasurementService::getDailyMeasurements);
+    }
+
+    /**
+     * Streams the measurements, optionally of a date range, as NDJSON ({@code format=ndjson}, the default)
+     * or as a chunked JSON array ({@code format=json}).
+     */
+    @GetMapping("/api/dams/measurements/stream")
+    public ResponseEntity<StreamingResponseBody> streamDailyMeasurements(@RequestParam(defaultValue = "ndjson") final String format,
+                                                                         @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) final LocalDate startDate,
+                                                                         @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) final LocalDate endDate) {
+        final DailyMeasurementExportService.Format exportFormat = EnumNames.parse(DailyMeasurementExportService.Format.class, format);
+
+        if ((startDate == null) != (endDate == null)) {
+            throw new IllegalArgumentException("startDate and endDate must be given together.");
+        }
+
+        final StreamingResponseBody streamingResponseBody = outputStream -> {
+            if (startDate == null) {
+                dailyMeasurementExportService.exportDailyMeasurements(outputStream, exportFormat);
+            } else {
+                dailyMeasurementExportService.exportDailyMeasurements(startDate, endDate, outputStream, exportFormat);
+            }
+        };
+
+        return ResponseEntity.ok()
+                .contentType(exportFormat == DailyMeasurementExportService.Format.NDJSON ? MediaType.APPLICATION_NDJSON : MediaType.APPLICATION_JSON)
+                .body(streamingResponseBody);
+    }
+
+    @GetMapping("/api/dams/measurements/page")
+    public ResponseEntity<PageResponse<DailyMeasurementView>> getDailyMeasurementsPage(@RequestParam(required = false) final String sihKey,
+                                                                                         @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) final LocalDate startDate,
+                                                                                         @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) final LocalDate endDate,
+                                                                                         @RequestParam(required = false) final String pageToken,
+                                                                                         @RequestParam(required = false) final Integer pageSize,
+                                                                                         final WebRequest webRequest) {
+        final String trimmedSihKey = StringUtils.trimToNull(sihKey);
+        final String version = trimmedSihKey == null ? dataVersionService.getGlobalVersion() : dataVersionService.getDamVersion(trimmedSihKey);
+
+        return conditionalResponses.respond(webRequest, version, endDate,
+                () -> dailyMeasurementService.getDailyMeasurementsPage(trimmedSihKey, startDate, endDate, pageToken, pageSize));
+    }
+
+    /**
+     * Aggregates the measurements by {@code groupBy} (dam, state, cnaRegion or usage) over {@code bucket}
+     * (week, month or year), e.g. {@code ?groupBy=state&bucket=month&metrics=avgFillPercentage,lastCapacity}.
+     */
+    @GetMapping("/api/dams/measurements/aggregates")
+    public ResponseEntity<List<MeasurementAggregateResponse>> getMeasurementAggregates(@RequestParam(defaultValue = "dam") final String groupBy,
+                                                                                       @RequestParam(defaultValue = "month") final String bucket,
+                                                                                       @RequestParam(defaultValue = "avgFillPercentage") final List<String> metrics,
+                                                                                       @RequestParam(required = false) final String state,
+                                                                                       @RequestParam(required = false) final String cnaRegion,
+                                                                                       @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) final LocalDate startDate,
+                                                                                       @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) final LocalDate endDate,
+                                                                                       final WebRequest webRequest) {
+        final MeasurementAggregationService.GroupBy aggregationGroupBy = EnumNames.parse(MeasurementAggregationService.GroupBy.class, groupBy);
+        final MeasurementAggregationService.Bucket aggregationBucket = EnumNames.parse(MeasurementAggregationService.Bucket.class, bucket);
+        final List<MeasurementAggregationService.Metric> metricList = metrics.stream()
+                .map(metric -> EnumNames.parse(MeasurementAggregationService.Metric.class, metric))
+                .toList();
+
+        return conditionalResponses.respond(webRequest, dataVersionService.getGlobalVersion(), endDate,
+                () -> measurementAggregationService.aggregate(aggregationGroupBy, aggregationBucket, metricList,
+                        StringUtils.trimToNull(state), StringUtils.trimToNull(cnaRegion), startDate, endDate));
+    }
+
+    @PostMapping("/api/dams/measurements/rollups/rebuild")
+    public ResponseEntity<RollupRebuildResponse> rebuildMeasurementRollups() {
+
+        return ResponseEntity.ok(measurementRollupService.rebuild());
+    }
+
+    @PostMapping("/api/dams/measurements/partitions/maintain")
+    public ResponseEntity<PartitionMaintenanceResponse> maintainMeasurementPartitions() {
+
+        return ResponseEntity.ok(partitionMaintenanceService.maintain());
     }
 
     @PostMapping("/api/dams/measurements")
-    public ResponseEntity<List<DailyMeasurementEntity>> getDailyMeasurementsByDamId(@RequestBody final DailyMeasurementRequest dailyMeasurementRequest) {
+    public ResponseEntity<List<DailyMeasurementView>> getDailyMeasurementsByDamId(@RequestBody final DailyMeasurementRequest dailyMeasurementRequest) {
         Objects.requireNonNull(dailyMeasurementRequest, "dailyMeasurementRequest cannot be null.");
 
         final String sihKey = dailyMeasurementRequest.sihKey();
@@ -95,4 +219,73 @@ public class DailyMeasurementController {
         }
         return ResponseEntity.ok(dailyMeasurementService.syncDamsDailyFill(startDate, endDate));
     }
+
+    @PostMapping("/api/dams/measurements/replay/dates")
+    public  ResponseEntity<List<DailyMeasurementSyncResponse>> replayDailyMeasurements(@RequestBody DailyMeasurementDatesRequest dailyMeasurementDatesRequest) {
+        Objects.requireNonNull(dailyMeasurementDatesRequest, "dailyMeasurementDatesRequest cannot be null.");
+
+        final String startDate = dailyMeasurementDatesRequest.startDate();
+        String endDate = dailyMeasurementDatesRequest.endDate();
+
+        if(StringUtils.isBlank(endDate) || endDate.equals("string")) {
+            endDate = startDate;
+        }
+        return ResponseEntity.ok(dailyMeasurementService.replayDamsDailyFill(startDate, endDate));
+    }
+
+    @PostMapping("/api/dams/measurements/bulk-load/dates")
+    public  ResponseEntity<List<DailyMeasurementSyncSummary>> bulkLoadDailyMeasurements(@RequestBody DailyMeasurementDatesRequest dailyMeasurementDatesRequest) {
+        Objects.requireNonNull(dailyMeasurementDatesRequest, "dailyMeasurementDatesRequest cannot be null.");
+
+        final String startDate = dailyMeasurementDatesRequest.startDate();
+        String endDate = dailyMeasurementDatesRequest.endDate();
+
+        if(StringUtils.isBlank(endDate) || endDate.equals("string")) {
+            endDate = startDate;
+        }
+        return ResponseEntity.ok(dailyMeasurementService.bulkLoadDamsDailyFill(startDate, endDate));
+    }
+
+    @GetMapping("/api/dams/measurements/gaps")
+    public ResponseEntity<List<DailyMeasurementGapResponse>> getDailyMeasurementGaps() {
+
+        return ResponseEntity.ok(dailyMeasurementGapSyncService.findGaps());
+    }
+
+    @PostMapping("/api/dams/measurements/sync/gaps")
+    public ResponseEntity<List<DailyMeasurementSyncResponse>> syncDailyMeasurementGaps() {
+
+        return ResponseEntity.ok(dailyMeasurementGapSyncService.syncGaps(false));
+    }
+
+    @PostMapping("/api/dams/measurements/sync/jobs")
+    public ResponseEntity<SyncJobResponse> startSyncJob(@RequestBody DailyMeasurementDatesRequest dailyMeasurementDatesRequest) throws SyncJobLimitExceededException {
+        Objects.requireNonNull(dailyMeasurementDatesRequest, "dailyMeasurementDatesRequest cannot be null.");
+
+        final String startDate = dailyMeasurementDatesRequest.startDate();
+        String endDate = dailyMeasurementDatesRequest.endDate();
+
+        if(StringUtils.isBlank(endDate) || endDate.equals("string")) {
+            endDate = startDate;
+        }
+        final SyncJobResponse syncJobResponse = syncJobService.startDailyFillJob(startDate, endDate);
+
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/dams/measurements/sync/jobs/" + syncJobResponse.jobId()))
+                .body(syncJobResponse);
+    }
+
+    @GetMapping("/api/dams/measurements/sync/jobs/{jobId}")
+    public ResponseEntity<SyncJobResponse> getSyncJob(@PathVariable final String jobId) throws ResourceNotFoundException {
+        Objects.requireNonNull(jobId, "jobId cannot be null.");
+
+        return ResponseEntity.ok(syncJobService.getJob(jobId));
+    }
+
+    @DeleteMapping("/api/dams/measurements/sync/jobs/{jobId}")
+    public ResponseEntity<SyncJobResponse> cancelSyncJob(@PathVariable final String jobId) throws ResourceNotFoundException {
+        Objects.requireNonNull(jobId, "jobId cannot be null.");
+
+        return ResponseEntity.accepted().body(syncJobService.cancelJob(jobId));
+    }
 }
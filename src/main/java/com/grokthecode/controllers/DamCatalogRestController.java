@@ -3,7 +3,7 @@ package com.grokthecode.controllers;
 import com.grokthecode.services.exceptions.DamWithSihKeyDoesNotExistsException;
 import com.grokthecode.services.exceptions.ResourceNotFoundException;
 import com.grokthecode.services.exceptions.SyncDamCatalogException;
-import com.grokthecode.data.entities.DamCatalogEntity;
+import com.grokthecode.data.projections.DamCatalogView;
 import com.grokthecode.data.responses.DamCatalogSyncResponse;
 import com.grokthecode.services.DamCatalogService;
 import lombok.extern.log4j.Log4j2;
@@ -26,20 +26,20 @@ public class DamCatalogRestController {
     }
 
     @GetMapping("/api/dams/catalog")
-    public ResponseEntity<List<DamCatalogEntity>> damns() {
+    public ResponseEntity<List<DamCatalogView>> damns() {
 
-        return ResponseEntity.ok(damCatalogService.listAllDams());
+        return ResponseEntity.ok(damCatalogService.listAllDamViews());
     }
 
     @GetMapping("/api/dams/catalog/sihKey/{sihKey}")
-    public ResponseEntity<DamCatalogEntity> getDamCatalogBySihKey(@PathVariable final String sihKey) throws DamWithSihKeyDoesNotExistsException {
+    public ResponseEntity<DamCatalogView> getDamCatalogBySihKey(@PathVariable final String sihKey) throws DamWithSihKeyDoesNotExistsException {
         Objects.requireNonNull(sihKey, "sihKey cannot be null.");
 
        return ResponseEntity.ok(damCatalogService.getDamCatalogBySihKey(sihKey));
     }
 
     @GetMapping("/api/dams/catalog/state/{state}")
-    public ResponseEntity<List<DamCatalogEntity>> getDamCatalogByState(@PathVariable final String state) throws ResourceNotFoundException {
+    public ResponseEntity<List<DamCatalogView>> getDamCatalogByState(@PathVariable final String state) throws ResourceNotFoundException {
         Objects.requireNonNull(state, "state cannot be null.");
 
         return ResponseEntity.ok(damCatalogService.getDamCatalogByState(state));
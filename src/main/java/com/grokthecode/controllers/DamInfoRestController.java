@@ -1,16 +1,28 @@
 package com.grokthecode.controllers;
 
+import com.grokthecode.common.utilities.EnumNames;
 import com.grokthecode.data.requests.DamInfoDatesRequest;
 import com.grokthecode.data.requests.DamInfoSihKeyRequest;
 import com.grokthecode.data.requests.DamInfoStateRequest;
 import com.grokthecode.data.responses.DamInfoResponse;
+import com.grokthecode.data.responses.DamLatestMeasurementResponse;
+import com.grokthecode.data.responses.PageResponse;
+import com.grokthecode.data.responses.StorageTotalsResponse;
 import com.grokthecode.services.DamInfoService;
+import com.grokthecode.services.DataVersionService;
+import com.grokthecode.services.LatestMeasurementSnapshot;
+import com.grokthecode.services.StorageTotalsStore;
 import lombok.extern.log4j.Log4j2;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import java.time.LocalDate;
 import java.time.format.DateTimeParseException;
@@ -21,15 +33,103 @@ import java.util.Objects;
 @Log4j2
 public class DamInfoRestController {
     final private DamInfoService damInfoService;
-
-    public DamInfoRestController(final DamInfoService damInfoService) {
+    final private DataVersionService dataVersionService;
+    final private ConditionalResponses conditionalResponses;
+    final private LatestMeasurementSnapshot latestMeasurementSnapshot;
+    final private StorageTotalsStore storageTotalsStore;
+
+    public DamInfoRestController(final DamInfoService damInfoService,
+                                 final DataVersionService dataVersionService,
+                                 final ConditionalResponses conditionalResponses,
+                                 final LatestMeasurementSnapshot latestMeasurementSnapshot,
+                                 final StorageTotalsStore storageTotalsStore) {
         this.damInfoService = damInfoService;
+        this.dataVersionService = dataVersionService;
+        this.conditionalResponses = conditionalResponses;
+        this.latestMeasurementSnapshot = latestMeasurementSnapshot;
+        this.storageTotalsStore = storageTotalsStore;
     }
 
     @GetMapping("/api/dams/info")
-    public ResponseEntity<List<DamInfoResponse>> getAllDamsInfo() {
+    public ResponseEntity<List<DamInfoResponse>> getAllDamsInfo(final WebRequest webRequest) {
+
+        return conditionalResponses.respond(webRequest, dataVersionService.getGlobalVersion(), null,
+                damInfoService::getDamsInfo);
+    }
+
+    /**
+     * The latest measurement of every dam, optionally of a state and of a CNA region.
+     */
+    @GetMapping("/api/dams/latest")
+    public ResponseEntity<List<DamLatestMeasurementResponse>> getLatestMeasurements(@RequestParam(required = false) final String state,
+                                                                                     @RequestParam(required = false) final String cnaRegion,
+                                                                                     final WebRequest webRequest) {
+
+        return conditionalResponses.respond(webRequest, dataVersionService.getGlobalVersion(), null,
+                () -> latestMeasurementSnapshot.getLatestMeasurements(StringUtils.trimToNull(state), StringUtils.trimToNull(cnaRegion)));
+    }
+
+    /**
+     * The daily stored volume and weighted fill of the whole country ({@code scope=national}, the default),
+     * of a state ({@code scope=state&name=...}) or of a CNA region ({@code scope=cnaRegion&name=...}).
+     */
+    @GetMapping("/api/dams/totals")
+    public ResponseEntity<StorageTotalsResponse> getStorageTotals(@RequestParam(defaultValue = "national") final String scope,
+                                                                  @RequestParam(required = false) final String name,
+                                                                  @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) final LocalDate startDate,
+                                                                  @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) final LocalDate endDate,
+                                                                  final WebRequest webRequest) {
+        final StorageTotalsStore.Scope totalsScope = EnumNames.parse(StorageTotalsStore.Scope.class, scope);
+
+        return conditionalResponses.respond(webRequest, dataVersionService.getGlobalVersion(), endDate,
+                () -> storageTotalsStore.getTotals(totalsScope, StringUtils.trimToNull(name), startDate, endDate));
+    }
+
+    @GetMapping("/api/dams/info/sihKey/{sihKey}")
+    public ResponseEntity<DamInfoResponse> getDamInfoBySihKey(@PathVariable final String sihKey,
+                                                              @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) final LocalDate startDate,
+                                                              @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) final LocalDate endDate,
+                                                              final WebRequest webRequest) {
+        if ((startDate == null) != (endDate == null)) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        return conditionalResponses.respond(webRequest, dataVersionService.getDamVersion(sihKey), endDate,
+                () -> startDate == null ? damInfoService.getDamsInfoBySihKey(sihKey) : damInfoService.getDamsInfoBySihKey(sihKey, startDate, endDate));
+    }
+
+    @GetMapping("/api/dams/info/state/{state}")
+    public ResponseEntity<List<DamInfoResponse>> getDamsInfoByState(@PathVariable final String state,
+                                                                    @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) final LocalDate startDate,
+                                                                    @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) final LocalDate endDate,
+                                                                    final WebRequest webRequest) {
+        if ((startDate == null) != (endDate == null)) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        return conditionalResponses.respond(webRequest, dataVersionService.getGlobalVersion(), endDate,
+                () -> startDate == null ? damInfoService.getDamsInfoByState(state) : damInfoService.getDamsInfoByState(state, startDate, endDate));
+    }
+
+    @GetMapping("/api/dams/info/dates")
+    public ResponseEntity<List<DamInfoResponse>> getDamsInfoByDates(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) final LocalDate startDate,
+                                                                    @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) final LocalDate endDate,
+                                                                    final WebRequest webRequest) {
+
+        return conditionalResponses.respond(webRequest, dataVersionService.getGlobalVersion(), endDate,
+                () -> damInfoService.getDamsInfoByDates(startDate, endDate));
+    }
+
+    @GetMapping("/api/dams/info/page")
+    public ResponseEntity<PageResponse<DamInfoResponse>> getDamsInfoPage(@RequestParam(required = false) final String state,
+                                                                         @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) final LocalDate startDate,
+                                                                         @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) final LocalDate endDate,
+                                                                         @RequestParam(required = false) final String pageToken,
+                                                                         @RequestParam(required = false) final Integer pageSize,
+                                                                         final WebRequest webRequest) {
 
-        return ResponseEntity.ok(damInfoService.getDamsInfo());
+        return conditionalResponses.respond(webRequest, dataVersionService.getGlobalVersion(), endDate,
+                () -> damInfoService.getDamsInfoPage(state, startDate, endDate, pageToken, pageSize));
     }
 
     @PostMapping("/api/dams/info/sihKey")
@@ -0,0 +1,38 @@
+package com.grokthecode.controllers;
+
+import com.grokthecode.data.responses.DamSyncResponse;
+import com.grokthecode.services.DamSyncService;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.net.URISyntaxException;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.Objects;
+
+@RestController
+@Log4j2
+public class DamSyncRestController {
+
+    public final DamSyncService damSyncService;
+
+    public DamSyncRestController(final DamSyncService damSyncService) {
+        this.damSyncService = damSyncService;
+    }
+
+    @GetMapping("/api/dams/sync/date/today")
+    public ResponseEntity<DamSyncResponse> syncDams() throws URISyntaxException {
+
+        return ResponseEntity.ok(damSyncService.syncDams(LocalDate.now().format(DateTimeFormatter.ISO_LOCAL_DATE)));
+    }
+
+    @GetMapping("/api/dams/sync/date/{formatedDate}")
+    public ResponseEntity<DamSyncResponse> syncDams(@PathVariable final String formatedDate) throws URISyntaxException {
+        Objects.requireNonNull(formatedDate, "formatedDate cannot be null.");
+
+        return ResponseEntity.ok(damSyncService.syncDams(formatedDate));
+    }
+}
@@ -3,6 +3,7 @@ package com.grokthecode.controllers.exceptions;
 import com.grokthecode.services.exceptions.DamWithSihKeyDoesNotExistsException;
 import com.grokthecode.services.exceptions.ResourceNotFoundException;
 import com.grokthecode.services.exceptions.SyncDamCatalogException;
+import com.grokthecode.services.exceptions.SyncJobLimitExceededException;
 import org.springframework.boot.web.error.ErrorAttributeOptions;
 import org.springframework.boot.web.servlet.error.DefaultErrorAttributes;
 import org.springframework.boot.web.servlet.error.ErrorAttributes;
@@ -48,6 +49,11 @@ class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
         );
     }
 
+    @ExceptionHandler(SyncJobLimitExceededException.class)
+    public ResponseEntity<Map<String, Object>> handleSyncJobLimitExceededException(SyncJobLimitExceededException ex, WebRequest webRequest) {
+        return createErrorResponse(ex, webRequest, HttpStatus.TOO_MANY_REQUESTS);
+    }
+
     @ExceptionHandler(MethodArgumentTypeMismatchException.class)
     public ResponseEntity<Map<String, Object>> handleTypeMismatch(MethodArgumentTypeMismatchException ex, WebRequest webRequest) {
         String name = ex.getName();
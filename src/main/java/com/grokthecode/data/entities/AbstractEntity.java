@@ -15,9 +15,16 @@ import java.sql.Timestamp;
 @EntityListeners(AuditingEntityListener.class)
 public abstract class AbstractEntity {
 
+    /**
+     * The number of ids handed out per call to the {@code idgenerator} sequence. It is the JPA default and is
+     * stated because {@link com.grokthecode.services.DailyMeasurementWriter} and the migrations depend on it.
+     */
+    public static final int ID_ALLOCATION_SIZE = 50;
+
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "idgenerator")
-    @SequenceGenerator(name = "idgenerator")
+    // The pooled optimizer (hibernate.id.optimizer.pooled.preferred) hands out ids in blocks of allocationSize.
+    @SequenceGenerator(name = "idgenerator", allocationSize = ID_ALLOCATION_SIZE)
     private Long id;
 
     @Version
@@ -12,7 +12,8 @@ import java.time.LocalDate;
 @Entity
 @Getter
 @Setter
-@Table(name = "dailyMeasurements")
+@Table(name = "dailyMeasurements",
+        uniqueConstraints = @UniqueConstraint(name = "uk_daily_measurements_dam_date", columnNames = {"damId", "measurementDate"}))
 public class DailyMeasurementEntity extends AbstractEntity{
 
     public DailyMeasurementEntity() {}
@@ -40,7 +41,9 @@ public class DailyMeasurementEntity extends AbstractEntity{
     @Column(name = "currentFillPercentage", nullable = false)
     private Double currentFillPercentage;
 
-    @Column(name = "measurementDate")
+    // The partition key of the dailyMeasurements table.
+    @NotNull(message = "measurementDate" + GlobalConstants.MESSAGE_MUST_NOT_BE_NULL)
+    @Column(name = "measurementDate", nullable = false)
     private LocalDate measurementDate;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -11,7 +11,9 @@ import lombok.Setter;
 @Entity
 @Getter
 @Setter
-@Table(name = "dams")
+@Table(name = "dams",
+        uniqueConstraints = @UniqueConstraint(name = "uk_dams_sih_key", columnNames = "sihKey"),
+        indexes = @Index(name = "idx_dams_state", columnList = "state"))
 public class DamCatalogEntity extends AbstractEntity {
 
     public DamCatalogEntity() {}
@@ -0,0 +1,6 @@
+package com.grokthecode.data.projections;
+
+import java.time.LocalDate;
+
+public record DailyMeasurementKey(Long damId, LocalDate measurementDate) {
+}
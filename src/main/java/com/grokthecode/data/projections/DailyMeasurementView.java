@@ -0,0 +1,7 @@
+package com.grokthecode.data.projections;
+
+import java.time.LocalDate;
+
+public record DailyMeasurementView(Long id, Long damId, LocalDate measurementDate, Double currentElevation,
+                                   Double currentCapacity, Double currentFillPercentage) {
+}
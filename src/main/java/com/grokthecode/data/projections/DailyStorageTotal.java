@@ -0,0 +1,7 @@
+package com.grokthecode.data.projections;
+
+import java.time.LocalDate;
+
+public record DailyStorageTotal(LocalDate measurementDate, String state, String cnaRegion, Double totalCapacity,
+                                Double weightedFillPercentageSum, Double nameCapacitySum, Long damCount) {
+}
@@ -0,0 +1,7 @@
+package com.grokthecode.data.projections;
+
+public record DamCatalogView(Long id, String sihKey, String officialName, String commonName, String state,
+                             String municipality, String cnaRegion, Double latitude, Double longitude, String usage,
+                             String currents, String verterType, String operationStartYear, String elevationCrown,
+                             Double freeBorder, Double nameElevation, Double nameCapacity, String shadeHeight) {
+}
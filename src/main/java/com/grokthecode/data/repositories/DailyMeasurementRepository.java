@@ -2,18 +2,125 @@ package com.grokthecode.data.repositories;
 
 import com.grokthecode.data.entities.DailyMeasurementEntity;
 import com.grokthecode.data.entities.DamCatalogEntity;
+import com.grokthecode.data.projections.DailyMeasurementKey;
+import com.grokthecode.data.projections.DailyMeasurementView;
+import com.grokthecode.data.projections.DailyStorageTotal;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface DailyMeasurementRepository extends JpaRepository<DailyMeasurementEntity, Long>, JpaSpecificationExecutor<DailyMeasurementEntity> {
 
+    /**
+     * Rows fetched per round trip by the stream queries.
+     */
+    String STREAM_FETCH_SIZE = "500";
+
+    /**
+     * Selects {@link DailyMeasurementView}s, the read model of the query endpoints.
+     * <p>
+     * The table is partitioned by measurementDate; the date filters below compare it with plain parameters so
+     * PostgreSQL prunes the partitions outside the range when the query runs.
+     */
+    String SELECT_VIEW = "select new com.grokthecode.data.projections.DailyMeasurementView(m.id, m.damCatalogEntity.id, " +
+            "m.measurementDate, m.currentElevation, m.currentCapacity, m.currentFillPercentage) " +
+            "from DailyMeasurementEntity m ";
+
     List<DailyMeasurementEntity> findByDamCatalogEntityOrderByMeasurementDateDesc(DamCatalogEntity damCatalogEntity);
     Boolean existsByDamCatalogEntityAndMeasurementDate(DamCatalogEntity damCatalogEntity, LocalDate measurementDate);
     List<DailyMeasurementEntity> findByMeasurementDateBetweenOrderByMeasurementDateDesc(LocalDate startDate, LocalDate endDate);
     List<DailyMeasurementEntity> findByDamCatalogEntityAndMeasurementDateBetweenOrderByMeasurementDateDesc(DamCatalogEntity damCatalogEntity, LocalDate startDate, LocalDate endDate);
+
+    @Query("select new com.grokthecode.data.projections.DailyMeasurementKey(m.damCatalogEntity.id, m.measurementDate) " +
+            "from DailyMeasurementEntity m " +
+            "where m.measurementDate between :startDate and :endDate")
+    List<DailyMeasurementKey> findKeysByMeasurementDateBetween(@Param("startDate") LocalDate startDate,
+                                                               @Param("endDate") LocalDate endDate);
+
+    @Query(SELECT_VIEW + "order by m.measurementDate desc, m.id desc")
+    List<DailyMeasurementView> findAllViews();
+
+    @Query(SELECT_VIEW + "where m.damCatalogEntity.id = :damId order by m.measurementDate desc, m.id desc")
+    List<DailyMeasurementView> findViewsByDamId(@Param("damId") Long damId);
+
+    @Query(SELECT_VIEW + "where m.measurementDate between :startDate and :endDate order by m.measurementDate desc, m.id desc")
+    List<DailyMeasurementView> findViewsByMeasurementDateBetween(@Param("startDate") LocalDate startDate,
+                                                                 @Param("endDate") LocalDate endDate);
+
+    @Query(SELECT_VIEW + "where m.damCatalogEntity.id = :damId and m.measurementDate between :startDate and :endDate " +
+            "order by m.measurementDate desc, m.id desc")
+    List<DailyMeasurementView> findViewsByDamIdAndMeasurementDateBetween(@Param("damId") Long damId,
+                                                                         @Param("startDate") LocalDate startDate,
+                                                                         @Param("endDate") LocalDate endDate);
+
+    // Every measurement of a set of dams, ordered by dam and date, to be grouped by dam in memory.
+    @Query(SELECT_VIEW + "order by m.damCatalogEntity.id, m.measurementDate desc")
+    List<DailyMeasurementView> findViewsOrderByDamIdAndMeasurementDateDesc();
+
+    @Query(SELECT_VIEW + "where m.measurementDate between :startDate and :endDate " +
+            "order by m.damCatalogEntity.id, m.measurementDate desc")
+    List<DailyMeasurementView> findViewsByMeasurementDateBetweenOrderByDamIdAndMeasurementDateDesc(@Param("startDate") LocalDate startDate,
+                                                                                                   @Param("endDate") LocalDate endDate);
+
+    @Query(SELECT_VIEW + "where m.damCatalogEntity.id in :damIds " +
+            "order by m.damCatalogEntity.id, m.measurementDate desc")
+    List<DailyMeasurementView> findViewsByDamIdsOrderByDamIdAndMeasurementDateDesc(@Param("damIds") Collection<Long> damIds);
+
+    @Query(SELECT_VIEW + "where m.damCatalogEntity.id in :damIds and m.measurementDate between :startDate and :endDate " +
+            "order by m.damCatalogEntity.id, m.measurementDate desc")
+    List<DailyMeasurementView> findViewsByDamIdsAndMeasurementDateBetweenOrderByDamIdAndMeasurementDateDesc(@Param("damIds") Collection<Long> damIds,
+                                                                                                            @Param("startDate") LocalDate startDate,
+                                                                                                            @Param("endDate") LocalDate endDate);
+
+    // The latest measurements of every dam, each found through the (damId, measurementDate) index.
+    @Query(SELECT_VIEW + "where m.measurementDate = (select max(l.measurementDate) from DailyMeasurementEntity l " +
+            "where l.damCatalogEntity.id = m.damCatalogEntity.id)")
+    List<DailyMeasurementView> findLatestViews();
+
+    @Query(SELECT_VIEW + "where m.damCatalogEntity.id in :damIds and m.measurementDate = (select max(l.measurementDate) " +
+            "from DailyMeasurementEntity l where l.damCatalogEntity.id = m.damCatalogEntity.id)")
+    List<DailyMeasurementView> findLatestViewsByDamIds(@Param("damIds") Collection<Long> damIds);
+
+    // Stored volume and fill weighted by NAME capacity, per day and per state and CNA region pair.
+    @Query("select new com.grokthecode.data.projections.DailyStorageTotal(m.measurementDate, d.state, d.cnaRegion, " +
+            "sum(m.currentCapacity), sum(m.currentFillPercentage * d.nameCapacity), sum(d.nameCapacity), count(m)) " +
+            "from DailyMeasurementEntity m join m.damCatalogEntity d " +
+            "group by m.measurementDate, d.state, d.cnaRegion")
+    List<DailyStorageTotal> findDailyStorageTotals();
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE))
+    @Query(SELECT_VIEW + "order by m.measurementDate desc, m.id desc")
+    Stream<DailyMeasurementView> streamAllViews();
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE))
+    @Query(SELECT_VIEW + "where m.measurementDate between :startDate and :endDate order by m.measurementDate desc, m.id desc")
+    Stream<DailyMeasurementView> streamViewsByMeasurementDateBetween(@Param("startDate") LocalDate startDate,
+                                                                     @Param("endDate") LocalDate endDate);
+
+    // Keyset pages on (measurementDate, id), most recent first, starting after (afterDate, afterId). The row
+    // value comparison is a range scan of the (measurement_date, id) index.
+    @Query(SELECT_VIEW + "where m.measurementDate between :startDate and :endDate " +
+            "and (m.measurementDate, m.id) < (:afterDate, :afterId) " +
+            "order by m.measurementDate desc, m.id desc")
+    List<DailyMeasurementView> findViewPage(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate,
+                                            @Param("afterDate") LocalDate afterDate, @Param("afterId") Long afterId, Limit limit);
+
+    @Query(SELECT_VIEW + "where m.damCatalogEntity.id = :damId and m.measurementDate between :startDate and :endDate " +
+            "and (m.measurementDate, m.id) < (:afterDate, :afterId) " +
+            "order by m.measurementDate desc, m.id desc")
+    List<DailyMeasurementView> findViewPageByDamId(@Param("damId") Long damId,
+                                                   @Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate,
+                                                   @Param("afterDate") LocalDate afterDate, @Param("afterId") Long afterId, Limit limit);
 }
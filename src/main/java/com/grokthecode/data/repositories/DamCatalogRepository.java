@@ -1,17 +1,31 @@
 package com.grokthecode.data.repositories;
 
 import com.grokthecode.data.entities.DamCatalogEntity;
+import com.grokthecode.data.projections.DamCatalogView;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface DamCatalogRepository  extends JpaRepository<DamCatalogEntity, Long>, JpaSpecificationExecutor<DamCatalogEntity> {
 
+    /**
+     * Selects {@link DamCatalogView}s, the read model of the query endpoints.
+     */
+    String SELECT_VIEW = "select new com.grokthecode.data.projections.DamCatalogView(d.id, d.sihKey, d.officialName, " +
+            "d.commonName, d.state, d.municipality, d.cnaRegion, d.latitude, d.longitude, d.usage, d.currents, " +
+            "d.verterType, d.operationStartYear, d.elevationCrown, d.freeBorder, d.nameElevation, d.nameCapacity, " +
+            "d.shadeHeight) from DamCatalogEntity d ";
+
     Optional<DamCatalogEntity> findBySihKey(String sihKey);
 
-    List<DamCatalogEntity> findByState(String state);
+    List<DamCatalogEntity> findBySihKeyIn(Collection<String> sihKeys);
+
+    @Query(SELECT_VIEW + "order by d.sihKey")
+    List<DamCatalogView> findAllViews();
 }
@@ -0,0 +1,7 @@
+package com.grokthecode.data.responses;
+
+import java.util.List;
+
+public record DailyMeasurementGapResponse(String formatedDate, Long storedCount, Long expectedCount,
+                                          List<String> missingSihKeyList, Boolean upstreamExhausted) {
+}
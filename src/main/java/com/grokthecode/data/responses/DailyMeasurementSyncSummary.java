@@ -0,0 +1,22 @@
+package com.grokthecode.data.responses;
+
+import java.util.List;
+
+public record DailyMeasurementSyncSummary(String formatedDate, Integer syncCount, Integer errorCount, List<String> syncErrorMessageList) {
+
+    /**
+     * Summarizes a sync response, keeping the counts and only the first error messages.
+     *
+     * @param dailyMeasurementSyncResponse the sync response
+     * @param maxErrorMessages             the number of error messages to keep
+     * @return the summary
+     */
+    public static DailyMeasurementSyncSummary of(final DailyMeasurementSyncResponse dailyMeasurementSyncResponse, final int maxErrorMessages) {
+        final List<String> syncErrorMessageList = dailyMeasurementSyncResponse.syncErrorMessageList();
+
+        return new DailyMeasurementSyncSummary(dailyMeasurementSyncResponse.formatedDate(),
+                dailyMeasurementSyncResponse.syncCount(),
+                syncErrorMessageList.size(),
+                List.copyOf(syncErrorMessageList.subList(0, Math.min(maxErrorMessages, syncErrorMessageList.size()))));
+    }
+}
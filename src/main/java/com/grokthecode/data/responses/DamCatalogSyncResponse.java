@@ -4,5 +4,6 @@ import com.grokthecode.data.entities.DamCatalogEntity;
 
 import java.util.List;
 
-public record DamCatalogSyncResponse(Integer syncCount, List<DamCatalogEntity> dailyMeasurementList, List<String> syncErrorMessageList) {
+public record DamCatalogSyncResponse(Integer syncCount, Integer createdCount, Integer updatedCount, Integer unchangedCount,
+                                     List<DamCatalogEntity> damCatalogList, List<String> syncErrorMessageList) {
 }
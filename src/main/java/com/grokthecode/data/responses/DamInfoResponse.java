@@ -1,9 +1,9 @@
 package com.grokthecode.data.responses;
 
-import com.grokthecode.data.entities.DailyMeasurementEntity;
-import com.grokthecode.data.entities.DamCatalogEntity;
+import com.grokthecode.data.projections.DailyMeasurementView;
+import com.grokthecode.data.projections.DamCatalogView;
 
 import java.util.List;
 
-public record DamInfoResponse(DamCatalogEntity dam, List<DailyMeasurementEntity> dailyMeasurementList) {
+public record DamInfoResponse(DamCatalogView dam, List<DailyMeasurementView> dailyMeasurementList) {
 }
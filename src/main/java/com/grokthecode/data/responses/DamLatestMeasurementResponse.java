@@ -0,0 +1,7 @@
+package com.grokthecode.data.responses;
+
+import com.grokthecode.data.projections.DailyMeasurementView;
+import com.grokthecode.data.projections.DamCatalogView;
+
+public record DamLatestMeasurementResponse(DamCatalogView dam, DailyMeasurementView latestMeasurement) {
+}
@@ -0,0 +1,5 @@
+package com.grokthecode.data.responses;
+
+public record DamSyncResponse(String formatedDate, DamCatalogSyncResponse damCatalogSyncResponse,
+                              DailyMeasurementSyncResponse dailyMeasurementSyncResponse) {
+}
@@ -0,0 +1,16 @@
+package com.grokthecode.data.responses;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+/**
+ * The aggregated measurements of a group over a time bucket.
+ *
+ * @param group            the group value: a sihKey, state, CNA region or usage
+ * @param bucketStart      the first day of the bucket
+ * @param measurementCount the number of measurements in the bucket
+ * @param metrics          the requested metrics by name, e.g. {@code avgFillPercentage}
+ */
+public record MeasurementAggregateResponse(String group, LocalDate bucketStart, long measurementCount,
+                                           Map<String, Double> metrics) {
+}
@@ -0,0 +1,6 @@
+package com.grokthecode.data.responses;
+
+import java.util.List;
+
+public record PageResponse<T>(List<T> items, Integer pageSize, String nextPageToken) {
+}
@@ -0,0 +1,6 @@
+package com.grokthecode.data.responses;
+
+import java.util.List;
+
+public record PartitionMaintenanceResponse(List<String> createdPartitionList, long movedRowCount, long elapsedMillis) {
+}
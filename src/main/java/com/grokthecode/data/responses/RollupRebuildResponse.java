@@ -0,0 +1,4 @@
+package com.grokthecode.data.responses;
+
+public record RollupRebuildResponse(long rollupCount, long elapsedMillis) {
+}
@@ -0,0 +1,17 @@
+package com.grokthecode.data.responses;
+
+import java.time.LocalDate;
+
+/**
+ * Daily storage totals of the whole country, a state or a CNA region, one array slot per day.
+ *
+ * @param scope                  national, state or cnaRegion
+ * @param name                   the state or CNA region, null for the national totals
+ * @param startDate              the day of the first slot
+ * @param totalCapacity          the stored volume of the reporting dams, null on days without measurements
+ * @param weightedFillPercentage the fill percentage of the reporting dams weighted by NAME capacity
+ * @param damCount               the number of reporting dams
+ */
+public record StorageTotalsResponse(String scope, String name, LocalDate startDate, Double[] totalCapacity,
+                                    Double[] weightedFillPercentage, int[] damCount) {
+}
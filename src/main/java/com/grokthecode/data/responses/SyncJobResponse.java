@@ -0,0 +1,14 @@
+package com.grokthecode.data.responses;
+
+import java.time.Instant;
+import java.util.List;
+
+public record SyncJobResponse(String jobId, Status status, String startDate, String endDate,
+                              Integer totalDates, Integer completedDates, Integer skippedDates, Long syncCount, Long errorCount,
+                              Double rowsPerSecond, Double datesPerMinute, Instant startedAt, Instant finishedAt,
+                              List<DailyMeasurementSyncSummary> dateSummaryList) {
+
+    public enum Status {
+        RUNNING, COMPLETED, CANCELLED, FAILED
+    }
+}
@@ -0,0 +1,129 @@
+package com.grokthecode.services;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.grokthecode.data.projections.DailyMeasurementView;
+import com.grokthecode.data.repositories.DailyMeasurementRepository;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+/**
+ * Writes daily measurements to an output stream as they are read from the database.
+ * <p>
+ * Rows come from a scrolled query with a bounded fetch size and are read as {@link DailyMeasurementView}
+ * records, which the persistence context does not track, so memory use does not depend on the number of
+ * rows. Output is either NDJSON (one measurement per line) or a single JSON array.
+ */
+@Service
+@Log4j2
+public class DailyMeasurementExportService {
+
+    /**
+     * The export output formats.
+     */
+    public enum Format {
+        NDJSON, JSON
+    }
+
+    // Rows written between flushes, so the client receives the export in chunks.
+    private static final int FLUSH_INTERVAL = 500;
+    private static final SerializedString NDJSON_SEPARATOR = new SerializedString("\n");
+
+    private final DailyMeasurementRepository dailyMeasurementRepository;
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter objectWriter;
+
+    public DailyMeasurementExportService(final DailyMeasurementRepository dailyMeasurementRepository,
+                                         final ObjectMapper objectMapper) {
+        this.dailyMeasurementRepository = dailyMeasurementRepository;
+        this.objectMapper = objectMapper;
+        // The generator is flushed every FLUSH_INTERVAL rows instead of after every row.
+        this.objectWriter = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    /**
+     * Writes all the daily measurements, most recent first.
+     *
+     * @param outputStream the output stream
+     * @param format       the output format
+     * @return the number of measurements written
+     * @throws IOException if the output cannot be written
+     */
+    @Transactional(readOnly = true)
+    public long exportDailyMeasurements(final OutputStream outputStream, final Format format) throws IOException {
+        try (final Stream<DailyMeasurementView> dailyMeasurementViewStream = dailyMeasurementRepository.streamAllViews()) {
+            return write(dailyMeasurementViewStream, outputStream, format);
+        }
+    }
+
+    /**
+     * Writes the daily measurements of a date range, most recent first.
+     *
+     * @param startDate    the start date
+     * @param endDate      the end date
+     * @param outputStream the output stream
+     * @param format       the output format
+     * @return the number of measurements written
+     * @throws IOException if the output cannot be written
+     */
+    @Transactional(readOnly = true)
+    public long exportDailyMeasurements(final LocalDate startDate, final LocalDate endDate,
+                                        final OutputStream outputStream, final Format format) throws IOException {
+        Objects.requireNonNull(startDate, "startDate cannot be null.");
+        Objects.requireNonNull(endDate, "endDate cannot be null.");
+
+        try (final Stream<DailyMeasurementView> dailyMeasurementViewStream =
+                     dailyMeasurementRepository.streamViewsByMeasurementDateBetween(startDate, endDate)) {
+            return write(dailyMeasurementViewStream, outputStream, format);
+        }
+    }
+
+    private long write(final Stream<DailyMeasurementView> dailyMeasurementViewStream, final OutputStream outputStream,
+                       final Format format) throws IOException {
+        Objects.requireNonNull(outputStream, "outputStream cannot be null.");
+        Objects.requireNonNull(format, "format cannot be null.");
+
+        long rowCount = 0;
+
+        try (final JsonGenerator jsonGenerator = objectMapper.getFactory().createGenerator(outputStream)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)) {
+            // NDJSON values are root values separated by newlines.
+            jsonGenerator.setRootValueSeparator(NDJSON_SEPARATOR);
+
+            if (format == Format.JSON) {
+                jsonGenerator.writeStartArray();
+            }
+
+            final Iterator<DailyMeasurementView> iterator = dailyMeasurementViewStream.iterator();
+
+            while (iterator.hasNext()) {
+                objectWriter.writeValue(jsonGenerator, iterator.next());
+
+                if (++rowCount % FLUSH_INTERVAL == 0) {
+                    jsonGenerator.flush();
+                }
+            }
+
+            if (format == Format.JSON) {
+                jsonGenerator.writeEndArray();
+            } else if (rowCount > 0) {
+                jsonGenerator.writeRaw('\n');
+            }
+        }
+
+        log.debug("exported {} daily measurements as {}.", rowCount, format);
+
+        return rowCount;
+    }
+}
@@ -0,0 +1,220 @@
+package com.grokthecode.services;
+
+import com.grokthecode.data.projections.DailyMeasurementKey;
+import com.grokthecode.data.projections.DamCatalogView;
+import com.grokthecode.data.repositories.DailyMeasurementRepository;
+import com.grokthecode.data.responses.DailyMeasurementGapResponse;
+import com.grokthecode.data.responses.DailyMeasurementSyncResponse;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Syncs only the dates that are missing or incomplete in the daily measurements.
+ * <p>
+ * The (dam, date) keys stored for the last {@code app.sync.schedule.lookback-days} days are read with a
+ * single query and compared with the dam catalog; a date on which any dam of the catalog has no
+ * measurement is a gap, reported with the dams it is missing. Gaps are synced most recent first through
+ * the {@link SyncBackfillEngine}. Scheduled runs only start new dates inside the
+ * {@code app.sync.schedule.window-start} to {@code window-end} run window.
+ * <p>
+ * A date whose last fetch created no measurement is marked as exhausted, since the upstream has nothing
+ * more for it, and is not fetched again while the same dams are missing.
+ */
+@Service
+@Log4j2
+public class DailyMeasurementGapSyncService {
+
+    private final DailyMeasurementRepository dailyMeasurementRepository;
+    private final DamCatalogCache damCatalogCache;
+    private final DailyMeasurementService dailyMeasurementService;
+    private final SyncBackfillEngine syncBackfillEngine;
+    private final AtomicBoolean running = new AtomicBoolean();
+    // The dams still missing on each exhausted date, as they were when its fetch came back empty.
+    private final Map<LocalDate, Set<String>> exhaustedDateMap = new ConcurrentHashMap<>();
+
+    private final LocalTime windowStart;
+    private final LocalTime windowEnd;
+    private final ZoneId zoneId;
+
+    @Value("${app.sync.schedule.enabled}")
+    private boolean scheduleEnabled;
+    @Value("${app.sync.schedule.lookback-days}")
+    private int lookbackDays;
+
+    public DailyMeasurementGapSyncService(final DailyMeasurementRepository dailyMeasurementRepository,
+                                          final DamCatalogCache damCatalogCache,
+                                          final DailyMeasurementService dailyMeasurementService,
+                                          final SyncBackfillEngine syncBackfillEngine,
+                                          @Value("${app.sync.schedule.window-start}") final String windowStart,
+                                          @Value("${app.sync.schedule.window-end}") final String windowEnd,
+                                          @Value("${app.sync.schedule.zone}") final String zone) {
+        this.dailyMeasurementRepository = dailyMeasurementRepository;
+        this.damCatalogCache = damCatalogCache;
+        this.dailyMeasurementService = dailyMeasurementService;
+        this.syncBackfillEngine = syncBackfillEngine;
+        this.windowStart = LocalTime.parse(windowStart);
+        this.windowEnd = LocalTime.parse(windowEnd);
+        this.zoneId = ZoneId.of(zone);
+    }
+
+    /**
+     * Finds the missing and incomplete dates of the lookback window.
+     *
+     * @return the gaps, most recent first
+     */
+    @Transactional(readOnly = true)
+    public List<DailyMeasurementGapResponse> findGaps() {
+        final LocalDate endDate = LocalDate.now(zoneId);
+
+        return findGaps(endDate.minusDays(Math.max(0, lookbackDays - 1)), endDate);
+    }
+
+    /**
+     * Finds the missing and incomplete dates of a date range.
+     *
+     * @param startDate the start date
+     * @param endDate   the end date
+     * @return the gaps, most recent first
+     */
+    @Transactional(readOnly = true)
+    public List<DailyMeasurementGapResponse> findGaps(final LocalDate startDate, final LocalDate endDate) {
+        Objects.requireNonNull(startDate, "startDate cannot be null.");
+        Objects.requireNonNull(endDate, "endDate cannot be null.");
+
+        final List<DamCatalogView> damCatalogViewList = damCatalogCache.findAll();
+
+        if (damCatalogViewList.isEmpty()) {
+            // Nothing can be synced before the catalog is.
+            return List.of();
+        }
+
+        final Map<LocalDate, Set<Long>> storedDamIdMap = new HashMap<>();
+
+        for (final DailyMeasurementKey dailyMeasurementKey : dailyMeasurementRepository.findKeysByMeasurementDateBetween(startDate, endDate)) {
+            storedDamIdMap.computeIfAbsent(dailyMeasurementKey.measurementDate(), date -> new HashSet<>()).add(dailyMeasurementKey.damId());
+        }
+
+        final List<DailyMeasurementGapResponse> gapList = new ArrayList<>();
+
+        for (LocalDate date = endDate; !date.isBefore(startDate); date = date.minusDays(1)) {
+            final Set<Long> storedDamIdSet = storedDamIdMap.getOrDefault(date, Set.of());
+            final List<String> missingSihKeyList = damCatalogViewList.stream()
+                    .filter(damCatalogView -> !storedDamIdSet.contains(damCatalogView.id()))
+                    .map(DamCatalogView::sihKey)
+                    .toList();
+
+            if (!missingSihKeyList.isEmpty()) {
+                final boolean upstreamExhausted = Set.copyOf(missingSihKeyList).equals(exhaustedDateMap.get(date));
+
+                gapList.add(new DailyMeasurementGapResponse(date.format(DateTimeFormatter.ISO_LOCAL_DATE),
+                        (long) storedDamIdSet.size(), (long) damCatalogViewList.size(), missingSihKeyList, upstreamExhausted));
+            }
+        }
+
+        return gapList;
+    }
+
+    /**
+     * Scheduled gap sync, see {@code app.sync.schedule.cron}.
+     */
+    @Scheduled(cron = "${app.sync.schedule.cron}", zone = "${app.sync.schedule.zone}")
+    public void scheduledSync() {
+        if (!scheduleEnabled || !isWithinRunWindow()) {
+            return;
+        }
+
+        final List<DailyMeasurementSyncResponse> dailyMeasurementSyncResponseList = syncGaps(true);
+
+        log.info("scheduled gap sync: {} dates, {} measurements created.", dailyMeasurementSyncResponseList.size(),
+                dailyMeasurementSyncResponseList.stream().mapToInt(DailyMeasurementSyncResponse::syncCount).sum());
+    }
+
+    /**
+     * Syncs the gaps of the lookback window, most recent first, skipping the exhausted ones.
+     * <p>
+     * Only one gap sync runs at a time; a call made while another one is running returns an empty list.
+     *
+     * @param respectRunWindow if true, dates not started before the run window closes are skipped
+     * @return the sync responses, most recent first
+     */
+    public List<DailyMeasurementSyncResponse> syncGaps(final boolean respectRunWindow) {
+        if (!running.compareAndSet(false, true)) {
+            log.info("a gap sync is already running.");
+            return List.of();
+        }
+
+        try {
+            final List<DailyMeasurementGapResponse> gapList = findGaps();
+            final LocalDate startDate = LocalDate.now(zoneId).minusDays(Math.max(0, lookbackDays - 1));
+            exhaustedDateMap.keySet().removeIf(date -> date.isBefore(startDate));
+
+            final Map<LocalDate, Set<String>> missingSihKeyMap = new HashMap<>();
+
+            for (final DailyMeasurementGapResponse gap : gapList) {
+                if (!gap.upstreamExhausted()) {
+                    missingSihKeyMap.put(LocalDate.parse(gap.formatedDate()), Set.copyOf(gap.missingSihKeyList()));
+                }
+            }
+
+            final List<LocalDate> gapDateList = missingSihKeyMap.keySet().stream()
+                    .sorted(Comparator.reverseOrder())
+                    .toList();
+
+            if (gapDateList.isEmpty()) {
+                return List.of();
+            }
+            log.info("syncing {} missing or incomplete dates, {} skipped as exhausted upstream.", gapDateList.size(),
+                    gapList.size() - gapDateList.size());
+
+            return syncBackfillEngine.run(gapDateList,
+                    localDate -> {
+                        final String formatedDate = localDate.format(DateTimeFormatter.ISO_LOCAL_DATE);
+
+                        if (respectRunWindow && !isWithinRunWindow()) {
+                            return new DailyMeasurementSyncResponse(formatedDate, 0, List.of(),
+                                    List.of("skipped: outside the sync run window."));
+                        }
+                        final DailyMeasurementSyncResponse dailyMeasurementSyncResponse = dailyMeasurementService.syncDamsDailyFill(formatedDate);
+
+                        if (dailyMeasurementSyncResponse.syncCount() == 0) {
+                            exhaustedDateMap.put(localDate, missingSihKeyMap.get(localDate));
+                        } else {
+                            exhaustedDateMap.remove(localDate);
+                        }
+                        return dailyMeasurementSyncResponse;
+                    },
+                    (localDate, exception) -> new DailyMeasurementSyncResponse(localDate.format(DateTimeFormatter.ISO_LOCAL_DATE),
+                            0, List.of(), List.of("sync error: " + exception.getMessage())));
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private boolean isWithinRunWindow() {
+        final LocalTime now = LocalTime.now(zoneId);
+
+        if (windowStart.isBefore(windowEnd)) {
+            return !now.isBefore(windowStart) && now.isBefore(windowEnd);
+        }
+        // The window wraps around midnight, or is the whole day when start equals end.
+        return !now.isBefore(windowStart) || now.isBefore(windowEnd);
+    }
+}
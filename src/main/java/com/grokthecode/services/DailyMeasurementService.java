@@ -1,50 +1,90 @@
 package com.grokthecode.services;
 
 import com.grokthecode.common.GlobalConstants;
+import com.grokthecode.common.utilities.KeysetPageToken;
 import com.grokthecode.data.entities.DailyMeasurementEntity;
 import com.grokthecode.data.entities.DamCatalogEntity;
+import com.grokthecode.data.projections.DailyMeasurementKey;
+import com.grokthecode.data.projections.DailyMeasurementView;
+import com.grokthecode.data.projections.DamCatalogView;
 import com.grokthecode.data.repositories.DailyMeasurementRepository;
 import com.grokthecode.data.repositories.DamCatalogRepository;
 import com.grokthecode.data.responses.DailyMeasurementSyncResponse;
+import com.grokthecode.data.responses.DailyMeasurementSyncSummary;
+import com.grokthecode.data.responses.PageResponse;
 import com.grokthecode.models.restapi.PresasDto;
+import com.grokthecode.services.events.DailyMeasurementsCreatedEvent;
+import com.grokthecode.services.events.DamDataChangedEvent;
 import com.grokthecode.services.exceptions.DailyMeasurementAlreadyExistsException;
-import jakarta.transaction.Transactional;
 import lombok.extern.log4j.Log4j2;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestClient;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.net.URI;
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.URISyntaxException;
+import java.nio.file.Path;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
-import java.util.concurrent.TimeUnit;
+import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
 /**
  * The type Daily measurement service.
+ * <p>
+ * Syncs fetch from the upstream outside any transaction and persist each date through the
+ * {@link SyncPersistenceGate}, so a connection is only held while a date is written. The measurement
+ * reads run without a transaction: once the {@link MeasurementSeriesStore} is loaded they take no
+ * connection, and before that each one is a single query.
  */
 @Service
-@Transactional
 @Log4j2
 public class DailyMeasurementService {
 
+    private static final KeysetPageToken.Key[] MEASUREMENT_PAGE_KEYS = {
+            new KeysetPageToken.Key("measurementDate", LocalDate::parse),
+            new KeysetPageToken.Key("id", Long::valueOf)
+    };
+    private static final int MAX_ERROR_MESSAGES_PER_DATE = 5;
+    // Open range bounds of the page queries, kept within what the database date type can hold.
+    private static final LocalDate FIRST_DATE = LocalDate.of(1, 1, 1);
+    private static final LocalDate LAST_DATE = LocalDate.of(9999, 12, 31);
+
     private final DailyMeasurementRepository dailyMeasurementRepository;
     /**
      * The Dam catalog repository.
      */
     public final DamCatalogRepository damCatalogRepository;
-
-    @Value("${app.datasource.url}")
-    private String appDatasourceUrl;
+    private final DamCatalogCache damCatalogCache;
+    private final ApplicationEventPublisher applicationEventPublisher;
+    private final MeasurementSeriesStore measurementSeriesStore;
+    private final SyncBackfillEngine syncBackfillEngine;
+    private final SyncPersistenceGate syncPersistenceGate;
+    private final PresasFeedClient presasFeedClient;
+    private final PayloadArchive payloadArchive;
+    private final DailyMeasurementWriter dailyMeasurementWriter;
+
+    @Value("${app.sync.bulk-load.batch-size}")
+    private int bulkLoadBatchSize;
+    @Value("${app.api.page.default-size}")
+    private int defaultPageSize;
+    @Value("${app.api.page.max-size}")
+    private int maxPageSize;
 
     /**
      * Create dam daily fill daily measurement entity.
@@ -52,16 +92,23 @@ public class DailyMeasurementService {
      * @param dailyMeasurementEntity the daily measurement entity
      * @return the daily measurement entity
      */
+    @Transactional
     public DailyMeasurementEntity createDamDailyMeasurement(final DailyMeasurementEntity dailyMeasurementEntity) throws DailyMeasurementAlreadyExistsException {
         Objects.requireNonNull(dailyMeasurementEntity, "dailyMeasurementEntity" + GlobalConstants.MESSAGE_MUST_NOT_BE_NULL);
 
-        //Check that the daily measurement does not exist.
-        if ((dailyMesureExistsByDate(dailyMeasurementEntity.getDamCatalogEntity().getId(), dailyMeasurementEntity.getMeasurementDate()))) {
+        // The unique (damId, measurementDate) constraint rejects the measurement if it already exists.
+        final List<DailyMeasurementEntity> insertedDailyMeasurementEntityList = dailyMeasurementWriter.insertIgnoringDuplicates(List.of(dailyMeasurementEntity));
+
+        if (insertedDailyMeasurementEntityList.isEmpty()) {
             throw new DailyMeasurementAlreadyExistsException(dailyMeasurementEntity.getDamCatalogEntity().getId(),
                     dailyMeasurementEntity.getMeasurementDate().toString());
         }
 
-        return dailyMeasurementRepository.save(dailyMeasurementEntity);
+        final DailyMeasurementEntity savedDailyMeasurementEntity = insertedDailyMeasurementEntityList.getFirst();
+        applicationEventPublisher.publishEvent(new DailyMeasurementsCreatedEvent(List.of(toDailyMeasurementView(savedDailyMeasurementEntity))));
+        applicationEventPublisher.publishEvent(new DamDataChangedEvent(Set.of(dailyMeasurementEntity.getDamCatalogEntity().getId())));
+
+        return savedDailyMeasurementEntity;
     }
 
     /**
@@ -69,11 +116,35 @@ public class DailyMeasurementService {
      *
      * @param dailyMeasurementRepository the daily measurement repository
      * @param damCatalogRepository       the dam catalog repository
+     * @param syncBackfillEngine         the sync backfill engine
+     * @param syncPersistenceGate        the sync persistence gate
+     * @param presasFeedClient           the presas feed client
+     * @param payloadArchive             the payload archive
+     * @param damCatalogCache            the dam catalog cache
+     * @param applicationEventPublisher  the application event publisher
+     * @param measurementSeriesStore     the measurement series store
+     * @param dailyMeasurementWriter     the daily measurement writer
      */
     public DailyMeasurementService(final DailyMeasurementRepository dailyMeasurementRepository,
-                                   final DamCatalogRepository damCatalogRepository) {
+                                   final DamCatalogRepository damCatalogRepository,
+                                   final SyncBackfillEngine syncBackfillEngine,
+                                   final SyncPersistenceGate syncPersistenceGate,
+                                   final PresasFeedClient presasFeedClient,
+                                   final PayloadArchive payloadArchive,
+                                   final DamCatalogCache damCatalogCache,
+                                   final ApplicationEventPublisher applicationEventPublisher,
+                                   final MeasurementSeriesStore measurementSeriesStore,
+                                   final DailyMeasurementWriter dailyMeasurementWriter) {
         this.dailyMeasurementRepository = dailyMeasurementRepository;
         this.damCatalogRepository = damCatalogRepository;
+        this.syncBackfillEngine = syncBackfillEngine;
+        this.syncPersistenceGate = syncPersistenceGate;
+        this.presasFeedClient = presasFeedClient;
+        this.payloadArchive = payloadArchive;
+        this.damCatalogCache = damCatalogCache;
+        this.applicationEventPublisher = applicationEventPublisher;
+        this.measurementSeriesStore = measurementSeriesStore;
+        this.dailyMeasurementWriter = dailyMeasurementWriter;
     }
 
     /**
@@ -81,9 +152,12 @@ public class DailyMeasurementService {
      *
      * @return the daily measurements
      */
-    public List<DailyMeasurementEntity> getDailyMeasurements() {
+    public List<DailyMeasurementView> getDailyMeasurements() {
+        if (measurementSeriesStore.isLoaded()) {
+            return measurementSeriesStore.findByMeasurementDateBetween(null, null);
+        }
 
-        return List.copyOf(dailyMeasurementRepository.findAll());
+        return dailyMeasurementRepository.findAllViews();
     }
 
     /**
@@ -92,16 +166,16 @@ public class DailyMeasurementService {
      * @param sihKey the sih key
      * @return the daily measurements
      */
-    public List<DailyMeasurementEntity> getDailyMeasurements(String sihKey) {
+    public List<DailyMeasurementView> getDailyMeasurements(String sihKey) {
         Objects.requireNonNull(sihKey, "sihKey cannot be null.");
 
-        final Optional<DamCatalogEntity> optionalDamCatalogEntity = damCatalogRepository.findBySihKey(sihKey);
+        final Long damId = getDamId(sihKey);
 
-        if (optionalDamCatalogEntity.isEmpty()) {
-            throw new IllegalArgumentException(" dam with sihKey " + sihKey + " not found.");
+        if (measurementSeriesStore.isLoaded()) {
+            return measurementSeriesStore.findByDamId(damId, null, null);
         }
 
-        return List.copyOf(dailyMeasurementRepository.findByDamCatalogEntityOrderByMeasurementDateDesc(optionalDamCatalogEntity.get()));
+        return dailyMeasurementRepository.findViewsByDamId(damId);
     }
 
     /**
@@ -111,11 +185,15 @@ public class DailyMeasurementService {
      * @param endDate   the end date
      * @return the daily measurements
      */
-    public List<DailyMeasurementEntity> getDailyMeasurements(final LocalDate startDate, final LocalDate endDate) {
+    public List<DailyMeasurementView> getDailyMeasurements(final LocalDate startDate, final LocalDate endDate) {
         Objects.requireNonNull(startDate, "startDate cannot be null.");
         Objects.requireNonNull(endDate, "endDate cannot be null.");
 
-        return List.copyOf(dailyMeasurementRepository.findByMeasurementDateBetweenOrderByMeasurementDateDesc(startDate, endDate));
+        if (measurementSeriesStore.isLoaded()) {
+            return measurementSeriesStore.findByMeasurementDateBetween(startDate, endDate);
+        }
+
+        return dailyMeasurementRepository.findViewsByMeasurementDateBetween(startDate, endDate);
     }
 
     /**
@@ -126,22 +204,78 @@ public class DailyMeasurementService {
      * @param endDate   the end date
      * @return the daily measurements
      */
-    public List<DailyMeasurementEntity> getDailyMeasurements(final String sihKey, final LocalDate startDate, final LocalDate endDate) {
+    public List<DailyMeasurementView> getDailyMeasurements(final String sihKey, final LocalDate startDate, final LocalDate endDate) {
         Objects.requireNonNull(sihKey, "sihKey cannot be null.");
         Objects.requireNonNull(startDate, "startDate cannot be null.");
         Objects.requireNonNull(endDate, "endDate cannot be null.");
 
-        final Optional<DamCatalogEntity> optionalDamCatalogEntity = damCatalogRepository.findBySihKey(sihKey);
+        final Long damId = getDamId(sihKey);
 
-        if (optionalDamCatalogEntity.isEmpty()) {
-            throw new IllegalArgumentException(" dam with sihKey " + sihKey + " not found.");
+        if (measurementSeriesStore.isLoaded()) {
+            return measurementSeriesStore.findByDamId(damId, startDate, endDate);
         }
 
-        return List.copyOf(dailyMeasurementRepository.findByDamCatalogEntityAndMeasurementDateBetweenOrderByMeasurementDateDesc(optionalDamCatalogEntity.get(), startDate, endDate));
+        return dailyMeasurementRepository.findViewsByDamIdAndMeasurementDateBetween(damId, startDate, endDate);
+    }
+
+    /**
+     * Gets a keyset page of daily measurements, most recent first, optionally of a dam and of a date range.
+     *
+     * @param sihKey    the sih key, or null for every dam
+     * @param startDate the start date, or null for every date
+     * @param endDate   the end date, or null for every date
+     * @param pageToken the token of the previous page, or null for the first page
+     * @param pageSize  the page size, or null for the default
+     * @return the page and the token of the next one
+     */
+    @Transactional(readOnly = true)
+    public PageResponse<DailyMeasurementView> getDailyMeasurementsPage(final String sihKey, final LocalDate startDate, final LocalDate endDate,
+                                                                       final String pageToken, final Integer pageSize) {
+        if ((startDate == null) != (endDate == null)) {
+            throw new IllegalArgumentException("startDate and endDate must be given together.");
+        }
+
+        final List<Object> afterKeyList = KeysetPageToken.decode(pageToken, MEASUREMENT_PAGE_KEYS);
+        final LocalDate afterDate = afterKeyList == null ? LAST_DATE : (LocalDate) afterKeyList.get(0);
+        final Long afterId = afterKeyList == null ? Long.MAX_VALUE : (Long) afterKeyList.get(1);
+        final LocalDate rangeStart = startDate == null ? FIRST_DATE : startDate;
+        final LocalDate rangeEnd = endDate == null ? LAST_DATE : endDate;
+
+        final int limit = KeysetPageToken.pageSize(pageSize, defaultPageSize, maxPageSize);
+        // One extra row tells whether there is a next page.
+        final List<DailyMeasurementView> dailyMeasurementViewList = sihKey == null
+                ? dailyMeasurementRepository.findViewPage(rangeStart, rangeEnd, afterDate, afterId, Limit.of(limit + 1))
+                : dailyMeasurementRepository.findViewPageByDamId(getDamId(sihKey), rangeStart, rangeEnd, afterDate, afterId, Limit.of(limit + 1));
+
+        if (dailyMeasurementViewList.size() <= limit) {
+            return new PageResponse<>(dailyMeasurementViewList, limit, null);
+        }
+
+        final DailyMeasurementView lastDailyMeasurementView = dailyMeasurementViewList.get(limit - 1);
+
+        return new PageResponse<>(List.copyOf(dailyMeasurementViewList.subList(0, limit)), limit,
+                KeysetPageToken.encode(lastDailyMeasurementView.measurementDate(), lastDailyMeasurementView.id()));
+    }
+
+    private static DailyMeasurementView toDailyMeasurementView(final DailyMeasurementEntity dailyMeasurementEntity) {
+
+        return new DailyMeasurementView(dailyMeasurementEntity.getId(), dailyMeasurementEntity.getDamCatalogEntity().getId(),
+                dailyMeasurementEntity.getMeasurementDate(), dailyMeasurementEntity.getCurrentElevation(),
+                dailyMeasurementEntity.getCurrentCapacity(), dailyMeasurementEntity.getCurrentFillPercentage());
+    }
+
+    private Long getDamId(final String sihKey) {
+
+        return damCatalogCache.findBySihKey(sihKey)
+                .map(DamCatalogView::id)
+                .orElseThrow(() -> new IllegalArgumentException(" dam with sihKey " + sihKey + " not found."));
     }
 
     /**
      * Sync dams daily fill pair.
+     * <p>
+     * The upstream is called without a transaction and the date is persisted in one transaction once the
+     * payload has been read and parsed completely, so a failed download writes nothing.
      *
      * @param formatedDate the formated date
      * @return the pair
@@ -150,51 +284,271 @@ public class DailyMeasurementService {
     public DailyMeasurementSyncResponse syncDamsDailyFill(final String formatedDate) throws URISyntaxException {
         Objects.requireNonNull(formatedDate, "formatedDate cannot be null or empty.");
 
-        // Call the endpoint to get the measurements
-        final RestClient restClient = RestClient.create();
-        final String endpoint = appDatasourceUrl + formatedDate;
+        final LocalDate measurementDate = LocalDate.parse(formatedDate);
+        final List<PresasDto> presasDtoList = presasFeedClient.fetch(formatedDate);
 
-        final List<PresasDto> presasDtoList = restClient.get().uri(new URI(endpoint))
-                .retrieve()
-                .body(new ParameterizedTypeReference<>() {});
+        return syncPersistenceGate.inTransaction(() -> createDamDailyMeasurements(measurementDate, presasDtoList));
+    }
 
-        // Create the new measurement and error lists.
-        final List<DailyMeasurementEntity> dailyMeasurementEntityList = new ArrayList<>();
-        final List<String> syncErrorMessageList = new ArrayList<>();
+    /**
+     * Replays the archived payloads of a date range.
+     * <p>
+     * The latest payload archived for every date is read from the {@link PayloadArchive} and ingested the
+     * same way a fetched one is, without calling the upstream or waiting on its rate limits. A date with
+     * no archived payload, or one that cannot be read, is reported with a sync count of zero and the
+     * failure in its error list.
+     *
+     * @param startDate the start date
+     * @param endDate   the end date
+     * @return the list, ordered by date
+     * @throws DateTimeParseException the date time parse exception
+     */
+    public List<DailyMeasurementSyncResponse> replayDamsDailyFill(final String startDate, final String endDate) throws DateTimeParseException {
+        Objects.requireNonNull(startDate, "startDate cannot be null or empty.");
+        Objects.requireNonNull(endDate, "endDate cannot be null or empty.");
+
+        final List<DailyMeasurementSyncResponse> dailyMeasurementSyncResponseList = new ArrayList<>();
+
+        for (final LocalDate localDate : generateDatesBetween(LocalDate.parse(startDate), LocalDate.parse(endDate))) {
+            final String formatedDate = localDate.format(DateTimeFormatter.ISO_LOCAL_DATE);
+            final Optional<Path> optionalArchiveFile = payloadArchive.findLatest(localDate);
+
+            if (optionalArchiveFile.isEmpty()) {
+                dailyMeasurementSyncResponseList.add(new DailyMeasurementSyncResponse(formatedDate, 0, List.of(),
+                        List.of("replay error: no archived payload for " + formatedDate + ".")));
+                continue;
+            }
+
+            try (final InputStream inputStream = payloadArchive.open(optionalArchiveFile.get())) {
+                final List<PresasDto> presasDtoList = presasFeedClient.parse(inputStream);
+
+                dailyMeasurementSyncResponseList.add(syncPersistenceGate.inTransaction(() -> createDamDailyMeasurements(localDate, presasDtoList)));
+            } catch (IOException | RuntimeException e) {
+                log.error("replay of {} from {} failed.", formatedDate, optionalArchiveFile.get(), e);
+                dailyMeasurementSyncResponseList.add(new DailyMeasurementSyncResponse(formatedDate, 0, List.of(),
+                        List.of("replay error: " + e.getMessage())));
+            }
+        }
+
+        return dailyMeasurementSyncResponseList;
+    }
+
+    /**
+     * Bulk loads the archived payloads of a date range.
+     * <p>
+     * Meant for historical backfills: the payloads are parsed from the {@link PayloadArchive} and the
+     * measurements of several dates, up to {@code app.sync.bulk-load.batch-size} rows, are written together
+     * with {@code COPY} into a staging table and merged with one statement, in one transaction per batch.
+     * A date with no archived payload, one that cannot be read or one whose batch fails is reported with a
+     * sync count of zero and the failure in its error list. Only the counts and the first error messages
+     * of every date are returned, not the measurements.
+     *
+     * @param startDate the start date
+     * @param endDate   the end date
+     * @return the summaries, ordered by date
+     * @throws DateTimeParseException the date time parse exception
+     */
+    public List<DailyMeasurementSyncSummary> bulkLoadDamsDailyFill(final String startDate, final String endDate) throws DateTimeParseException {
+        Objects.requireNonNull(startDate, "startDate cannot be null or empty.");
+        Objects.requireNonNull(endDate, "endDate cannot be null or empty.");
+
+        final List<DailyMeasurementSyncSummary> dailyMeasurementSyncSummaryList = new ArrayList<>();
+        final Map<LocalDate, List<PresasDto>> pendingPresasDtoMap = new LinkedHashMap<>();
+        int pendingRowCount = 0;
 
-        assert presasDtoList != null;
-        for (final PresasDto presasDto : presasDtoList) {
-            final Optional<DamCatalogEntity> optionalDamCatalogEntity = damCatalogRepository.findBySihKey(presasDto.getClavesih());
+        for (final LocalDate localDate : generateDatesBetween(LocalDate.parse(startDate), LocalDate.parse(endDate))) {
+            final String formatedDate = localDate.format(DateTimeFormatter.ISO_LOCAL_DATE);
+            final Optional<Path> optionalArchiveFile = payloadArchive.findLatest(localDate);
 
-            if (optionalDamCatalogEntity.isEmpty()) { //TODO: replace exception.
-                throw new IllegalArgumentException(" dam with SihKey " + presasDto.getClavesih() + " not found.");
+            if (optionalArchiveFile.isEmpty()) {
+                dailyMeasurementSyncSummaryList.add(new DailyMeasurementSyncSummary(formatedDate, 0, 1,
+                        List.of("bulk load error: no archived payload for " + formatedDate + ".")));
+                continue;
             }
 
-            final DailyMeasurementEntity dailyMeasureMentEntity = new DailyMeasurementEntity(
-                    presasDto.getElevacionactual(),
-                    presasDto.getAlmacenaactual(),
-                    presasDto.getLlenano(),
-                    LocalDate.parse(formatedDate),
-                    optionalDamCatalogEntity.get()
-            );
-
-            try { //Try to create a new daily measurement....
-                dailyMeasurementEntityList.add(createDamDailyMeasurement(dailyMeasureMentEntity));
-            } catch (DailyMeasurementAlreadyExistsException e) {
-                log.info(e.getMessage()); //If not, add to the sync error list.
-                syncErrorMessageList.add(e.getMessage());
+            final List<PresasDto> presasDtoList;
+
+            try (final InputStream inputStream = payloadArchive.open(optionalArchiveFile.get())) {
+                presasDtoList = presasFeedClient.parse(inputStream);
+            } catch (IOException | RuntimeException e) {
+                log.error("bulk load of {} from {} failed.", formatedDate, optionalArchiveFile.get(), e);
+                dailyMeasurementSyncSummaryList.add(new DailyMeasurementSyncSummary(formatedDate, 0, 1,
+                        List.of("bulk load error: " + e.getMessage())));
+                continue;
             }
+
+            pendingPresasDtoMap.put(localDate, presasDtoList);
+            pendingRowCount += presasDtoList.size();
+
+            if (pendingRowCount >= bulkLoadBatchSize) {
+                dailyMeasurementSyncSummaryList.addAll(bulkLoadBatch(pendingPresasDtoMap));
+                pendingPresasDtoMap.clear();
+                pendingRowCount = 0;
+            }
+        }
+
+        if (!pendingPresasDtoMap.isEmpty()) {
+            dailyMeasurementSyncSummaryList.addAll(bulkLoadBatch(pendingPresasDtoMap));
+        }
+
+        dailyMeasurementSyncSummaryList.sort(Comparator.comparing(DailyMeasurementSyncSummary::formatedDate));
+
+        return dailyMeasurementSyncSummaryList;
+    }
+
+    /**
+     * Writes a batch of payloads and summarizes it, so the created measurements are not held past the batch.
+     */
+    private List<DailyMeasurementSyncSummary> bulkLoadBatch(final Map<LocalDate, List<PresasDto>> presasDtoMap) {
+        try {
+            return syncPersistenceGate.inTransaction(() -> createDamDailyMeasurements(presasDtoMap, true)).stream()
+                    .map(dailyMeasurementSyncResponse -> DailyMeasurementSyncSummary.of(dailyMeasurementSyncResponse, MAX_ERROR_MESSAGES_PER_DATE))
+                    .toList();
+        } catch (RuntimeException e) {
+            log.error("bulk load of {} dates failed.", presasDtoMap.size(), e);
+
+            return presasDtoMap.keySet().stream()
+                    .map(localDate -> new DailyMeasurementSyncSummary(localDate.format(DateTimeFormatter.ISO_LOCAL_DATE), 0, 1,
+                            List.of("bulk load error: " + e.getMessage())))
+                    .toList();
         }
+    }
+
+    /**
+     * Creates the daily measurements of an upstream payload in bulk.
+     * <p>
+     * The dams of the payload come from the catalog cache, duplicates within the payload are dropped in memory
+     * and the measurements are inserted with one statement that skips the ones already stored, so concurrent
+     * syncs of the same date are safe.
+     *
+     * @param measurementDate the measurement date of the payload
+     * @param presasDtoList   the upstream payload
+     * @return the daily measurement sync response
+     * @throws IllegalArgumentException if a dam of the payload is not in the catalog
+     */
+    @Transactional
+    public DailyMeasurementSyncResponse createDamDailyMeasurements(final LocalDate measurementDate, final List<PresasDto> presasDtoList) {
+        Objects.requireNonNull(measurementDate, "measurementDate" + GlobalConstants.MESSAGE_MUST_NOT_BE_NULL);
+        Objects.requireNonNull(presasDtoList, "presasDtoList" + GlobalConstants.MESSAGE_MUST_NOT_BE_NULL);
 
-        return new DailyMeasurementSyncResponse(formatedDate, dailyMeasurementEntityList.size(), dailyMeasurementEntityList, syncErrorMessageList);
+        return createDamDailyMeasurements(Map.of(measurementDate, presasDtoList), false).getFirst();
+    }
+
+    /**
+     * Creates the daily measurements of the upstream payloads of one or more dates, in the current transaction.
+     *
+     * @param presasDtoMap the upstream payloads by measurement date
+     * @param bulkLoad     whether to write with {@code COPY} instead of the array insert
+     * @return the daily measurement sync responses, one per date
+     * @throws IllegalArgumentException if a dam of the payloads is not in the catalog
+     */
+    private List<DailyMeasurementSyncResponse> createDamDailyMeasurements(final Map<LocalDate, List<PresasDto>> presasDtoMap,
+                                                                          final boolean bulkLoad) {
+        final Set<String> sihKeySet = presasDtoMap.values().stream()
+                .flatMap(List::stream)
+                .map(PresasDto::getClavesih)
+                .collect(Collectors.toSet());
+
+        // Dams come from the catalog cache as id-only references; dams created earlier in the same
+        // transaction are not cached yet and are loaded from the database.
+        final Map<String, DamCatalogEntity> damCatalogEntityMap = new HashMap<>();
+        final Set<String> uncachedSihKeySet = new HashSet<>();
+
+        for (final String sihKey : sihKeySet) {
+            damCatalogCache.findBySihKey(sihKey).ifPresentOrElse(
+                    damCatalogView -> damCatalogEntityMap.put(sihKey, damCatalogRepository.getReferenceById(damCatalogView.id())),
+                    () -> uncachedSihKeySet.add(sihKey));
+        }
+
+        if (!uncachedSihKeySet.isEmpty()) {
+            damCatalogRepository.findBySihKeyIn(uncachedSihKeySet)
+                    .forEach(damCatalogEntity -> damCatalogEntityMap.putIfAbsent(damCatalogEntity.getSihKey(), damCatalogEntity));
+        }
+
+        final Set<DailyMeasurementKey> knownKeySet = new HashSet<>();
+
+        // Create the new measurement list and the error list of every date.
+        final List<DailyMeasurementEntity> dailyMeasurementEntityList = new ArrayList<>();
+        final Map<LocalDate, List<String>> syncErrorMessageMap = new HashMap<>();
+
+        presasDtoMap.forEach((measurementDate, presasDtoList) -> {
+            final List<String> syncErrorMessageList = new ArrayList<>();
+            syncErrorMessageMap.put(measurementDate, syncErrorMessageList);
+
+            for (final PresasDto presasDto : presasDtoList) {
+                final DamCatalogEntity damCatalogEntity = damCatalogEntityMap.get(presasDto.getClavesih());
+
+                if (damCatalogEntity == null) { //TODO: replace exception.
+                    throw new IllegalArgumentException(" dam with SihKey " + presasDto.getClavesih() + " not found.");
+                }
+
+                // Set.add returns false for measurements already seen in this payload.
+                if (!knownKeySet.add(new DailyMeasurementKey(damCatalogEntity.getId(), measurementDate))) {
+                    final String message = new DailyMeasurementAlreadyExistsException(damCatalogEntity.getId(),
+                            measurementDate.toString()).getMessage();
+                    log.info(message);
+                    syncErrorMessageList.add(message);
+                    continue;
+                }
+
+                dailyMeasurementEntityList.add(new DailyMeasurementEntity(
+                        presasDto.getElevacionactual(),
+                        presasDto.getAlmacenaactual(),
+                        presasDto.getLlenano(),
+                        measurementDate,
+                        damCatalogEntity
+                ));
+            }
+        });
+
+        final List<DailyMeasurementEntity> savedDailyMeasurementEntityList = bulkLoad
+                ? dailyMeasurementWriter.copyIgnoringDuplicates(dailyMeasurementEntityList)
+                : dailyMeasurementWriter.insertIgnoringDuplicates(dailyMeasurementEntityList);
+
+        if (savedDailyMeasurementEntityList.size() < dailyMeasurementEntityList.size()) {
+            // The measurements the insert skipped were already stored and got no id.
+            for (final DailyMeasurementEntity dailyMeasurementEntity : dailyMeasurementEntityList) {
+                if (dailyMeasurementEntity.getId() == null) {
+                    final String message = new DailyMeasurementAlreadyExistsException(dailyMeasurementEntity.getDamCatalogEntity().getId(),
+                            dailyMeasurementEntity.getMeasurementDate().toString()).getMessage();
+                    log.info(message);
+                    syncErrorMessageMap.get(dailyMeasurementEntity.getMeasurementDate()).add(message);
+                }
+            }
+        }
+
+        if (!savedDailyMeasurementEntityList.isEmpty()) {
+            applicationEventPublisher.publishEvent(new DailyMeasurementsCreatedEvent(savedDailyMeasurementEntityList.stream()
+                    .map(DailyMeasurementService::toDailyMeasurementView)
+                    .toList()));
+            applicationEventPublisher.publishEvent(new DamDataChangedEvent(savedDailyMeasurementEntityList.stream()
+                    .map(savedDailyMeasurementEntity -> savedDailyMeasurementEntity.getDamCatalogEntity().getId())
+                    .collect(Collectors.toSet())));
+        }
+
+        final Map<LocalDate, List<DailyMeasurementEntity>> savedDailyMeasurementEntityMap = savedDailyMeasurementEntityList.stream()
+                .collect(Collectors.groupingBy(DailyMeasurementEntity::getMeasurementDate));
+
+        return presasDtoMap.keySet().stream()
+                .map(measurementDate -> {
+                    final List<DailyMeasurementEntity> savedList = savedDailyMeasurementEntityMap.getOrDefault(measurementDate, List.of());
+
+                    return new DailyMeasurementSyncResponse(measurementDate.format(DateTimeFormatter.ISO_LOCAL_DATE),
+                            savedList.size(), savedList, syncErrorMessageMap.get(measurementDate));
+                })
+                .toList();
     }
 
     /**
      * Sync dams daily fill list.
+     * <p>
+     * Dates are synced concurrently by the {@link SyncBackfillEngine}, which rate limits the calls to the
+     * upstream and backs off when it fails or slows down. A date that cannot be synced is reported with
+     * a sync count of zero and the failure in its error list.
      *
      * @param startDate the start date
      * @param endDate   the end date
-     * @return the list
+     * @return the list, ordered by date
      * @throws URISyntaxException     the uri syntax exception
      * @throws DateTimeParseException the date time parse exception
      */
@@ -202,19 +556,15 @@ public class DailyMeasurementService {
         Objects.requireNonNull(startDate, "startDate cannot be null or empty.");
         Objects.requireNonNull(endDate, "endDate cannot be null or empty.");
 
-        final List<DailyMeasurementSyncResponse> dailyMeasurementEntityList = new ArrayList<>();
-
         final LocalDate parsedStartDate =LocalDate.parse(startDate);
         final LocalDate parsedEndDate = LocalDate.parse(endDate);
 
         final List<LocalDate> localDateList = generateDatesBetween(parsedStartDate, parsedEndDate);
 
-        for (final LocalDate localDate : localDateList) {
-            pause(10);
-            dailyMeasurementEntityList.add(syncDamsDailyFill(localDate.format(DateTimeFormatter.ISO_LOCAL_DATE)));
-        }
-
-        return dailyMeasurementEntityList;
+        return syncBackfillEngine.run(localDateList,
+                localDate -> syncDamsDailyFill(localDate.format(DateTimeFormatter.ISO_LOCAL_DATE)),
+                (localDate, exception) -> new DailyMeasurementSyncResponse(localDate.format(DateTimeFormatter.ISO_LOCAL_DATE),
+                        0, List.of(), List.of("sync error: " + exception.getMessage())));
     }
 
     /**
@@ -224,6 +574,7 @@ public class DailyMeasurementService {
      * @param localDate the local date
      * @return the boolean
      */
+    @Transactional(readOnly = true)
     public boolean dailyMesureExistsByDate(final Long damId, final LocalDate localDate) {
         Objects.requireNonNull(damId, "damId cannot be null.");
         Objects.requireNonNull(localDate, "localDate cannot be null.");
@@ -243,13 +594,4 @@ public class DailyMeasurementService {
                 .mapToObj(startDate::plusDays)
                 .collect(Collectors.toList());
     }
-
-    private void pause(final int seconds) {
-        try {
-            TimeUnit.SECONDS.sleep(seconds);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            log.error("Sleep interrupted: {}", e.getMessage());
-        }
-    }
 }
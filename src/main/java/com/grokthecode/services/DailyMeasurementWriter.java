@@ -0,0 +1,256 @@
+package com.grokthecode.services;
+
+import com.grokthecode.data.entities.AbstractEntity;
+import com.grokthecode.data.entities.DailyMeasurementEntity;
+import com.grokthecode.data.repositories.DailyMeasurementRepository;
+import lombok.extern.log4j.Log4j2;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.PGCopyOutputStream;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Inserts daily measurements with a single set-based statement.
+ * <p>
+ * The rows are sent as one array per column and expanded with {@code unnest}, and
+ * {@code on conflict (dam_id, measurement_date) do nothing} skips the measurements that are already stored,
+ * so concurrent syncs of the same date neither fail nor duplicate rows and no existence check is needed.
+ * Ids come from the {@code idgenerator} sequence in the same blocks Hibernate's pooled optimizer uses, so
+ * they never clash with the ids of entities saved through JPA. Historical loads use {@code COPY} into a staging
+ * table instead, merged with the same {@code on conflict do nothing}.
+ */
+@Component
+@Log4j2
+public class DailyMeasurementWriter {
+
+    private static final String INSERT_IGNORING_DUPLICATES = "insert into daily_measurements (id, version, soft_delete, " +
+            "created_date, last_modified_date, current_elevation, current_capacity, current_fill_percentage, measurement_date, dam_id) " +
+            "select r.id, 0, false, ?, ?, r.current_elevation, r.current_capacity, r.current_fill_percentage, r.measurement_date, r.dam_id " +
+            "from unnest(?, ?, ?, ?, ?, ?) as r(id, current_elevation, current_capacity, current_fill_percentage, measurement_date, dam_id) " +
+            "on conflict (dam_id, measurement_date) do nothing " +
+            "returning id";
+
+    private static final String CREATE_STAGING_TABLE = "create temporary table if not exists daily_measurements_staging (" +
+            "id bigint, current_elevation float8, current_capacity float8, current_fill_percentage float8, " +
+            "measurement_date date, dam_id bigint) on commit delete rows";
+    private static final String COPY_INTO_STAGING = "copy daily_measurements_staging (id, current_elevation, current_capacity, " +
+            "current_fill_percentage, measurement_date, dam_id) from stdin";
+    private static final String MERGE_STAGING = "insert into daily_measurements (id, version, soft_delete, " +
+            "created_date, last_modified_date, current_elevation, current_capacity, current_fill_percentage, measurement_date, dam_id) " +
+            "select s.id, 0, false, ?, ?, s.current_elevation, s.current_capacity, s.current_fill_percentage, s.measurement_date, s.dam_id " +
+            "from daily_measurements_staging s " +
+            "on conflict (dam_id, measurement_date) do nothing " +
+            "returning id";
+    private static final int COPY_BUFFER_SIZE = 65536;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DailyMeasurementRepository dailyMeasurementRepository;
+
+    public DailyMeasurementWriter(final JdbcTemplate jdbcTemplate,
+                                  final DailyMeasurementRepository dailyMeasurementRepository) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.dailyMeasurementRepository = dailyMeasurementRepository;
+    }
+
+    /**
+     * Inserts the measurements that are not stored yet, in the current transaction.
+     *
+     * @param dailyMeasurementEntityList the measurements; their dams must already be stored
+     * @return the inserted measurements, with their id and audit dates set
+     */
+    public List<DailyMeasurementEntity> insertIgnoringDuplicates(final List<DailyMeasurementEntity> dailyMeasurementEntityList) {
+        if (dailyMeasurementEntityList.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        // Dams saved earlier in the transaction must be in the database before rows reference them.
+        dailyMeasurementRepository.flush();
+
+        final int size = dailyMeasurementEntityList.size();
+        final List<Long> idList = allocateIds(size);
+        final Timestamp now = Timestamp.from(Instant.now());
+
+        final Long[] ids = idList.toArray(Long[]::new);
+        final Double[] elevations = new Double[size];
+        final Double[] capacities = new Double[size];
+        final Double[] fillPercentages = new Double[size];
+        final Date[] measurementDates = new Date[size];
+        final Long[] damIds = new Long[size];
+
+        for (int i = 0; i < size; i++) {
+            final DailyMeasurementEntity dailyMeasurementEntity = dailyMeasurementEntityList.get(i);
+
+            elevations[i] = dailyMeasurementEntity.getCurrentElevation();
+            capacities[i] = dailyMeasurementEntity.getCurrentCapacity();
+            fillPercentages[i] = dailyMeasurementEntity.getCurrentFillPercentage();
+            measurementDates[i] = Date.valueOf(dailyMeasurementEntity.getMeasurementDate());
+            damIds[i] = dailyMeasurementEntity.getDamCatalogEntity().getId();
+        }
+
+        final Set<Long> insertedIdSet = new HashSet<>(jdbcTemplate.query(connection -> {
+            final PreparedStatement preparedStatement = connection.prepareStatement(INSERT_IGNORING_DUPLICATES);
+            preparedStatement.setTimestamp(1, now);
+            preparedStatement.setTimestamp(2, now);
+            preparedStatement.setArray(3, connection.createArrayOf("int8", ids));
+            preparedStatement.setArray(4, connection.createArrayOf("float8", elevations));
+            preparedStatement.setArray(5, connection.createArrayOf("float8", capacities));
+            preparedStatement.setArray(6, connection.createArrayOf("float8", fillPercentages));
+            preparedStatement.setArray(7, connection.createArrayOf("date", measurementDates));
+            preparedStatement.setArray(8, connection.createArrayOf("int8", damIds));
+            return preparedStatement;
+        }, (resultSet, rowNum) -> resultSet.getLong(1)));
+
+        return toInsertedList(dailyMeasurementEntityList, idList, insertedIdSet, now);
+    }
+
+    /**
+     * Bulk loads the measurements that are not stored yet, in the current transaction.
+     * <p>
+     * The measurements are streamed into a session-local staging table with {@code COPY ... from stdin} and
+     * merged into {@code daily_measurements} with one {@code insert ... select ... on conflict do nothing}, which
+     * is much faster than the array insert for the tens of thousands of rows of a historical load.
+     *
+     * @param dailyMeasurementEntityList the measurements; their dams must already be stored
+     * @return the inserted measurements, with their id and audit dates set
+     */
+    public List<DailyMeasurementEntity> copyIgnoringDuplicates(final List<DailyMeasurementEntity> dailyMeasurementEntityList) {
+        if (dailyMeasurementEntityList.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        dailyMeasurementRepository.flush();
+
+        final List<Long> idList = allocateIds(dailyMeasurementEntityList.size());
+        final Timestamp now = Timestamp.from(Instant.now());
+
+        final Set<Long> insertedIdSet = jdbcTemplate.execute((ConnectionCallback<Set<Long>>) connection -> {
+            try (final Statement statement = connection.createStatement()) {
+                statement.execute(CREATE_STAGING_TABLE);
+            }
+
+            final PGConnection pgConnection = connection.unwrap(PGConnection.class);
+
+            try (final Writer writer = new BufferedWriter(new OutputStreamWriter(
+                    new PGCopyOutputStream(pgConnection, COPY_INTO_STAGING, COPY_BUFFER_SIZE), StandardCharsets.UTF_8), COPY_BUFFER_SIZE)) {
+                for (int i = 0; i < dailyMeasurementEntityList.size(); i++) {
+                    writer.write(toCopyRow(idList.get(i), dailyMeasurementEntityList.get(i)));
+                }
+            } catch (IOException e) {
+                throw new SQLException("copy of " + dailyMeasurementEntityList.size() + " daily measurements failed.", e);
+            }
+
+            final Set<Long> mergedIdSet = new HashSet<>();
+
+            try (final PreparedStatement preparedStatement = connection.prepareStatement(MERGE_STAGING)) {
+                preparedStatement.setTimestamp(1, now);
+                preparedStatement.setTimestamp(2, now);
+
+                try (final ResultSet resultSet = preparedStatement.executeQuery()) {
+                    while (resultSet.next()) {
+                        mergedIdSet.add(resultSet.getLong(1));
+                    }
+                }
+            }
+
+            // The staging table lives as long as the connection; empty it for the next batch of the transaction.
+            try (final Statement statement = connection.createStatement()) {
+                statement.execute("truncate daily_measurements_staging");
+            }
+
+            return mergedIdSet;
+        });
+
+        return toInsertedList(dailyMeasurementEntityList, idList, insertedIdSet, now);
+    }
+
+    /**
+     * Formats a measurement as a line of {@code COPY}'s text format.
+     *
+     * @param id                     the id
+     * @param dailyMeasurementEntity the measurement
+     * @return the line, with its line break
+     */
+    static String toCopyRow(final Long id, final DailyMeasurementEntity dailyMeasurementEntity) {
+        return id + "\t" +
+                toCopyValue(dailyMeasurementEntity.getCurrentElevation()) + "\t" +
+                toCopyValue(dailyMeasurementEntity.getCurrentCapacity()) + "\t" +
+                toCopyValue(dailyMeasurementEntity.getCurrentFillPercentage()) + "\t" +
+                toCopyValue(dailyMeasurementEntity.getMeasurementDate()) + "\t" +
+                toCopyValue(dailyMeasurementEntity.getDamCatalogEntity().getId()) + "\n";
+    }
+
+    private static String toCopyValue(final Object value) {
+        // Doubles, dates and ids never contain COPY's delimiter or escape characters.
+        return value == null ? "\\N" : value.toString();
+    }
+
+    private List<DailyMeasurementEntity> toInsertedList(final List<DailyMeasurementEntity> dailyMeasurementEntityList,
+                                                        final List<Long> idList, final Set<Long> insertedIdSet,
+                                                        final Timestamp now) {
+        final List<DailyMeasurementEntity> insertedDailyMeasurementEntityList = new ArrayList<>(insertedIdSet.size());
+
+        for (int i = 0; i < dailyMeasurementEntityList.size(); i++) {
+            if (insertedIdSet.contains(idList.get(i))) {
+                final DailyMeasurementEntity dailyMeasurementEntity = dailyMeasurementEntityList.get(i);
+                dailyMeasurementEntity.setId(idList.get(i));
+                dailyMeasurementEntity.setSoftDelete(false);
+                dailyMeasurementEntity.setCreatedDate(now);
+                dailyMeasurementEntity.setLastModifiedDate(now);
+                insertedDailyMeasurementEntityList.add(dailyMeasurementEntity);
+            }
+        }
+
+        log.debug("{} of {} daily measurements inserted.", insertedDailyMeasurementEntityList.size(), dailyMeasurementEntityList.size());
+
+        return insertedDailyMeasurementEntityList;
+    }
+
+    /**
+     * Allocates ids from the {@code idgenerator} sequence.
+     * <p>
+     * Every sequence value {@code v} is the last id of the block {@code v - ID_ALLOCATION_SIZE + 1 .. v}, as with
+     * Hibernate's pooled optimizer, so a block is only ever used by whoever fetched its value.
+     *
+     * @param count the number of ids
+     * @return the ids
+     */
+    List<Long> allocateIds(final int count) {
+        final int blockCount = (count + AbstractEntity.ID_ALLOCATION_SIZE - 1) / AbstractEntity.ID_ALLOCATION_SIZE;
+        final List<Long> blockEndList = jdbcTemplate.queryForList("select nextval('idgenerator') from generate_series(1, ?)",
+                Long.class, blockCount);
+
+        final List<Long> idList = new ArrayList<>(count);
+
+        for (final Long blockEnd : blockEndList) {
+            // The first value of a new sequence only covers itself.
+            for (long id = Math.max(1, blockEnd - AbstractEntity.ID_ALLOCATION_SIZE + 1); id <= blockEnd && idList.size() < count; id++) {
+                idList.add(id);
+            }
+        }
+
+        // Blocks below the first full one can be short; fetch more until there are enough ids.
+        if (idList.size() < count) {
+            idList.addAll(allocateIds(count - idList.size()));
+        }
+
+        return idList;
+    }
+}
@@ -0,0 +1,201 @@
+package com.grokthecode.services;
+
+import com.grokthecode.data.projections.DamCatalogView;
+import com.grokthecode.data.repositories.DamCatalogRepository;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * In-memory snapshot of the dam catalog.
+ * <p>
+ * The catalog is small and only changes when it is synced, so it is read once into an immutable
+ * {@link Snapshot} with hash indexes by sihKey, state and CNA region, and catalog lookups do no I/O.
+ * Writers call {@link #refreshAfterCommit()}, which reloads the catalog once their transaction commits
+ * and swaps the new snapshot in; readers always see either the old or the new snapshot, never a mix.
+ */
+@Component
+@Log4j2
+public class DamCatalogCache {
+
+    private final DamCatalogRepository damCatalogRepository;
+    private final Object loadLock = new Object();
+
+    private volatile Snapshot snapshot;
+
+    public DamCatalogCache(final DamCatalogRepository damCatalogRepository) {
+        this.damCatalogRepository = damCatalogRepository;
+    }
+
+    /**
+     * Returns every dam of the catalog, ordered by sihKey.
+     *
+     * @return the dams
+     */
+    public List<DamCatalogView> findAll() {
+        return getSnapshot().damCatalogViewList();
+    }
+
+    /**
+     * Finds a dam by its sihKey.
+     *
+     * @param sihKey the sih key
+     * @return the dam, or an empty optional if it is not in the catalog
+     */
+    public Optional<DamCatalogView> findBySihKey(final String sihKey) {
+        Objects.requireNonNull(sihKey, "sihKey cannot be null.");
+
+        return Optional.ofNullable(getSnapshot().sihKeyIndex().get(sihKey));
+    }
+
+    /**
+     * Finds the dams of a state, ignoring case and surrounding blanks.
+     *
+     * @param state the state
+     * @return the dams of the state ordered by sihKey, empty if there are none
+     */
+    public List<DamCatalogView> findByState(final String state) {
+        Objects.requireNonNull(state, "state cannot be null.");
+
+        return getSnapshot().stateIndex().getOrDefault(normalize(state), List.of());
+    }
+
+    /**
+     * Finds the dams of a CNA region, ignoring case and surrounding blanks.
+     *
+     * @param cnaRegion the CNA region
+     * @return the dams of the region ordered by sihKey, empty if there are none
+     */
+    public List<DamCatalogView> findByCnaRegion(final String cnaRegion) {
+        Objects.requireNonNull(cnaRegion, "cnaRegion cannot be null.");
+
+        return getSnapshot().cnaRegionIndex().getOrDefault(normalize(cnaRegion), List.of());
+    }
+
+    /**
+     * Returns the dams that follow a sihKey, optionally of a state.
+     *
+     * @param state       the state, or null for every state
+     * @param afterSihKey the sihKey the page starts after, or null for the first page
+     * @param limit       the maximum number of dams
+     * @return the dams ordered by sihKey
+     */
+    public List<DamCatalogView> findPage(final String state, final String afterSihKey, final int limit) {
+        final List<DamCatalogView> damCatalogViewList = state == null ? findAll() : findByState(state);
+
+        int fromIndex = 0;
+
+        if (afterSihKey != null) {
+            final int index = Collections.binarySearch(damCatalogViewList.stream().map(DamCatalogView::sihKey).toList(), afterSihKey);
+            fromIndex = index >= 0 ? index + 1 : -index - 1;
+        }
+
+        return damCatalogViewList.subList(fromIndex, Math.min(damCatalogViewList.size(), fromIndex + limit));
+    }
+
+    /**
+     * Returns the number of dams in the catalog.
+     *
+     * @return the number of dams
+     */
+    public int size() {
+        return getSnapshot().damCatalogViewList().size();
+    }
+
+    /**
+     * Reloads the catalog and swaps the new snapshot in.
+     */
+    public void refresh() {
+        synchronized (loadLock) {
+            snapshot = Snapshot.of(damCatalogRepository.findAllViews());
+        }
+
+        log.debug("dam catalog cache refreshed with {} dams.", snapshot.damCatalogViewList().size());
+    }
+
+    /**
+     * Refreshes the snapshot once the current transaction commits, or right away if there is none.
+     */
+    public void refreshAfterCommit() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            refresh();
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                refresh();
+            }
+        });
+    }
+
+    private Snapshot getSnapshot() {
+        Snapshot currentSnapshot = snapshot;
+
+        if (currentSnapshot == null) {
+            synchronized (loadLock) {
+                if (snapshot == null) {
+                    snapshot = Snapshot.of(damCatalogRepository.findAllViews());
+                }
+                currentSnapshot = snapshot;
+            }
+        }
+
+        return currentSnapshot;
+    }
+
+    private static String normalize(final String value) {
+        return value.strip().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * An immutable copy of the catalog and its indexes.
+     */
+    private record Snapshot(List<DamCatalogView> damCatalogViewList,
+                            Map<String, DamCatalogView> sihKeyIndex,
+                            Map<String, List<DamCatalogView>> stateIndex,
+                            Map<String, List<DamCatalogView>> cnaRegionIndex) {
+
+        static Snapshot of(final List<DamCatalogView> damCatalogViews) {
+            final List<DamCatalogView> damCatalogViewList = damCatalogViews.stream()
+                    .sorted(Comparator.comparing(DamCatalogView::sihKey))
+                    .toList();
+
+            final Map<String, DamCatalogView> sihKeyIndex = new HashMap<>();
+            final Map<String, List<DamCatalogView>> stateIndex = new HashMap<>();
+            final Map<String, List<DamCatalogView>> cnaRegionIndex = new HashMap<>();
+
+            for (final DamCatalogView damCatalogView : damCatalogViewList) {
+                sihKeyIndex.put(damCatalogView.sihKey(), damCatalogView);
+
+                if (damCatalogView.state() != null) {
+                    stateIndex.computeIfAbsent(normalize(damCatalogView.state()), state -> new ArrayList<>()).add(damCatalogView);
+                }
+                if (damCatalogView.cnaRegion() != null) {
+                    cnaRegionIndex.computeIfAbsent(normalize(damCatalogView.cnaRegion()), cnaRegion -> new ArrayList<>()).add(damCatalogView);
+                }
+            }
+
+            return new Snapshot(damCatalogViewList, Map.copyOf(sihKeyIndex), copyOf(stateIndex), copyOf(cnaRegionIndex));
+        }
+
+        private static Map<String, List<DamCatalogView>> copyOf(final Map<String, List<DamCatalogView>> index) {
+            final Map<String, List<DamCatalogView>> indexCopy = new HashMap<>();
+            index.forEach((key, damCatalogViewList) -> indexCopy.put(key, List.copyOf(damCatalogViewList)));
+
+            return Map.copyOf(indexCopy);
+        }
+    }
+}
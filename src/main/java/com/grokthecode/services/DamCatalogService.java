@@ -2,43 +2,62 @@ package com.grokthecode.services;
 
 import com.grokthecode.common.GlobalConstants;
 import com.grokthecode.data.responses.DamCatalogSyncResponse;
+import com.grokthecode.services.events.DamDataChangedEvent;
 import com.grokthecode.services.exceptions.DamWithSihKeyAlreadyExistsException;
 import com.grokthecode.services.exceptions.DamWithSihKeyDoesNotExistsException;
 import com.grokthecode.services.exceptions.ResourceNotFoundException;
 import com.grokthecode.services.exceptions.SyncDamCatalogException;
 import com.grokthecode.data.entities.DamCatalogEntity;
+import com.grokthecode.data.projections.DamCatalogView;
 import com.grokthecode.data.repositories.DamCatalogRepository;
 import com.grokthecode.models.restapi.PresasDto;
-import jakarta.transaction.Transactional;
 import lombok.extern.log4j.Log4j2;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestClient;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.net.URI;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * This class represents a service for managing a catalog of dams.
+ * <p>
+ * The catalog sync fetches from the upstream outside any transaction and persists the catalog
+ * through the {@link SyncPersistenceGate} in one short transaction.
  */
 @Service
-@Transactional
 @Log4j2
 public class DamCatalogService {
 
     public final DamCatalogRepository damCatalogRepository;
+    private final DamCatalogCache damCatalogCache;
+    private final ApplicationEventPublisher applicationEventPublisher;
+    private final SyncPersistenceGate syncPersistenceGate;
+    private final PresasFeedClient presasFeedClient;
 
-    @Value("${app.datasource.url}")
-    private String appDatasourceUrl;
 
-    public DamCatalogService(final DamCatalogRepository damCatalogRepository) {
+    public DamCatalogService(final DamCatalogRepository damCatalogRepository,
+                             final DamCatalogCache damCatalogCache,
+                             final ApplicationEventPublisher applicationEventPublisher,
+                             final SyncPersistenceGate syncPersistenceGate,
+                             final PresasFeedClient presasFeedClient) {
         this.damCatalogRepository = damCatalogRepository;
+        this.damCatalogCache = damCatalogCache;
+        this.applicationEventPublisher = applicationEventPublisher;
+        this.syncPersistenceGate = syncPersistenceGate;
+        this.presasFeedClient = presasFeedClient;
     }
 
     /**
@@ -49,6 +68,7 @@ public class DamCatalogService {
      * @return The created DamCatalogEntity object.
      * @throws IllegalArgumentException if a dam with the same sihKey already exists.
      */
+    @Transactional
     public DamCatalogEntity createDamCatalog(final DamCatalogEntity damCatalogEntity) throws DamWithSihKeyAlreadyExistsException {
         Objects.requireNonNull(damCatalogEntity, "damCatalogEntity" + GlobalConstants.MESSAGE_MUST_NOT_BE_NULL);
 
@@ -58,7 +78,11 @@ public class DamCatalogService {
             throw new DamWithSihKeyAlreadyExistsException(sihKey);
         }
 
-        return damCatalogRepository.save(damCatalogEntity);
+        final DamCatalogEntity savedDamCatalogEntity = damCatalogRepository.save(damCatalogEntity);
+        damCatalogCache.refreshAfterCommit();
+        applicationEventPublisher.publishEvent(new DamDataChangedEvent(Collections.singleton(savedDamCatalogEntity.getId())));
+
+        return savedDamCatalogEntity;
     }
 
     /**
@@ -66,11 +90,22 @@ public class DamCatalogService {
      *
      * @return a list of DamCatalogEntity objects representing all the dams in the catalog.
      */
+    @Transactional(readOnly = true)
     public List<DamCatalogEntity> listAllDams() {
 
         return List.copyOf(damCatalogRepository.findAll());
     }
 
+    /**
+     * Retrieves a read-only view of every dam of the catalog, ordered by sihKey, from the catalog cache.
+     *
+     * @return a list of DamCatalogView records representing all the dams in the catalog.
+     */
+    public List<DamCatalogView> listAllDamViews() {
+
+        return damCatalogCache.findAll();
+    }
+
     /**
      * Updates an existing Dam Catalog entity in the database with the provided updatedDamCatalogEntity object.
      *
@@ -78,6 +113,7 @@ public class DamCatalogService {
      *                                Must not be null.
      * @throws IllegalArgumentException If the Dam Catalog entity with the provided id does not exist in the database.
      */
+    @Transactional
     public void updateDamCatalog(final DamCatalogEntity updatedDamCatalogEntity) {
         Objects.requireNonNull(updatedDamCatalogEntity, "updatedDamCatalogEntity" + GlobalConstants.MESSAGE_MUST_NOT_BE_NULL);
 
@@ -106,81 +142,176 @@ public class DamCatalogService {
         originalDamCatalogEntity.setNameElevation(updatedDamCatalogEntity.getNameElevation());
 
         damCatalogRepository.save(originalDamCatalogEntity);
+        damCatalogCache.refreshAfterCommit();
+        applicationEventPublisher.publishEvent(new DamDataChangedEvent(Collections.singleton(originalDamCatalogEntity.getId())));
     }
 
     /**
      * Synchronizes the DAMS catalog by fetching the latest data from the appDatasourceUrl
      * and updating the local DAMS catalog accordingly.
+     * <p>
+     * The feed is persisted in one transaction once it has been read completely.
+     *
+     * Only new dams and dams whose catalog fields changed are written.
      *
-     * @return A pair of Lists containing the updated DAMS catalog entities and any synchronization error messages.
+     * @return the created DAMS catalog entities, the created, updated and unchanged counts and any synchronization error messages.
      */
     public DamCatalogSyncResponse syncDamsCatalog() throws SyncDamCatalogException {
 
         try {
-            final RestClient restClient = RestClient.create();
-
             // Get the current localDate in the apropiate format.
             final String currentFormatedDate = LocalDate.now().format(DateTimeFormatter.ISO_LOCAL_DATE);
-            final String endpoint = appDatasourceUrl + currentFormatedDate;
-
-            final List<PresasDto> presasDtoList = restClient.get().uri(new URI(endpoint))
-                    .retrieve()
-                    .body(new ParameterizedTypeReference<>() {
-                    });
-
-            // We create to lists, one with the catalog entities and another for the sync error messages.
-            final List<DamCatalogEntity> damCatalogEntityList = new ArrayList<>();
-            final List<String> syncErrorMessageList = new ArrayList<>();
-
-            //For every dam returned from the endpoint, let's create a damCatalogEntity
-            assert presasDtoList != null;
-            for (final PresasDto presasDto : presasDtoList) {
-                final DamCatalogEntity damCatalogEntity = new DamCatalogEntity(
-                        presasDto.getClavesih(),
-                        presasDto.getNombreoficial(),
-                        presasDto.getNombrecomun(),
-                        presasDto.getEstado(),
-                        presasDto.getNommunicipio(),
-                        presasDto.getRegioncna(),
-                        presasDto.getLatitud(),
-                        presasDto.getLongitud(),
-                        presasDto.getUso(),
-                        presasDto.getCorriente(),
-                        presasDto.getTipovertedor(),
-                        presasDto.getInicioop(),
-                        presasDto.getElevcorona(),
-                        presasDto.getBordolibre(),
-                        presasDto.getNameelev(),
-                        presasDto.getNamealmac(),
-                        presasDto.getAlturacortina());
-
-                // If the catalog entity already exists, update the catalog entity, if not, create a new one.
-                if (damExistsBySihKey(damCatalogEntity.getSihKey())) {
-                    damCatalogEntity.setId(getDamCatalogBySihKey(damCatalogEntity.getSihKey()).getId());
-                    updateDamCatalog(damCatalogEntity);
-                } else {
-                    try {
-                        damCatalogEntityList.add(createDamCatalog(damCatalogEntity));
-                    } catch (DamWithSihKeyAlreadyExistsException e) {
-                        log.info(e.getMessage());
-                        syncErrorMessageList.add(e.getMessage());
-                    }
-                }
-            }
 
-            return new DamCatalogSyncResponse(damCatalogEntityList.size(), damCatalogEntityList, syncErrorMessageList);
+            final List<PresasDto> presasDtoList = presasFeedClient.fetch(currentFormatedDate);
+
+            // The catalog is written in one transaction once the feed has been read completely.
+            return syncPersistenceGate.inTransaction(() -> upsertDamsCatalog(presasDtoList));
 
         } catch (Exception ex) {
             throw new SyncDamCatalogException("sync error.");
         }
     }
 
+    /**
+     * Creates the new dams of the payload and updates only the dams whose catalog fields changed.
+     * <p>
+     * The payload is first compared by {@link CatalogFingerprint} with the {@link DamCatalogCache}, so dams
+     * that did not change cost no query. The stored entities of the remaining dams are loaded with one query
+     * and compared again, new and changed dams are then written with batched inserts and updates. Unchanged
+     * dams are not written, so their version and last modified date stay as they are. The cache is refreshed
+     * once the transaction commits if anything was written.
+     *
+     * @param presasDtoList the upstream payload
+     * @return the created dams and the created, updated and unchanged counts
+     */
+    @Transactional
+    public DamCatalogSyncResponse upsertDamsCatalog(final List<PresasDto> presasDtoList) {
+        final List<PresasDto> changedPresasDtoList = new ArrayList<>();
+        int unchangedCount = 0;
+
+        for (final PresasDto presasDto : presasDtoList) {
+            final Optional<DamCatalogView> optionalDamCatalogView = damCatalogCache.findBySihKey(presasDto.getClavesih());
+
+            if (optionalDamCatalogView.isPresent()
+                    && CatalogFingerprint.of(presasDto).equals(CatalogFingerprint.of(optionalDamCatalogView.get()))) {
+                unchangedCount++;
+            } else {
+                changedPresasDtoList.add(presasDto);
+            }
+        }
+
+        final Set<String> sihKeySet = changedPresasDtoList.stream()
+                .map(PresasDto::getClavesih)
+                .collect(Collectors.toSet());
+
+        final Map<String, DamCatalogEntity> damCatalogEntityMap = sihKeySet.isEmpty() ? new HashMap<>() :
+                damCatalogRepository.findBySihKeyIn(sihKeySet).stream()
+                        .collect(Collectors.toMap(DamCatalogEntity::getSihKey, Function.identity(), (first, second) -> first));
+
+        final List<DamCatalogEntity> createdDamCatalogEntityList = new ArrayList<>();
+        final Set<DamCatalogEntity> updatedDamCatalogEntitySet = new LinkedHashSet<>();
+
+        for (final PresasDto presasDto : changedPresasDtoList) {
+            final DamCatalogEntity damCatalogEntity = damCatalogEntityMap.get(presasDto.getClavesih());
+            final CatalogFingerprint catalogFingerprint = CatalogFingerprint.of(presasDto);
+
+            if (damCatalogEntity == null) {
+                final DamCatalogEntity newDamCatalogEntity = new DamCatalogEntity();
+                newDamCatalogEntity.setSihKey(presasDto.getClavesih());
+                catalogFingerprint.applyTo(newDamCatalogEntity);
+
+                createdDamCatalogEntityList.add(newDamCatalogEntity);
+                damCatalogEntityMap.put(newDamCatalogEntity.getSihKey(), newDamCatalogEntity);
+            } else if (catalogFingerprint.equals(CatalogFingerprint.of(damCatalogEntity))) {
+                unchangedCount++;
+            } else {
+                catalogFingerprint.applyTo(damCatalogEntity);
+                if (damCatalogEntity.getId() != null) {
+                    updatedDamCatalogEntitySet.add(damCatalogEntity);
+                }
+            }
+        }
+
+        final List<DamCatalogEntity> savedDamCatalogEntityList = damCatalogRepository.saveAll(createdDamCatalogEntityList);
+        damCatalogRepository.saveAll(updatedDamCatalogEntitySet);
+
+        if (!savedDamCatalogEntityList.isEmpty() || !updatedDamCatalogEntitySet.isEmpty()) {
+            damCatalogCache.refreshAfterCommit();
+            applicationEventPublisher.publishEvent(new DamDataChangedEvent(Stream.concat(savedDamCatalogEntityList.stream(),
+                    updatedDamCatalogEntitySet.stream()).map(DamCatalogEntity::getId).collect(Collectors.toSet())));
+        }
+
+        log.info("dam catalog sync: {} created, {} updated, {} unchanged.",
+                savedDamCatalogEntityList.size(), updatedDamCatalogEntitySet.size(), unchangedCount);
+
+        return new DamCatalogSyncResponse(savedDamCatalogEntityList.size(), savedDamCatalogEntityList.size(),
+                updatedDamCatalogEntitySet.size(), unchangedCount, savedDamCatalogEntityList, new ArrayList<>());
+    }
+
+    /**
+     * The catalog fields of a dam, used to detect which dams changed upstream.
+     */
+    private record CatalogFingerprint(String officialName, String commonName, String state, String municipality,
+                                      String cnaRegion, Double latitude, Double longitude, String usage,
+                                      String currents, String verterType, String operationStartYear,
+                                      String elevationCrown, Double freeBorder, Double nameElevation,
+                                      Double nameCapacity, String shadeHeight) {
+
+        static CatalogFingerprint of(final PresasDto presasDto) {
+            return new CatalogFingerprint(presasDto.getNombreoficial(), presasDto.getNombrecomun(),
+                    presasDto.getEstado(), presasDto.getNommunicipio(), presasDto.getRegioncna(),
+                    presasDto.getLatitud(), presasDto.getLongitud(), presasDto.getUso(), presasDto.getCorriente(),
+                    presasDto.getTipovertedor(), presasDto.getInicioop(), presasDto.getElevcorona(),
+                    presasDto.getBordolibre(), presasDto.getNameelev(), presasDto.getNamealmac(),
+                    presasDto.getAlturacortina());
+        }
+
+        static CatalogFingerprint of(final DamCatalogView damCatalogView) {
+            return new CatalogFingerprint(damCatalogView.officialName(), damCatalogView.commonName(),
+                    damCatalogView.state(), damCatalogView.municipality(), damCatalogView.cnaRegion(),
+                    damCatalogView.latitude(), damCatalogView.longitude(), damCatalogView.usage(),
+                    damCatalogView.currents(), damCatalogView.verterType(), damCatalogView.operationStartYear(),
+                    damCatalogView.elevationCrown(), damCatalogView.freeBorder(), damCatalogView.nameElevation(),
+                    damCatalogView.nameCapacity(), damCatalogView.shadeHeight());
+        }
+
+        static CatalogFingerprint of(final DamCatalogEntity damCatalogEntity) {
+            return new CatalogFingerprint(damCatalogEntity.getOfficialName(), damCatalogEntity.getCommonName(),
+                    damCatalogEntity.getState(), damCatalogEntity.getMunicipality(), damCatalogEntity.getCnaRegion(),
+                    damCatalogEntity.getLatitude(), damCatalogEntity.getLongitude(), damCatalogEntity.getUsage(),
+                    damCatalogEntity.getCurrents(), damCatalogEntity.getVerterType(),
+                    damCatalogEntity.getOperationStartYear(), damCatalogEntity.getElevationCrown(),
+                    damCatalogEntity.getFreeBorder(), damCatalogEntity.getNameElevation(),
+                    damCatalogEntity.getNameCapacity(), damCatalogEntity.getShadeHeight());
+        }
+
+        void applyTo(final DamCatalogEntity damCatalogEntity) {
+            damCatalogEntity.setOfficialName(officialName);
+            damCatalogEntity.setCommonName(commonName);
+            damCatalogEntity.setState(state);
+            damCatalogEntity.setMunicipality(municipality);
+            damCatalogEntity.setCnaRegion(cnaRegion);
+            damCatalogEntity.setLatitude(latitude);
+            damCatalogEntity.setLongitude(longitude);
+            damCatalogEntity.setUsage(usage);
+            damCatalogEntity.setCurrents(currents);
+            damCatalogEntity.setVerterType(verterType);
+            damCatalogEntity.setOperationStartYear(operationStartYear);
+            damCatalogEntity.setElevationCrown(elevationCrown);
+            damCatalogEntity.setFreeBorder(freeBorder);
+            damCatalogEntity.setNameElevation(nameElevation);
+            damCatalogEntity.setNameCapacity(nameCapacity);
+            damCatalogEntity.setShadeHeight(shadeHeight);
+        }
+    }
+
     /**
      * Retrieves the DAM catalog entity by its ID.
      *
      * @param damCatalogId the ID of the DAM catalog entity to retrieve
      * @return an {@link Optional} containing the DAM catalog entity, or an empty optional if it does not exist
      */
+    @Transactional(readOnly = true)
     public Optional<DamCatalogEntity> getDamCatalogById(final Long damCatalogId) {
         Objects.requireNonNull(damCatalogId, "damCatalogId" + GlobalConstants.MESSAGE_MUST_NOT_BE_NULL);
 
@@ -188,40 +319,41 @@ public class DamCatalogService {
     }
 
     /**
-     * Retrieves a DamCatalogEntity by its sihKey.
+     * Retrieves a DamCatalogView by its sihKey from the catalog cache.
      *
-     * @param sihKey the sihKey of the DamCatalogEntity to retrieve
-     * @return an Optional containing the DamCatalogEntity, or an empty Optional if not found
+     * @param sihKey the sihKey of the dam to retrieve
+     * @return the DamCatalogView of the dam
+     * @throws DamWithSihKeyDoesNotExistsException if no dam has the sihKey
      */
-    public DamCatalogEntity getDamCatalogBySihKey(final String sihKey) throws DamWithSihKeyDoesNotExistsException {
+    public DamCatalogView getDamCatalogBySihKey(final String sihKey) throws DamWithSihKeyDoesNotExistsException {
         Objects.requireNonNull(sihKey, "sihKey" + GlobalConstants.MESSAGE_MUST_NOT_BE_NULL);
 
-        Optional<DamCatalogEntity> optionalDamCatalogEntity = damCatalogRepository.findBySihKey(sihKey);
+        Optional<DamCatalogView> optionalDamCatalogView = damCatalogCache.findBySihKey(sihKey);
 
-        if (optionalDamCatalogEntity.isEmpty()) {
+        if (optionalDamCatalogView.isEmpty()) {
             throw new DamWithSihKeyDoesNotExistsException(sihKey);
         }
 
-        return optionalDamCatalogEntity.get();
+        return optionalDamCatalogView.get();
     }
 
     /**
-     * Retrieves the List of DamCatalogEntity objects based on the given state.
+     * Retrieves the List of DamCatalogView records based on the given state, ignoring case, from the catalog cache.
      *
      * @param state The state for which to retrieve the dam catalog. Must not be null.
-     * @return The List of DamCatalogEntity objects that belong to the specified state.
+     * @return The List of DamCatalogView records that belong to the specified state, ordered by sihKey.
      * @throws NullPointerException If the state parameter is null.
      */
-    public List<DamCatalogEntity> getDamCatalogByState(final String state) throws ResourceNotFoundException {
+    public List<DamCatalogView> getDamCatalogByState(final String state) throws ResourceNotFoundException {
         Objects.requireNonNull(state, "state" + GlobalConstants.MESSAGE_MUST_NOT_BE_NULL);
 
-        final List<DamCatalogEntity> damCatalogEntityList = damCatalogRepository.findByState(state);
+        final List<DamCatalogView> damCatalogViewList = damCatalogCache.findByState(state);
 
-        if (damCatalogEntityList.isEmpty()) {
+        if (damCatalogViewList.isEmpty()) {
             throw new ResourceNotFoundException(state);
         }
 
-        return List.copyOf(damCatalogEntityList);
+        return damCatalogViewList;
     }
 
     /**
@@ -230,6 +362,7 @@ public class DamCatalogService {
      * @param sihKey the SIH key to check for DAM existence
      * @return true if Dam entry exists for the given Sih key, false otherwise.
      */
+    @Transactional(readOnly = true)
     public boolean damExistsBySihKey(final String sihKey) {
         Objects.requireNonNull(sihKey, "sihKey" + GlobalConstants.MESSAGE_MUST_NOT_BE_NULL);
 
@@ -1,36 +1,59 @@
 package com.grokthecode.services;
 
-import com.grokthecode.data.entities.DailyMeasurementEntity;
-import com.grokthecode.data.entities.DamCatalogEntity;
+import com.grokthecode.common.utilities.KeysetPageToken;
+import com.grokthecode.data.projections.DailyMeasurementView;
+import com.grokthecode.data.projections.DamCatalogView;
 import com.grokthecode.data.repositories.DailyMeasurementRepository;
-import com.grokthecode.data.repositories.DamCatalogRepository;
 import com.grokthecode.data.responses.DamInfoResponse;
+import com.grokthecode.data.responses.PageResponse;
 import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
-import java.util.Optional;
+import java.util.function.Function;
 
 /**
  * The DamInfoService class provides methods to retrieve information about dams
  * from the dam catalog and associated daily measurements.
+ * <p>
+ * Lists of dams are built with two queries whatever the number of dams: one for the catalog and one
+ * for all the matching measurements, which are then grouped by dam in memory. Both are read as
+ * {@link DamCatalogView} and {@link DailyMeasurementView} records, so nothing is loaded into the
+ * persistence context. The catalog itself comes from the {@link DamCatalogCache} without any query,
+ * and once the {@link MeasurementSeriesStore} is loaded the measurements are sliced from it instead.
+ * <p>
+ * The reads run without a transaction, so those answered from the cache and the store never check out a
+ * connection; the database fallbacks are single queries and need no transaction of their own.
  */
 @Service
-@Transactional
 @Log4j2
 public class DamInfoService {
 
-    final private DamCatalogRepository damCatalogRepository;
+    private static final KeysetPageToken.Key[] DAM_PAGE_KEYS = {
+            new KeysetPageToken.Key("sihKey", Function.identity())
+    };
+
+    final private DamCatalogCache damCatalogCache;
     final private DailyMeasurementRepository dailyMeasurementRepository;
+    final private MeasurementSeriesStore measurementSeriesStore;
+
+    @Value("${app.api.page.default-size}")
+    private int defaultPageSize;
+    @Value("${app.api.page.max-size}")
+    private int maxPageSize;
 
-    public DamInfoService(final DamCatalogRepository damCatalogRepository,
-                          final DailyMeasurementRepository dailyMeasurementRepository) {
-        this.damCatalogRepository = damCatalogRepository;
+    public DamInfoService(final DamCatalogCache damCatalogCache,
+                          final DailyMeasurementRepository dailyMeasurementRepository,
+                          final MeasurementSeriesStore measurementSeriesStore) {
+        this.damCatalogCache = damCatalogCache;
         this.dailyMeasurementRepository = dailyMeasurementRepository;
+        this.measurementSeriesStore = measurementSeriesStore;
     }
 
     /**
@@ -40,16 +63,12 @@ public class DamInfoService {
      *         associated daily measurements, sorted by measurement date in descending order.
      */
     public List<DamInfoResponse> getDamsInfo() {
-        final List<DamInfoResponse> damInfoResponseList = new ArrayList<>();
-
-        for (final DamCatalogEntity damCatalogEntity : damCatalogRepository.findAll()) {
-            final List<DailyMeasurementEntity> dailyMeasurementEntityList = dailyMeasurementRepository.findByDamCatalogEntityOrderByMeasurementDateDesc(damCatalogEntity);
-            final DamInfoResponse damInfoResponse = new DamInfoResponse(damCatalogEntity, dailyMeasurementEntityList);
-
-            damInfoResponseList.add(damInfoResponse);
+        if (measurementSeriesStore.isLoaded()) {
+            return toDamInfoResponseList(damCatalogCache.findAll(), null, null);
         }
 
-        return damInfoResponseList;
+        return toDamInfoResponseList(damCatalogCache.findAll(),
+                dailyMeasurementRepository.findViewsOrderByDamIdAndMeasurementDateDesc());
     }
 
     /**
@@ -63,39 +82,38 @@ public class DamInfoService {
         Objects.requireNonNull(startDate, "startDate cannot be null.");
         Objects.requireNonNull(endDate, "endDate cannot be null.");
 
-        final List<DamInfoResponse> damInfoResponseList = new ArrayList<>();
-
-        for (final DamCatalogEntity damCatalogEntity : damCatalogRepository.findAll()) {
-            final List<DailyMeasurementEntity> dailyMeasurementEntityList =
-                    dailyMeasurementRepository.findByMeasurementDateBetweenOrderByMeasurementDateDesc(startDate, endDate);
-            final DamInfoResponse damInfoResponse = new DamInfoResponse(damCatalogEntity, dailyMeasurementEntityList);
-
-            damInfoResponseList.add(damInfoResponse);
+        if (measurementSeriesStore.isLoaded()) {
+            return toDamInfoResponseList(damCatalogCache.findAll(), startDate, endDate);
         }
-        return damInfoResponseList;
+
+        // Every dam gets only its own measurements of the range.
+        return toDamInfoResponseList(damCatalogCache.findAll(),
+                dailyMeasurementRepository.findViewsByMeasurementDateBetweenOrderByDamIdAndMeasurementDateDesc(startDate, endDate));
     }
 
     /**
      * Retrieves a list of dam information for a given state.
      *
      * @param state the state for which dam information needs to be retrieved
-     * @return a list of DamInfoResponse objects containing the dam catalog entity and daily measurement entity
+     * @return a list of DamInfoResponse objects containing the dam catalog view and daily measurement view
      *         information for each dam in the given state
      * @throws NullPointerException if the state is null
      */
     public List<DamInfoResponse> getDamsInfoByState(final String state) {
         Objects.requireNonNull(state, "state cannot be null.");
 
-        final List<DamInfoResponse> damInfoResponseList = new ArrayList<>();
+        final List<DamCatalogView> damCatalogViewList = damCatalogCache.findByState(state);
 
-        for (final DamCatalogEntity damCatalogEntity : damCatalogRepository.findByState(state)) {
-            final List<DailyMeasurementEntity> dailyMeasurementEntityList =
-                    dailyMeasurementRepository.findByDamCatalogEntityOrderByMeasurementDateDesc(damCatalogEntity);
-            final DamInfoResponse damInfoResponse = new DamInfoResponse(damCatalogEntity, dailyMeasurementEntityList);
+        if (damCatalogViewList.isEmpty()) {
+            return new ArrayList<>();
+        }
 
-            damInfoResponseList.add(damInfoResponse);
+        if (measurementSeriesStore.isLoaded()) {
+            return toDamInfoResponseList(damCatalogViewList, null, null);
         }
-        return damInfoResponseList;
+
+        return toDamInfoResponseList(damCatalogViewList,
+                dailyMeasurementRepository.findViewsByDamIdsOrderByDamIdAndMeasurementDateDesc(toDamIdList(damCatalogViewList)));
     }
 
     /**
@@ -112,40 +130,38 @@ public class DamInfoService {
         Objects.requireNonNull(startDate, "startDate cannot be null.");
         Objects.requireNonNull(endDate, "endDate cannot be null.");
 
-        final List<DamInfoResponse> damInfoResponseList = new ArrayList<>();
+        final List<DamCatalogView> damCatalogViewList = damCatalogCache.findByState(state);
 
-        for (final DamCatalogEntity damCatalogEntity : damCatalogRepository.findByState(state)) {
-            final List<DailyMeasurementEntity> dailyMeasurementEntityList =
-                    dailyMeasurementRepository.findByDamCatalogEntityAndMeasurementDateBetweenOrderByMeasurementDateDesc(damCatalogEntity, startDate, endDate);
-            final DamInfoResponse damInfoResponse = new DamInfoResponse(damCatalogEntity, dailyMeasurementEntityList);
+        if (damCatalogViewList.isEmpty()) {
+            return new ArrayList<>();
+        }
 
-            damInfoResponseList.add(damInfoResponse);
+        if (measurementSeriesStore.isLoaded()) {
+            return toDamInfoResponseList(damCatalogViewList, startDate, endDate);
         }
-        return damInfoResponseList;
+
+        return toDamInfoResponseList(damCatalogViewList,
+                dailyMeasurementRepository.findViewsByDamIdsAndMeasurementDateBetweenOrderByDamIdAndMeasurementDateDesc(toDamIdList(damCatalogViewList),
+                        startDate, endDate));
     }
 
     /**
      * Retrieves the information about a dam based on the specified SihKey.
      *
      * @param sihKey the SihKey to search for
-     * @return a DamInfoResponse object containing the dam catalog entity and the list of daily measurement entities
-     * @throws IllegalArgumentException if no DamCatalogEntity with the specified sihKey is found
+     * @return a DamInfoResponse object containing the dam catalog view and the list of daily measurement views
+     * @throws IllegalArgumentException if no dam with the specified sihKey is found
      */
     public DamInfoResponse getDamsInfoBySihKey(final String sihKey) {
         Objects.requireNonNull(sihKey, "sihKey cannot be null.");
 
-        final Optional<DamCatalogEntity> damCatalogEntityOptional = damCatalogRepository.findBySihKey(sihKey);
+        final DamCatalogView damCatalogView = getDamCatalogView(sihKey);
 
-        if (damCatalogEntityOptional.isEmpty()) {
-            throw new IllegalArgumentException("DamCatalogEntity with sihKey: " + sihKey + " not found");
+        if (measurementSeriesStore.isLoaded()) {
+            return new DamInfoResponse(damCatalogView, measurementSeriesStore.findByDamId(damCatalogView.id(), null, null));
         }
 
-        final DamCatalogEntity damCatalogEntity = damCatalogEntityOptional.get();
-
-        final List<DailyMeasurementEntity> dailyMeasurementEntityList =
-                dailyMeasurementRepository.findByDamCatalogEntityOrderByMeasurementDateDesc(damCatalogEntity);
-
-        return new DamInfoResponse(damCatalogEntity, dailyMeasurementEntityList);
+        return new DamInfoResponse(damCatalogView, dailyMeasurementRepository.findViewsByDamId(damCatalogView.id()));
     }
 
     /**
@@ -154,9 +170,9 @@ public class DamInfoService {
      * @param sihKey The SIH key used to identify the dam.
      * @param startDate The start date for fetching dam measurements.
      * @param endDate The end date for fetching dam measurements.
-     * @return The dam information response containing the dam catalog entity and
-     *         the list of daily measurement entities.
-     * @throws IllegalArgumentException if the dam catalog entity with the given
+     * @return The dam information response containing the dam catalog view and
+     *         the list of daily measurement views.
+     * @throws IllegalArgumentException if the dam with the given
      *         SIH key is not found.
      * @throws NullPointerException if any of the parameters (sihKey, startDate,
      *         endDate) is null.
@@ -166,17 +182,115 @@ public class DamInfoService {
         Objects.requireNonNull(startDate, "startDate cannot be null.");
         Objects.requireNonNull(endDate, "endDate cannot be null.");
 
-        final Optional<DamCatalogEntity> damCatalogEntityOptional = damCatalogRepository.findBySihKey(sihKey);
+        final DamCatalogView damCatalogView = getDamCatalogView(sihKey);
+
+        if (measurementSeriesStore.isLoaded()) {
+            return new DamInfoResponse(damCatalogView, measurementSeriesStore.findByDamId(damCatalogView.id(), startDate, endDate));
+        }
+
+        return new DamInfoResponse(damCatalogView,
+                dailyMeasurementRepository.findViewsByDamIdAndMeasurementDateBetween(damCatalogView.id(), startDate, endDate));
+    }
+
+    /**
+     * Retrieves a keyset page of dams, ordered by sihKey, with their measurements.
+     *
+     * @param state     the state, or null for every state
+     * @param startDate the start date of the measurements, or null for every date
+     * @param endDate   the end date of the measurements, or null for every date
+     * @param pageToken the token of the previous page, or null for the first page
+     * @param pageSize  the number of dams per page, or null for the default
+     * @return the page and the token of the next one
+     */
+    public PageResponse<DamInfoResponse> getDamsInfoPage(final String state, final LocalDate startDate, final LocalDate endDate,
+                                                         final String pageToken, final Integer pageSize) {
+        if ((startDate == null) != (endDate == null)) {
+            throw new IllegalArgumentException("startDate and endDate must be given together.");
+        }
+
+        final List<Object> afterKeyList = KeysetPageToken.decode(pageToken, DAM_PAGE_KEYS);
+        final String afterSihKey = afterKeyList == null ? null : (String) afterKeyList.get(0);
+        final int limit = KeysetPageToken.pageSize(pageSize, defaultPageSize, maxPageSize);
+
+        // One extra dam tells whether there is a next page.
+        final List<DamCatalogView> damCatalogViewPage = damCatalogCache.findPage(state, afterSihKey, limit + 1);
+
+        final boolean hasNextPage = damCatalogViewPage.size() > limit;
+        final List<DamCatalogView> damCatalogViewList = hasNextPage ? damCatalogViewPage.subList(0, limit) : damCatalogViewPage;
+        final String nextPageToken = hasNextPage ? KeysetPageToken.encode(damCatalogViewList.getLast().sihKey()) : null;
 
-        if (damCatalogEntityOptional.isEmpty()) {
-            throw new IllegalArgumentException("DamCatalogEntity with sihKey: " + sihKey + " not found");
+        if (measurementSeriesStore.isLoaded()) {
+            return new PageResponse<>(toDamInfoResponseList(damCatalogViewList, startDate, endDate), limit, nextPageToken);
         }
 
-        final DamCatalogEntity damCatalogEntity = damCatalogEntityOptional.get();
+        final List<Long> damIdList = toDamIdList(damCatalogViewList);
 
-        final List<DailyMeasurementEntity> dailyMeasurementEntityList =
-                dailyMeasurementRepository.findByDamCatalogEntityAndMeasurementDateBetweenOrderByMeasurementDateDesc(damCatalogEntity, startDate, endDate);
+        final List<DailyMeasurementView> dailyMeasurementViewList;
 
-        return new DamInfoResponse(damCatalogEntity, dailyMeasurementEntityList);
+        if (damIdList.isEmpty()) {
+            dailyMeasurementViewList = List.of();
+        } else if (startDate == null) {
+            dailyMeasurementViewList = dailyMeasurementRepository.findViewsByDamIdsOrderByDamIdAndMeasurementDateDesc(damIdList);
+        } else {
+            dailyMeasurementViewList = dailyMeasurementRepository.findViewsByDamIdsAndMeasurementDateBetweenOrderByDamIdAndMeasurementDateDesc(damIdList, startDate, endDate);
+        }
+
+        return new PageResponse<>(toDamInfoResponseList(damCatalogViewList, dailyMeasurementViewList), limit, nextPageToken);
+    }
+
+    private DamCatalogView getDamCatalogView(final String sihKey) {
+
+        return damCatalogCache.findBySihKey(sihKey)
+                .orElseThrow(() -> new IllegalArgumentException("DamCatalogEntity with sihKey: " + sihKey + " not found"));
+    }
+
+    private List<Long> toDamIdList(final List<DamCatalogView> damCatalogViewList) {
+        return damCatalogViewList.stream().map(DamCatalogView::id).toList();
+    }
+
+    /**
+     * Pairs every dam with its measurements sliced from the series store.
+     *
+     * @param damCatalogViewList the dams, in response order
+     * @param startDate          the start date, or null for every date
+     * @param endDate            the end date, or null for every date
+     * @return one DamInfoResponse per dam, with an empty list for dams without measurements
+     */
+    private List<DamInfoResponse> toDamInfoResponseList(final List<DamCatalogView> damCatalogViewList,
+                                                        final LocalDate startDate, final LocalDate endDate) {
+        final List<DamInfoResponse> damInfoResponseList = new ArrayList<>(damCatalogViewList.size());
+
+        for (final DamCatalogView damCatalogView : damCatalogViewList) {
+            damInfoResponseList.add(new DamInfoResponse(damCatalogView,
+                    measurementSeriesStore.findByDamId(damCatalogView.id(), startDate, endDate)));
+        }
+
+        return damInfoResponseList;
+    }
+
+    /**
+     * Groups the measurements by their dam and pairs every dam with its own measurements.
+     *
+     * @param damCatalogViewList        the dams, in response order
+     * @param dailyMeasurementViewList  the measurements of those dams, ordered by dam and date descending
+     * @return one DamInfoResponse per dam, with an empty list for dams without measurements
+     */
+    private List<DamInfoResponse> toDamInfoResponseList(final List<DamCatalogView> damCatalogViewList,
+                                                        final List<DailyMeasurementView> dailyMeasurementViewList) {
+        final Map<Long, List<DailyMeasurementView>> dailyMeasurementViewMap = new HashMap<>();
+
+        for (final DailyMeasurementView dailyMeasurementView : dailyMeasurementViewList) {
+            dailyMeasurementViewMap.computeIfAbsent(dailyMeasurementView.damId(), damId -> new ArrayList<>())
+                    .add(dailyMeasurementView);
+        }
+
+        final List<DamInfoResponse> damInfoResponseList = new ArrayList<>(damCatalogViewList.size());
+
+        for (final DamCatalogView damCatalogView : damCatalogViewList) {
+            damInfoResponseList.add(new DamInfoResponse(damCatalogView,
+                    dailyMeasurementViewMap.getOrDefault(damCatalogView.id(), new ArrayList<>())));
+        }
+
+        return damInfoResponseList;
     }
 }
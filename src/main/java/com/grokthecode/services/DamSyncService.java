@@ -0,0 +1,70 @@
+package com.grokthecode.services;
+
+import com.grokthecode.data.responses.DailyMeasurementSyncResponse;
+import com.grokthecode.data.responses.DamCatalogSyncResponse;
+import com.grokthecode.data.responses.DamSyncResponse;
+import com.grokthecode.models.restapi.PresasDto;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.stereotype.Service;
+
+import java.net.URISyntaxException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Syncs the dam catalog and the daily measurements of a date from a single upstream fetch.
+ * <p>
+ * The payload is persisted in one transaction through the {@link SyncPersistenceGate}: new and changed
+ * dams are upserted first, then the measurements of the date are inserted, so dams that show up for the
+ * first time get their measurements in the same run.
+ */
+@Service
+@Log4j2
+public class DamSyncService {
+
+    private final DamCatalogService damCatalogService;
+    private final DailyMeasurementService dailyMeasurementService;
+    private final SyncPersistenceGate syncPersistenceGate;
+    private final PresasFeedClient presasFeedClient;
+
+    public DamSyncService(final DamCatalogService damCatalogService,
+                          final DailyMeasurementService dailyMeasurementService,
+                          final SyncPersistenceGate syncPersistenceGate,
+                          final PresasFeedClient presasFeedClient) {
+        this.damCatalogService = damCatalogService;
+        this.dailyMeasurementService = dailyMeasurementService;
+        this.syncPersistenceGate = syncPersistenceGate;
+        this.presasFeedClient = presasFeedClient;
+    }
+
+    /**
+     * Syncs the catalog and the daily measurements of a date.
+     *
+     * @param formatedDate the formated date
+     * @return the catalog and measurement sync responses
+     * @throws URISyntaxException the uri syntax exception
+     */
+    public DamSyncResponse syncDams(final String formatedDate) throws URISyntaxException {
+        Objects.requireNonNull(formatedDate, "formatedDate cannot be null or empty.");
+
+        final LocalDate measurementDate = LocalDate.parse(formatedDate);
+        final List<PresasDto> presasDtoList = presasFeedClient.fetch(formatedDate);
+
+        final DamSyncResponse damSyncResponse = syncPersistenceGate.inTransaction(() -> {
+            // The new dams are flushed before the measurement insert looks them up by sihKey.
+            final DamCatalogSyncResponse damCatalogSyncResponse = damCatalogService.upsertDamsCatalog(presasDtoList);
+            final DailyMeasurementSyncResponse dailyMeasurementSyncResponse =
+                    dailyMeasurementService.createDamDailyMeasurements(measurementDate, presasDtoList);
+
+            return new DamSyncResponse(formatedDate, damCatalogSyncResponse, dailyMeasurementSyncResponse);
+        });
+
+        log.info("dam sync of {}: {} dams created, {} updated, {} measurements created.", formatedDate,
+                damSyncResponse.damCatalogSyncResponse().createdCount(),
+                damSyncResponse.damCatalogSyncResponse().updatedCount(),
+                damSyncResponse.dailyMeasurementSyncResponse().syncCount());
+
+        return damSyncResponse;
+    }
+}
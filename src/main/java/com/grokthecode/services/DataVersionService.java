@@ -0,0 +1,86 @@
+package com.grokthecode.services;
+
+import com.grokthecode.services.events.DamDataChangedEvent;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Versions of the served data, used as strong ETags by the read endpoints.
+ * <p>
+ * Every committed {@link DamDataChangedEvent} bumps the global version and stamps the changed dams with
+ * it, so a version only changes when the data behind it does and can be checked without a query. The
+ * versions are kept in memory and prefixed with the start time of the instance, so a restart changes
+ * every version.
+ */
+@Service
+@Log4j2
+public class DataVersionService {
+
+    private final DamCatalogCache damCatalogCache;
+    private final String epoch = Long.toString(System.currentTimeMillis(), Character.MAX_RADIX);
+    private final AtomicLong globalVersion = new AtomicLong();
+    private final Map<Long, Long> damVersionMap = new ConcurrentHashMap<>();
+
+    public DataVersionService(final DamCatalogCache damCatalogCache) {
+        this.damCatalogCache = damCatalogCache;
+    }
+
+    /**
+     * Returns the version of the whole data set.
+     *
+     * @return the global version
+     */
+    public String getGlobalVersion() {
+        return epoch + "-" + globalVersion.get();
+    }
+
+    /**
+     * Returns the version of the data of a dam.
+     *
+     * @param damId the dam id
+     * @return the dam version
+     */
+    public String getDamVersion(final Long damId) {
+        Objects.requireNonNull(damId, "damId cannot be null.");
+
+        return epoch + "-d" + damVersionMap.getOrDefault(damId, 0L);
+    }
+
+    /**
+     * Returns the version of the data of a dam, or the global version if the sihKey is not in the catalog.
+     *
+     * @param sihKey the sih key
+     * @return the dam version
+     */
+    public String getDamVersion(final String sihKey) {
+        Objects.requireNonNull(sihKey, "sihKey cannot be null.");
+
+        return damCatalogCache.findBySihKey(sihKey)
+                .map(damCatalogView -> getDamVersion(damCatalogView.id()))
+                .orElseGet(this::getGlobalVersion);
+    }
+
+    /**
+     * Bumps the versions once the transaction that changed the data commits. It runs after the other
+     * listeners, so a new version is never served with data from before the change.
+     *
+     * @param damDataChangedEvent the event
+     */
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDamDataChanged(final DamDataChangedEvent damDataChangedEvent) {
+        final long version = globalVersion.incrementAndGet();
+
+        damDataChangedEvent.damIds().forEach(damId -> damVersionMap.put(damId, version));
+
+        log.debug("data version {} for {} dams.", version, damDataChangedEvent.damIds().size());
+    }
+}
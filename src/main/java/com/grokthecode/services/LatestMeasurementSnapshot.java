@@ -0,0 +1,132 @@
+package com.grokthecode.services;
+
+import com.grokthecode.data.projections.DailyMeasurementView;
+import com.grokthecode.data.projections.DamCatalogView;
+import com.grokthecode.data.repositories.DailyMeasurementRepository;
+import com.grokthecode.data.responses.DamLatestMeasurementResponse;
+import com.grokthecode.services.events.DamDataChangedEvent;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-memory snapshot of the latest measurement of every dam.
+ * <p>
+ * The snapshot is loaded on first use with one query and kept up to date by the sync pipeline: once a
+ * write that published a {@link DamDataChangedEvent} commits, the latest measurements of the changed dams
+ * are reloaded and a new snapshot is swapped in. Reads join it with the {@link DamCatalogCache} and do no I/O.
+ */
+@Service
+@Log4j2
+public class LatestMeasurementSnapshot {
+
+    // The latest measurement first; the id breaks ties between measurements of the same date.
+    private static final Comparator<DailyMeasurementView> LATEST_FIRST = Comparator
+            .comparing(DailyMeasurementView::measurementDate)
+            .thenComparing(DailyMeasurementView::id)
+            .reversed();
+
+    private final DailyMeasurementRepository dailyMeasurementRepository;
+    private final DamCatalogCache damCatalogCache;
+    private final Object loadLock = new Object();
+
+    private volatile Map<Long, DailyMeasurementView> latestMeasurementMap;
+
+    public LatestMeasurementSnapshot(final DailyMeasurementRepository dailyMeasurementRepository,
+                                     final DamCatalogCache damCatalogCache) {
+        this.dailyMeasurementRepository = dailyMeasurementRepository;
+        this.damCatalogCache = damCatalogCache;
+    }
+
+    /**
+     * Returns the latest measurement of the dams, optionally of a state and of a CNA region.
+     *
+     * @param state     the state, or null for every state
+     * @param cnaRegion the CNA region, or null for every region
+     * @return one response per dam ordered by sihKey, with a null measurement for dams without any
+     */
+    public List<DamLatestMeasurementResponse> getLatestMeasurements(final String state, final String cnaRegion) {
+        final Map<Long, DailyMeasurementView> currentLatestMeasurementMap = getLatestMeasurementMap();
+
+        final List<DamCatalogView> damCatalogViewList = state != null ? damCatalogCache.findByState(state)
+                : cnaRegion != null ? damCatalogCache.findByCnaRegion(cnaRegion)
+                : damCatalogCache.findAll();
+
+        final List<DamLatestMeasurementResponse> damLatestMeasurementResponseList = new ArrayList<>(damCatalogViewList.size());
+
+        for (final DamCatalogView damCatalogView : damCatalogViewList) {
+            // Both filters given: the state index was used, so the region is checked here.
+            if (state != null && cnaRegion != null && !cnaRegion.strip().equalsIgnoreCase(damCatalogView.cnaRegion())) {
+                continue;
+            }
+
+            damLatestMeasurementResponseList.add(new DamLatestMeasurementResponse(damCatalogView,
+                    currentLatestMeasurementMap.get(damCatalogView.id())));
+        }
+
+        return damLatestMeasurementResponseList;
+    }
+
+    /**
+     * Reloads the latest measurements of the changed dams once their write commits.
+     *
+     * @param damDataChangedEvent the event
+     */
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDamDataChanged(final DamDataChangedEvent damDataChangedEvent) {
+        if (damDataChangedEvent.damIds().isEmpty()) {
+            return;
+        }
+
+        synchronized (loadLock) {
+            if (latestMeasurementMap == null) {
+                // Not loaded yet, the first read loads every dam.
+                return;
+            }
+
+            final Map<Long, DailyMeasurementView> updatedLatestMeasurementMap = new HashMap<>(latestMeasurementMap);
+            updatedLatestMeasurementMap.putAll(toLatestMeasurementMap(
+                    dailyMeasurementRepository.findLatestViewsByDamIds(damDataChangedEvent.damIds())));
+
+            latestMeasurementMap = Map.copyOf(updatedLatestMeasurementMap);
+        }
+
+        log.debug("latest measurements reloaded for {} dams.", damDataChangedEvent.damIds().size());
+    }
+
+    private Map<Long, DailyMeasurementView> getLatestMeasurementMap() {
+        Map<Long, DailyMeasurementView> currentLatestMeasurementMap = latestMeasurementMap;
+
+        if (currentLatestMeasurementMap == null) {
+            synchronized (loadLock) {
+                if (latestMeasurementMap == null) {
+                    latestMeasurementMap = Map.copyOf(toLatestMeasurementMap(dailyMeasurementRepository.findLatestViews()));
+                }
+                currentLatestMeasurementMap = latestMeasurementMap;
+            }
+        }
+
+        return currentLatestMeasurementMap;
+    }
+
+    private static Map<Long, DailyMeasurementView> toLatestMeasurementMap(final Collection<DailyMeasurementView> dailyMeasurementViews) {
+        final Map<Long, DailyMeasurementView> latestMeasurementMap = new HashMap<>();
+
+        for (final DailyMeasurementView dailyMeasurementView : dailyMeasurementViews) {
+            latestMeasurementMap.merge(dailyMeasurementView.damId(), dailyMeasurementView,
+                    (first, second) -> LATEST_FIRST.compare(first, second) <= 0 ? first : second);
+        }
+
+        return latestMeasurementMap;
+    }
+}
@@ -0,0 +1,262 @@
+package com.grokthecode.services;
+
+import com.grokthecode.data.responses.MeasurementAggregateResponse;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Aggregates the daily measurements by dam, state, CNA region or usage over week, month or year buckets.
+ * <p>
+ * The aggregation is a single {@code group by} query run by the database, which only returns one row per
+ * group and bucket instead of every measurement. Once the {@link MeasurementRollupService} rollups are
+ * ready, queries over whole buckets read them instead of the measurements. The SQL is assembled from the
+ * {@link GroupBy}, {@link Bucket} and {@link Metric} constants only; every user supplied value is a bind
+ * parameter.
+ */
+@Service
+@Transactional(readOnly = true)
+@Log4j2
+public class MeasurementAggregationService {
+
+    /**
+     * The columns measurements can be grouped by.
+     */
+    public enum GroupBy {
+        DAM("d.sih_key"), STATE("d.state"), CNA_REGION("d.cna_region"), USAGE("d.use");
+
+        private final String column;
+
+        GroupBy(final String column) {
+            this.column = column;
+        }
+    }
+
+    /**
+     * The time buckets, as {@code date_trunc} units.
+     */
+    public enum Bucket {
+        WEEK, MONTH, YEAR;
+
+        String unit() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+
+        /**
+         * Returns the first day of the bucket of a date; weeks start on Monday, as with {@code date_trunc}.
+         *
+         * @param date the date
+         * @return the first day of its bucket
+         */
+        public LocalDate startOf(final LocalDate date) {
+            return switch (this) {
+                case WEEK -> date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+                case MONTH -> date.withDayOfMonth(1);
+                case YEAR -> date.withDayOfYear(1);
+            };
+        }
+
+        /**
+         * Returns the last day of the bucket of a date.
+         *
+         * @param date the date
+         * @return the last day of its bucket
+         */
+        public LocalDate endOf(final LocalDate date) {
+            return switch (this) {
+                case WEEK -> startOf(date).plusWeeks(1).minusDays(1);
+                case MONTH -> date.with(TemporalAdjusters.lastDayOfMonth());
+                case YEAR -> date.with(TemporalAdjusters.lastDayOfYear());
+            };
+        }
+
+        /**
+         * Checks if a date range covers whole buckets.
+         *
+         * @param startDate the start date
+         * @param endDate   the end date
+         * @return true if the range starts on a bucket start and ends on a bucket end
+         */
+        public boolean isAligned(final LocalDate startDate, final LocalDate endDate) {
+            return startOf(startDate).equals(startDate) && endOf(endDate).equals(endDate);
+        }
+    }
+
+    /**
+     * The aggregate functions of the measured values.
+     */
+    public enum Metric {
+        AVG_FILL_PERCENTAGE("avgFillPercentage", "avg", "fill_percentage"),
+        MIN_FILL_PERCENTAGE("minFillPercentage", "min", "fill_percentage"),
+        MAX_FILL_PERCENTAGE("maxFillPercentage", "max", "fill_percentage"),
+        LAST_FILL_PERCENTAGE("lastFillPercentage", "last", "fill_percentage"),
+        AVG_CAPACITY("avgCapacity", "avg", "capacity"),
+        MIN_CAPACITY("minCapacity", "min", "capacity"),
+        MAX_CAPACITY("maxCapacity", "max", "capacity"),
+        LAST_CAPACITY("lastCapacity", "last", "capacity"),
+        AVG_ELEVATION("avgElevation", "avg", "elevation"),
+        MIN_ELEVATION("minElevation", "min", "elevation"),
+        MAX_ELEVATION("maxElevation", "max", "elevation"),
+        LAST_ELEVATION("lastElevation", "last", "elevation");
+
+        private final String key;
+        private final String expression;
+        private final String rollupExpression;
+
+        Metric(final String key, final String function, final String value) {
+            this.key = key;
+            this.expression = toExpression(function, "m.current_" + value);
+            this.rollupExpression = toRollupExpression(function, value);
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        private static String toExpression(final String function, final String column) {
+            if (function.equals("last")) {
+                // The value of the most recent measurement of the bucket.
+                return "(array_agg(" + column + " order by m.measurement_date desc, m.id desc))[1]";
+            }
+
+            return function + "(" + column + ")";
+        }
+
+        private static String toRollupExpression(final String function, final String value) {
+            return switch (function) {
+                case "avg" -> "sum(r.sum_" + value + ") / sum(r.measurement_count)";
+                case "last" -> "(array_agg(r.last_" + value + " order by r.last_measurement_date desc, r.last_measurement_id desc))[1]";
+                default -> function + "(r." + function + "_" + value + ")";
+            };
+        }
+    }
+
+    private final JdbcClient jdbcClient;
+    private final MeasurementRollupService measurementRollupService;
+
+    public MeasurementAggregationService(final JdbcClient jdbcClient,
+                                         final MeasurementRollupService measurementRollupService) {
+        this.jdbcClient = jdbcClient;
+        this.measurementRollupService = measurementRollupService;
+    }
+
+    /**
+     * Aggregates the measurements.
+     *
+     * @param groupBy    the grouping column
+     * @param bucket     the time bucket
+     * @param metricList the metrics to compute, in response order
+     * @param state      the state, or null for every state
+     * @param cnaRegion  the CNA region, or null for every region
+     * @param startDate  the start date, or null for every date
+     * @param endDate    the end date, or null for every date
+     * @return one row per group and bucket, ordered by group and bucket
+     * @throws IllegalArgumentException if no metric is given or only one of the dates is given
+     */
+    public List<MeasurementAggregateResponse> aggregate(final GroupBy groupBy, final Bucket bucket, final List<Metric> metricList,
+                                                        final String state, final String cnaRegion,
+                                                        final LocalDate startDate, final LocalDate endDate) {
+        Objects.requireNonNull(groupBy, "groupBy cannot be null.");
+        Objects.requireNonNull(bucket, "bucket cannot be null.");
+        Objects.requireNonNull(metricList, "metricList cannot be null.");
+
+        if (metricList.isEmpty()) {
+            throw new IllegalArgumentException("at least one metric must be given.");
+        }
+        if ((startDate == null) != (endDate == null)) {
+            throw new IllegalArgumentException("startDate and endDate must be given together.");
+        }
+
+        final List<Metric> distinctMetricList = metricList.stream().distinct().toList();
+
+        // Whole buckets are read from the rollups, a few rows per dam and bucket instead of every measurement.
+        final boolean fromRollups = measurementRollupService.isReady()
+                && (startDate == null || bucket.isAligned(startDate, endDate));
+
+        JdbcClient.StatementSpec statementSpec = jdbcClient.sql(fromRollups
+                ? toRollupSql(groupBy, bucket, distinctMetricList, state != null, cnaRegion != null, startDate != null)
+                : toSql(groupBy, bucket, distinctMetricList, state != null, cnaRegion != null, startDate != null));
+
+        if (state != null) {
+            statementSpec = statementSpec.param("state", state.strip());
+        }
+        if (cnaRegion != null) {
+            statementSpec = statementSpec.param("cnaRegion", cnaRegion.strip());
+        }
+        if (startDate != null) {
+            statementSpec = statementSpec.param("startDate", startDate).param("endDate", endDate);
+        }
+
+        return statementSpec.query((resultSet, rowNum) -> {
+            final Map<String, Double> metricMap = new LinkedHashMap<>();
+
+            for (int i = 0; i < distinctMetricList.size(); i++) {
+                metricMap.put(distinctMetricList.get(i).getKey(), resultSet.getObject("metric_" + i, Double.class));
+            }
+
+            return new MeasurementAggregateResponse(resultSet.getString("group_key"),
+                    resultSet.getObject("bucket_start", LocalDate.class), resultSet.getLong("measurement_count"), metricMap);
+        }).list();
+    }
+
+    static String toSql(final GroupBy groupBy, final Bucket bucket, final List<Metric> metricList,
+                        final boolean byState, final boolean byCnaRegion, final boolean byDates) {
+        final StringBuilder sql = new StringBuilder("select ")
+                .append(groupBy.column).append(" as group_key, ")
+                .append("cast(date_trunc('").append(bucket.unit()).append("', cast(m.measurement_date as timestamp)) as date) as bucket_start, ")
+                .append("count(*) as measurement_count");
+
+        for (int i = 0; i < metricList.size(); i++) {
+            sql.append(", ").append(metricList.get(i).expression).append(" as metric_").append(i);
+        }
+
+        sql.append(" from daily_measurements m join dams d on d.id = m.dam_id where true");
+        appendFilters(sql, byState, byCnaRegion);
+
+        if (byDates) {
+            sql.append(" and m.measurement_date between :startDate and :endDate");
+        }
+
+        return sql.append(" group by 1, 2 order by 1, 2").toString();
+    }
+
+    static String toRollupSql(final GroupBy groupBy, final Bucket bucket, final List<Metric> metricList,
+                              final boolean byState, final boolean byCnaRegion, final boolean byDates) {
+        final StringBuilder sql = new StringBuilder("select ")
+                .append(groupBy.column).append(" as group_key, ")
+                .append("r.bucket_start as bucket_start, ")
+                .append("sum(r.measurement_count) as measurement_count");
+
+        for (int i = 0; i < metricList.size(); i++) {
+            sql.append(", ").append(metricList.get(i).rollupExpression).append(" as metric_").append(i);
+        }
+
+        sql.append(" from measurement_rollups r join dams d on d.id = r.dam_id where r.bucket = '").append(bucket.unit()).append("'");
+        appendFilters(sql, byState, byCnaRegion);
+
+        if (byDates) {
+            sql.append(" and r.bucket_start between :startDate and :endDate");
+        }
+
+        return sql.append(" group by 1, 2 order by 1, 2").toString();
+    }
+
+    private static void appendFilters(final StringBuilder sql, final boolean byState, final boolean byCnaRegion) {
+        if (byState) {
+            sql.append(" and lower(d.state) = lower(:state)");
+        }
+        if (byCnaRegion) {
+            sql.append(" and lower(d.cna_region) = lower(:cnaRegion)");
+        }
+    }
+}
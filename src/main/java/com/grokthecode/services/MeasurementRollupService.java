@@ -0,0 +1,289 @@
+package com.grokthecode.services;
+
+import com.grokthecode.data.projections.DailyMeasurementView;
+import com.grokthecode.data.responses.RollupRebuildResponse;
+import com.grokthecode.services.events.DailyMeasurementsCreatedEvent;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Maintains the week, month and year rollups of every dam in the {@code measurement_rollups} table.
+ * <p>
+ * When new measurements are committed only the buckets they fall in are recomputed, with one
+ * {@code insert ... on conflict do update} per bucket start and bucket type, so a daily sync touches three
+ * rows per dam. The refreshes are queued by the ingest and applied by a single background thread, so a
+ * committed sync never waits on a refresh or a rebuild. {@link #rebuild()} recomputes every rollup from
+ * scratch in one transaction.
+ * <p>
+ * At startup the measurement count of every dam is compared with its year rollups, and the rollups are
+ * rebuilt when they differ, as after a refresh failed, queued refreshes were lost to a restart or a
+ * migration changed the measurements. A refresh that fails is replaced by a rebuild, retried every
+ * minute until it succeeds. Until the rollups are known to be complete, and while committed measurements
+ * are still waiting for their refresh, {@link #isReady()} returns false and aggregations read the
+ * measurements, so a new data version is never served with rollups from before the change.
+ */
+@Service
+@Log4j2
+public class MeasurementRollupService {
+
+    private static final String ROLLUP_COLUMNS = "dam_id, bucket, bucket_start, measurement_count, " +
+            "sum_fill_percentage, min_fill_percentage, max_fill_percentage, last_fill_percentage, " +
+            "sum_capacity, min_capacity, max_capacity, last_capacity, " +
+            "sum_elevation, min_elevation, max_elevation, last_elevation, " +
+            "last_measurement_date, last_measurement_id";
+
+    private static final long REBUILD_RETRY_MINUTES = 1;
+
+    private static final String LAST_ORDER = " order by m.measurement_date desc, m.id desc))[1]";
+
+    private static final String MISMATCHED_DAMS_SQL = "select count(*) from " +
+            "(select dam_id, count(*) as measurement_count from daily_measurements where dam_id is not null group by dam_id) m " +
+            "full join (select dam_id, sum(measurement_count) as measurement_count from measurement_rollups " +
+            "where bucket = '" + MeasurementAggregationService.Bucket.YEAR.unit() + "' group by dam_id) r on r.dam_id = m.dam_id " +
+            "where m.measurement_count is distinct from r.measurement_count";
+
+    private final JdbcClient jdbcClient;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final Object rebuildLock = new Object();
+    // Measurements committed but not yet applied to the rollups, drained by the refresh thread.
+    private final BlockingQueue<DailyMeasurementView> refreshQueue = new LinkedBlockingQueue<>();
+    // Measurements queued or being refreshed; the rollups are behind the measurements while it is not zero.
+    private final AtomicInteger pendingRefreshCount = new AtomicInteger();
+
+    private volatile boolean ready;
+    private volatile boolean rebuildPending;
+
+    public MeasurementRollupService(final JdbcClient jdbcClient,
+                                    final PlatformTransactionManager platformTransactionManager,
+                                    @Value("${app.rollups.enabled}") final boolean enabled) {
+        this.jdbcClient = jdbcClient;
+        // Refreshes run after the ingest transaction has committed, so they need their own.
+        this.transactionTemplate = new TransactionTemplate(platformTransactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.enabled = enabled;
+    }
+
+    /**
+     * Checks the rollups in the background once the application is ready, rebuilds them if they are stale
+     * and then applies the queued refreshes.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void initializeOnStartup() {
+        if (!enabled) {
+            return;
+        }
+
+        Thread.ofVirtual().name("measurement-rollup-refresh").start(() -> {
+            try {
+                synchronized (rebuildLock) {
+                    if (isStale()) {
+                        log.info("measurement rollups differ from the measurements, rebuilding them.");
+                        rebuild();
+                    }
+                    ready = true;
+                }
+            } catch (final RuntimeException e) {
+                rebuildPending = true;
+                log.error("measurement rollups check failed at startup, aggregations read the measurements until a rebuild.", e);
+            }
+
+            try {
+                while (!Thread.currentThread().isInterrupted()) {
+                    drainRefreshQueue();
+                }
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+    }
+
+    /**
+     * Checks if the rollups miss measurements, by comparing the measurement count of every dam with the
+     * sum of its year rollups.
+     *
+     * @return true if the rollups must be rebuilt, false otherwise.
+     */
+    boolean isStale() {
+        final Long mismatchedDamCount = jdbcClient.sql(MISMATCHED_DAMS_SQL).query(Long.class).single();
+
+        return mismatchedDamCount != null && mismatchedDamCount > 0;
+    }
+
+    /**
+     * Checks if the rollups are complete and can serve aggregations.
+     *
+     * @return true if the rollups can be read, false otherwise.
+     */
+    public boolean isReady() {
+        return ready && pendingRefreshCount.get() == 0;
+    }
+
+    /**
+     * Recomputes every rollup from the measurements.
+     *
+     * @return the number of rollups and the time it took
+     */
+    public RollupRebuildResponse rebuild() {
+        synchronized (rebuildLock) {
+            final long startTime = System.nanoTime();
+
+            final Integer rollupCount = transactionTemplate.execute(status -> {
+                jdbcClient.sql("delete from measurement_rollups").update();
+
+                int insertedCount = 0;
+
+                for (final MeasurementAggregationService.Bucket bucket : MeasurementAggregationService.Bucket.values()) {
+                    insertedCount += jdbcClient.sql(toRebuildSql(bucket)).update();
+                }
+
+                return insertedCount;
+            });
+
+            ready = enabled;
+            rebuildPending = false;
+
+            final long elapsedMillis = (System.nanoTime() - startTime) / 1_000_000;
+            log.info("measurement rollups rebuilt: {} rows in {} ms.", rollupCount, elapsedMillis);
+
+            return new RollupRebuildResponse(rollupCount == null ? 0 : rollupCount, elapsedMillis);
+        }
+    }
+
+    /**
+     * Queues the inserted measurements for a refresh of their buckets once their transaction commits.
+     *
+     * @param dailyMeasurementsCreatedEvent the event
+     */
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDailyMeasurementsCreated(final DailyMeasurementsCreatedEvent dailyMeasurementsCreatedEvent) {
+        if (!enabled) {
+            return;
+        }
+
+        // Counted before the data version moves on, so the aggregations stop reading the rollups first.
+        pendingRefreshCount.addAndGet(dailyMeasurementsCreatedEvent.dailyMeasurementViewList().size());
+        refreshQueue.addAll(dailyMeasurementsCreatedEvent.dailyMeasurementViewList());
+    }
+
+    /**
+     * Waits for queued measurements and refreshes the buckets of all of them at once, or rebuilds the
+     * rollups if an earlier refresh or rebuild failed.
+     *
+     * @throws InterruptedException if interrupted while waiting
+     */
+    void drainRefreshQueue() throws InterruptedException {
+        final DailyMeasurementView firstDailyMeasurementView = rebuildPending
+                ? refreshQueue.poll(REBUILD_RETRY_MINUTES, TimeUnit.MINUTES)
+                : refreshQueue.take();
+        final List<DailyMeasurementView> dailyMeasurementViewList = new ArrayList<>();
+
+        if (firstDailyMeasurementView != null) {
+            dailyMeasurementViewList.add(firstDailyMeasurementView);
+            refreshQueue.drainTo(dailyMeasurementViewList);
+        }
+
+        try {
+            if (rebuildPending) {
+                // A rebuild reads every committed measurement, the queued ones included.
+                rebuild();
+            } else {
+                refresh(dailyMeasurementViewList);
+            }
+        } catch (final RuntimeException e) {
+            // The measurements are committed; stop reading stale rollups until a rebuild succeeds.
+            ready = false;
+            rebuildPending = true;
+            log.error("measurement rollups refresh failed, aggregations read the measurements until a rebuild, retried in {} minute.",
+                    REBUILD_RETRY_MINUTES, e);
+        } finally {
+            pendingRefreshCount.addAndGet(-dailyMeasurementViewList.size());
+        }
+    }
+
+    /**
+     * Recomputes the week, month and year buckets of some measurements.
+     *
+     * @param dailyMeasurementViewList the measurements
+     */
+    public void refresh(final List<DailyMeasurementView> dailyMeasurementViewList) {
+        if (dailyMeasurementViewList.isEmpty()) {
+            return;
+        }
+
+        synchronized (rebuildLock) {
+            transactionTemplate.executeWithoutResult(status -> {
+                for (final MeasurementAggregationService.Bucket bucket : MeasurementAggregationService.Bucket.values()) {
+                    // A sync inserts one date for every dam, so its measurements share a single bucket start.
+                    final Map<LocalDate, Set<Long>> damIdsByBucketStart = new TreeMap<>();
+
+                    for (final DailyMeasurementView dailyMeasurementView : dailyMeasurementViewList) {
+                        damIdsByBucketStart.computeIfAbsent(bucket.startOf(dailyMeasurementView.measurementDate()), bucketStart -> new HashSet<>())
+                                .add(dailyMeasurementView.damId());
+                    }
+
+                    damIdsByBucketStart.forEach((bucketStart, damIdSet) -> jdbcClient.sql(toRefreshSql(bucket))
+                            .param("damIds", damIdSet)
+                            .param("startDate", bucketStart)
+                            .param("endDate", bucket.endOf(bucketStart))
+                            .update());
+                }
+            });
+        }
+    }
+
+    static String toRebuildSql(final MeasurementAggregationService.Bucket bucket) {
+        return "insert into measurement_rollups (" + ROLLUP_COLUMNS + ") " + toSelectSql(bucket, "");
+    }
+
+    static String toRefreshSql(final MeasurementAggregationService.Bucket bucket) {
+        return "insert into measurement_rollups (" + ROLLUP_COLUMNS + ") " +
+                toSelectSql(bucket, "where m.dam_id in (:damIds) and m.measurement_date between :startDate and :endDate ") +
+                "on conflict (dam_id, bucket, bucket_start) do update set " +
+                "measurement_count = excluded.measurement_count, " +
+                "sum_fill_percentage = excluded.sum_fill_percentage, min_fill_percentage = excluded.min_fill_percentage, " +
+                "max_fill_percentage = excluded.max_fill_percentage, last_fill_percentage = excluded.last_fill_percentage, " +
+                "sum_capacity = excluded.sum_capacity, min_capacity = excluded.min_capacity, " +
+                "max_capacity = excluded.max_capacity, last_capacity = excluded.last_capacity, " +
+                "sum_elevation = excluded.sum_elevation, min_elevation = excluded.min_elevation, " +
+                "max_elevation = excluded.max_elevation, last_elevation = excluded.last_elevation, " +
+                "last_measurement_date = excluded.last_measurement_date, last_measurement_id = excluded.last_measurement_id";
+    }
+
+    private static String toSelectSql(final MeasurementAggregationService.Bucket bucket, final String whereClause) {
+        return "select m.dam_id, '" + bucket.unit() + "', " +
+                "cast(date_trunc('" + bucket.unit() + "', cast(m.measurement_date as timestamp)) as date), count(*), " +
+                "sum(m.current_fill_percentage), min(m.current_fill_percentage), max(m.current_fill_percentage), " +
+                "(array_agg(m.current_fill_percentage" + LAST_ORDER + ", " +
+                "sum(m.current_capacity), min(m.current_capacity), max(m.current_capacity), " +
+                "(array_agg(m.current_capacity" + LAST_ORDER + ", " +
+                "sum(m.current_elevation), min(m.current_elevation), max(m.current_elevation), " +
+                "(array_agg(m.current_elevation" + LAST_ORDER + ", " +
+                "max(m.measurement_date), (array_agg(m.id" + LAST_ORDER + " " +
+                "from daily_measurements m " + whereClause +
+                "group by m.dam_id, 3 ";
+    }
+}
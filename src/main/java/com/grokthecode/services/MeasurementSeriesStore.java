@@ -0,0 +1,388 @@
+package com.grokthecode.services;
+
+import com.grokthecode.data.projections.DailyMeasurementView;
+import com.grokthecode.data.repositories.DailyMeasurementRepository;
+import com.grokthecode.services.events.DailyMeasurementsCreatedEvent;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+/**
+ * In-process columnar store of the daily measurements.
+ * <p>
+ * Every dam's series is kept as primitive arrays (id, elevation, capacity and fill percentage) indexed by
+ * the day offset from its first measurement, so a range read is an array slice and the whole history
+ * takes a few bytes per measurement instead of one entity per row. The store is loaded from a streamed
+ * query once the application is ready and measurements inserted by a sync are appended once their
+ * transaction commits. The arrays grow with room to spare, so appending a day is amortized constant time,
+ * and readers get a view of the arrays and their length published after each append: they never see a
+ * partly applied one. Only a write to a day a view already covers, such as a backfilled gap, copies the arrays
+ * of its dam. Measurements more than a year outside the loaded days are left out of the store, so one wrong
+ * date cannot allocate years of empty days.
+ * <p>
+ * Until the store is loaded, or when {@code app.series-store.enabled} is false, {@link #isLoaded()}
+ * returns false and callers read from the database.
+ */
+@Service
+@Log4j2
+public class MeasurementSeriesStore {
+
+    private static final Comparator<DailyMeasurementView> MOST_RECENT_FIRST = Comparator
+            .comparing(DailyMeasurementView::measurementDate)
+            .thenComparing(DailyMeasurementView::id)
+            .reversed();
+    private static final int MAX_DAYS_OUTSIDE_LOADED_RANGE = 366;
+
+    private final DailyMeasurementRepository dailyMeasurementRepository;
+    private final TransactionTemplate readOnlyTransactionTemplate;
+    private final boolean enabled;
+    private final Object loadLock = new Object();
+
+    // The series appended to, guarded by loadLock; readers only see the views published from them.
+    private Map<Long, DamSeries> damSeriesMap;
+    private long loadedFirstDay;
+    private long loadedLastDay;
+    private volatile Map<Long, DamSeriesView> damSeriesViewMap;
+
+    public MeasurementSeriesStore(final DailyMeasurementRepository dailyMeasurementRepository,
+                                  final PlatformTransactionManager platformTransactionManager,
+                                  @Value("${app.series-store.enabled}") final boolean enabled) {
+        this.dailyMeasurementRepository = dailyMeasurementRepository;
+        this.readOnlyTransactionTemplate = new TransactionTemplate(platformTransactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+        this.enabled = enabled;
+    }
+
+    /**
+     * Loads the store in the background once the application is ready.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        if (enabled) {
+            Thread.ofVirtual().name("measurement-series-load").start(this::load);
+        }
+    }
+
+    /**
+     * Loads every measurement into the store.
+     */
+    public void load() {
+        synchronized (loadLock) {
+            final long startTime = System.nanoTime();
+            final Map<Long, SeriesBuilder> seriesBuilderMap = new HashMap<>();
+
+            readOnlyTransactionTemplate.executeWithoutResult(status -> {
+                try (final Stream<DailyMeasurementView> dailyMeasurementViewStream = dailyMeasurementRepository.streamAllViews()) {
+                    dailyMeasurementViewStream.forEach(dailyMeasurementView -> seriesBuilderMap
+                            .computeIfAbsent(dailyMeasurementView.damId(), damId -> new SeriesBuilder())
+                            .add(dailyMeasurementView));
+                }
+            });
+
+            final Map<Long, DamSeries> loadedDamSeriesMap = new HashMap<>();
+            seriesBuilderMap.forEach((damId, seriesBuilder) -> loadedDamSeriesMap.put(damId, seriesBuilder.build()));
+
+            damSeriesMap = loadedDamSeriesMap;
+            loadedFirstDay = loadedDamSeriesMap.values().stream().mapToLong(DamSeries::firstDay).min().orElse(Long.MAX_VALUE);
+            loadedLastDay = loadedDamSeriesMap.values().stream().mapToLong(DamSeries::lastDay).max().orElse(Long.MIN_VALUE);
+            publish();
+
+            log.info("measurement series store loaded with {} dams in {} ms.", loadedDamSeriesMap.size(),
+                    (System.nanoTime() - startTime) / 1_000_000);
+        }
+    }
+
+    /**
+     * Checks if the store is loaded and can serve reads.
+     *
+     * @return true if reads can be served from the store, false otherwise.
+     */
+    public boolean isLoaded() {
+        return damSeriesViewMap != null;
+    }
+
+    /**
+     * Finds the measurements of a dam, most recent first.
+     *
+     * @param damId     the dam id
+     * @param startDate the start date, or null for no lower bound
+     * @param endDate   the end date, or null for no upper bound
+     * @return the measurements
+     * @throws IllegalStateException if the store is not loaded
+     */
+    public List<DailyMeasurementView> findByDamId(final Long damId, final LocalDate startDate, final LocalDate endDate) {
+        Objects.requireNonNull(damId, "damId cannot be null.");
+
+        final DamSeriesView damSeriesView = getDamSeriesViewMap().get(damId);
+        final List<DailyMeasurementView> dailyMeasurementViewList = new ArrayList<>();
+
+        if (damSeriesView != null) {
+            damSeriesView.collect(damId, toFirstDay(startDate), toLastDay(endDate), dailyMeasurementViewList);
+        }
+
+        return dailyMeasurementViewList;
+    }
+
+    /**
+     * Finds the measurements of every dam in a date range, most recent first.
+     *
+     * @param startDate the start date, or null for no lower bound
+     * @param endDate   the end date, or null for no upper bound
+     * @return the measurements
+     * @throws IllegalStateException if the store is not loaded
+     */
+    public List<DailyMeasurementView> findByMeasurementDateBetween(final LocalDate startDate, final LocalDate endDate) {
+        final long firstDay = toFirstDay(startDate);
+        final long lastDay = toLastDay(endDate);
+        final List<DailyMeasurementView> dailyMeasurementViewList = new ArrayList<>();
+
+        getDamSeriesViewMap().forEach((damId, damSeriesView) -> damSeriesView.collect(damId, firstDay, lastDay, dailyMeasurementViewList));
+        dailyMeasurementViewList.sort(MOST_RECENT_FIRST);
+
+        return dailyMeasurementViewList;
+    }
+
+    /**
+     * Appends the inserted measurements once their transaction commits.
+     *
+     * @param dailyMeasurementsCreatedEvent the event
+     */
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDailyMeasurementsCreated(final DailyMeasurementsCreatedEvent dailyMeasurementsCreatedEvent) {
+        synchronized (loadLock) {
+            if (damSeriesViewMap == null) {
+                // Not loaded yet, the load reads the committed measurements.
+                return;
+            }
+
+            for (final DailyMeasurementView dailyMeasurementView : dailyMeasurementsCreatedEvent.dailyMeasurementViewList()) {
+                final long day = dailyMeasurementView.measurementDate().toEpochDay();
+
+                if (loadedFirstDay <= loadedLastDay
+                        && (day < loadedFirstDay - MAX_DAYS_OUTSIDE_LOADED_RANGE || day > loadedLastDay + MAX_DAYS_OUTSIDE_LOADED_RANGE)) {
+                    log.warn("measurement {} of {} left out of the series store, too far from the loaded days.",
+                            dailyMeasurementView.id(), dailyMeasurementView.measurementDate());
+                    continue;
+                }
+
+                damSeriesMap.computeIfAbsent(dailyMeasurementView.damId(), damId -> new DamSeries(day, 16)).add(dailyMeasurementView);
+                loadedFirstDay = Math.min(loadedFirstDay, day);
+                loadedLastDay = Math.max(loadedLastDay, day);
+            }
+
+            publish();
+        }
+    }
+
+    private void publish() {
+        final Map<Long, DamSeriesView> publishedDamSeriesViewMap = new HashMap<>();
+        damSeriesMap.forEach((damId, damSeries) -> publishedDamSeriesViewMap.put(damId, damSeries.view()));
+
+        damSeriesViewMap = Map.copyOf(publishedDamSeriesViewMap);
+    }
+
+    private Map<Long, DamSeriesView> getDamSeriesViewMap() {
+        final Map<Long, DamSeriesView> currentDamSeriesViewMap = damSeriesViewMap;
+
+        if (currentDamSeriesViewMap == null) {
+            throw new IllegalStateException("measurement series store is not loaded.");
+        }
+
+        return currentDamSeriesViewMap;
+    }
+
+    private static long toFirstDay(final LocalDate startDate) {
+        return (startDate == null ? LocalDate.MIN : startDate).toEpochDay();
+    }
+
+    private static long toLastDay(final LocalDate endDate) {
+        return (endDate == null ? LocalDate.MAX : endDate).toEpochDay();
+    }
+
+    private static double valueOf(final Double value) {
+        return value == null ? Double.NaN : value;
+    }
+
+    /**
+     * The published measurements of a dam, the first {@code length} slots of its arrays from {@code firstDay};
+     * an id of 0 marks a day without measurement.
+     */
+    private record DamSeriesView(long firstDay, int length, long[] ids, double[] elevations, double[] capacities,
+                                 double[] fillPercentages) {
+
+        void collect(final Long damId, final long fromDay, final long toDay, final List<DailyMeasurementView> dailyMeasurementViewList) {
+            final int fromIndex = (int) Math.max(0, fromDay - firstDay);
+            final int toIndex = (int) Math.min(length - 1L, toDay - firstDay);
+
+            for (int index = toIndex; index >= fromIndex; index--) {
+                if (ids[index] != 0) {
+                    dailyMeasurementViewList.add(new DailyMeasurementView(ids[index], damId, LocalDate.ofEpochDay(firstDay + index),
+                            toValue(elevations[index]), toValue(capacities[index]), toValue(fillPercentages[index])));
+                }
+            }
+        }
+
+        private static Double toValue(final double value) {
+            return Double.isNaN(value) ? null : value;
+        }
+    }
+
+    /**
+     * The measurements of a dam, one slot per day from {@code firstDay}, in arrays with room to grow past
+     * {@code length}.
+     * <p>
+     * Slots below the length of the last published view are shared with readers and never written again; a
+     * write to one of them first copies the arrays.
+     */
+    private static final class DamSeries {
+
+        private long firstDay;
+        private long[] ids;
+        private double[] elevations;
+        private double[] capacities;
+        private double[] fillPercentages;
+        private int length;
+        private int publishedLength;
+
+        DamSeries(final long firstDay, final int capacity) {
+            this.firstDay = firstDay;
+            this.ids = new long[capacity];
+            this.elevations = new double[capacity];
+            this.capacities = new double[capacity];
+            this.fillPercentages = new double[capacity];
+        }
+
+        long firstDay() {
+            return firstDay;
+        }
+
+        long lastDay() {
+            return firstDay + length - 1;
+        }
+
+        void add(final DailyMeasurementView dailyMeasurementView) {
+            add(dailyMeasurementView.measurementDate().toEpochDay(), dailyMeasurementView.id(),
+                    valueOf(dailyMeasurementView.currentElevation()), valueOf(dailyMeasurementView.currentCapacity()),
+                    valueOf(dailyMeasurementView.currentFillPercentage()));
+        }
+
+        void add(final long day, final long id, final double elevation, final double capacity, final double fillPercentage) {
+            if (day < firstDay) {
+                reallocate(day, ids.length + (int) (firstDay - day));
+            }
+
+            final int index = (int) (day - firstDay);
+
+            if (index < length && ids[index] >= id) {
+                // Keep the most recent row of a day, as the database queries order ties by id.
+                return;
+            }
+            if (index < publishedLength) {
+                reallocate(firstDay, ids.length);
+            } else if (index >= ids.length) {
+                reallocate(firstDay, Math.max(index + 1, ids.length * 2));
+            }
+
+            ids[index] = id;
+            elevations[index] = elevation;
+            capacities[index] = capacity;
+            fillPercentages[index] = fillPercentage;
+            length = Math.max(length, index + 1);
+        }
+
+        DamSeriesView view() {
+            publishedLength = length;
+
+            return new DamSeriesView(firstDay, length, ids, elevations, capacities, fillPercentages);
+        }
+
+        private void reallocate(final long newFirstDay, final int capacity) {
+            final int offset = (int) (firstDay - newFirstDay);
+            final long[] newIds = new long[capacity];
+            System.arraycopy(ids, 0, newIds, offset, length);
+
+            ids = newIds;
+            elevations = copyOf(elevations, offset, capacity);
+            capacities = copyOf(capacities, offset, capacity);
+            fillPercentages = copyOf(fillPercentages, offset, capacity);
+            firstDay = newFirstDay;
+            length += offset;
+            // The new arrays are not shared with any reader yet.
+            publishedLength = 0;
+        }
+
+        private double[] copyOf(final double[] values, final int offset, final int capacity) {
+            final double[] newValues = new double[capacity];
+            System.arraycopy(values, 0, newValues, offset, length);
+
+            return newValues;
+        }
+    }
+
+    /**
+     * Collects the measurements of a dam in any order and lays them out by day.
+     */
+    private static final class SeriesBuilder {
+
+        private long[] days = new long[16];
+        private long[] ids = new long[16];
+        private double[] elevations = new double[16];
+        private double[] capacities = new double[16];
+        private double[] fillPercentages = new double[16];
+        private int size;
+
+        void add(final DailyMeasurementView dailyMeasurementView) {
+            add(dailyMeasurementView.measurementDate().toEpochDay(), dailyMeasurementView.id(),
+                    valueOf(dailyMeasurementView.currentElevation()), valueOf(dailyMeasurementView.currentCapacity()),
+                    valueOf(dailyMeasurementView.currentFillPercentage()));
+        }
+
+        void add(final long day, final long id, final double elevation, final double capacity, final double fillPercentage) {
+            if (size == days.length) {
+                final int newLength = size * 2;
+                days = Arrays.copyOf(days, newLength);
+                ids = Arrays.copyOf(ids, newLength);
+                elevations = Arrays.copyOf(elevations, newLength);
+                capacities = Arrays.copyOf(capacities, newLength);
+                fillPercentages = Arrays.copyOf(fillPercentages, newLength);
+            }
+
+            days[size] = day;
+            ids[size] = id;
+            elevations[size] = elevation;
+            capacities[size] = capacity;
+            fillPercentages[size] = fillPercentage;
+            size++;
+        }
+
+        DamSeries build() {
+            final long firstDay = Arrays.stream(days, 0, size).min().orElse(0);
+            final long lastDay = Arrays.stream(days, 0, size).max().orElse(-1);
+            final DamSeries damSeries = new DamSeries(firstDay, (int) (lastDay - firstDay + 1));
+
+            for (int i = 0; i < size; i++) {
+                damSeries.add(days[i], ids[i], elevations[i], capacities[i], fillPercentages[i]);
+            }
+
+            return damSeries;
+        }
+    }
+}
@@ -0,0 +1,264 @@
+package com.grokthecode.services;
+
+import com.grokthecode.common.utilities.EnumNames;
+import com.grokthecode.data.responses.PartitionMaintenanceResponse;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Manages the range partitions of the {@code daily_measurements} table.
+ * <p>
+ * The table is partitioned by {@code measurement_date} with one partition per {@code app.partitions.interval}.
+ * {@link #maintain()} runs at startup and on {@code app.partitions.cron}: it creates the partitions of the next
+ * {@code app.partitions.ahead} intervals before any measurement needs them, and moves the rows that landed in
+ * the default partition, such as the older years of a historical backfill, into partitions of their own.
+ * Ranges that would overlap an existing partition, as after the interval is changed, are skipped.
+ */
+@Service
+@Log4j2
+public class PartitionMaintenanceService {
+
+    static final String TABLE_NAME = "daily_measurements";
+    static final String DEFAULT_PARTITION_NAME = TABLE_NAME + "_default";
+
+    private static final Pattern RANGE_BOUND_PATTERN =
+            Pattern.compile("FOR VALUES FROM \\('(\\d{4}-\\d{2}-\\d{2})'\\) TO \\('(\\d{4}-\\d{2}-\\d{2})'\\)");
+
+    private final JdbcClient jdbcClient;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final MeasurementAggregationService.Bucket interval;
+    private final int aheadCount;
+
+    public PartitionMaintenanceService(final JdbcClient jdbcClient,
+                                       final PlatformTransactionManager platformTransactionManager,
+                                       @Value("${app.partitions.enabled}") final boolean enabled,
+                                       @Value("${app.partitions.interval}") final String interval,
+                                       @Value("${app.partitions.ahead}") final int aheadCount) {
+        this.jdbcClient = jdbcClient;
+        this.transactionTemplate = new TransactionTemplate(platformTransactionManager);
+        this.enabled = enabled;
+        this.interval = EnumNames.parse(MeasurementAggregationService.Bucket.class, interval);
+        this.aheadCount = aheadCount;
+    }
+
+    /**
+     * A partition's range of measurement dates.
+     *
+     * @param startDate the first date
+     * @param endDate   the first date after the range
+     */
+    record PartitionRange(LocalDate startDate, LocalDate endDate) {
+
+        boolean overlaps(final PartitionRange partitionRange) {
+            return startDate.isBefore(partitionRange.endDate()) && partitionRange.startDate().isBefore(endDate);
+        }
+    }
+
+    /**
+     * Maintains the partitions in the background once the application is ready.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void maintainOnStartup() {
+        if (!enabled) {
+            return;
+        }
+
+        Thread.ofVirtual().name("partition-maintenance-init").start(() -> {
+            try {
+                maintain();
+            } catch (final RuntimeException e) {
+                log.error("partition maintenance failed at startup.", e);
+            }
+        });
+    }
+
+    /**
+     * Scheduled partition maintenance, see {@code app.partitions.cron}.
+     */
+    @Scheduled(cron = "${app.partitions.cron}", zone = "${app.sync.schedule.zone}")
+    public void scheduledMaintain() {
+        if (!enabled) {
+            return;
+        }
+
+        maintain();
+    }
+
+    /**
+     * Creates the partitions of the coming intervals and of the rows held by the default partition.
+     *
+     * @return the created partitions, the number of rows moved out of the default partition and the time it took
+     */
+    public synchronized PartitionMaintenanceResponse maintain() {
+        final long startTime = System.nanoTime();
+
+        if (!isPartitioned()) {
+            log.warn("{} is not partitioned, partition maintenance skipped.", TABLE_NAME);
+            return new PartitionMaintenanceResponse(List.of(), 0, 0);
+        }
+
+        final List<PartitionRange> partitionRangeList = new ArrayList<>();
+        boolean hasDefaultPartition = false;
+
+        for (final String partitionBound : findPartitionBounds()) {
+            final Optional<PartitionRange> optionalPartitionRange = toPartitionRange(partitionBound);
+
+            if (optionalPartitionRange.isPresent()) {
+                partitionRangeList.add(optionalPartitionRange.get());
+            } else {
+                hasDefaultPartition = hasDefaultPartition || partitionBound.equals("DEFAULT");
+            }
+        }
+
+        final List<LocalDate> defaultStartDateList = hasDefaultPartition ? findDefaultPartitionStartDates() : List.of();
+        final List<String> createdPartitionList = new ArrayList<>();
+        long movedRowCount = 0;
+
+        for (final LocalDate startDate : toPlannedStartDates(interval, LocalDate.now(), aheadCount, defaultStartDateList)) {
+            final PartitionRange partitionRange = new PartitionRange(startDate, interval.endOf(startDate).plusDays(1));
+
+            if (partitionRangeList.stream().anyMatch(partitionRange::overlaps)) {
+                if (defaultStartDateList.contains(startDate)) {
+                    log.warn("rows of {} to {} stay in {}, the range overlaps an existing partition.",
+                            partitionRange.startDate(), partitionRange.endDate(), DEFAULT_PARTITION_NAME);
+                }
+                continue;
+            }
+
+            final String partitionName = toPartitionName(interval, startDate);
+            final boolean moveRows = hasDefaultPartition;
+
+            final Long partitionMovedRowCount = transactionTemplate.execute(status -> createPartition(partitionName, partitionRange, moveRows));
+
+            movedRowCount += partitionMovedRowCount == null ? 0 : partitionMovedRowCount;
+            partitionRangeList.add(partitionRange);
+            createdPartitionList.add(partitionName);
+        }
+
+        final long elapsedMillis = (System.nanoTime() - startTime) / 1_000_000;
+        log.info("partition maintenance: {} partitions created, {} rows moved out of {} in {} ms.",
+                createdPartitionList.size(), movedRowCount, DEFAULT_PARTITION_NAME, elapsedMillis);
+
+        return new PartitionMaintenanceResponse(createdPartitionList, movedRowCount, elapsedMillis);
+    }
+
+    /**
+     * Creates a partition as a plain table, moves the rows of its range out of the default partition and
+     * attaches it. The check constraint lets the attach skip scanning the new partition.
+     */
+    private long createPartition(final String partitionName, final PartitionRange partitionRange, final boolean moveRows) {
+        final String startDate = partitionRange.startDate().format(DateTimeFormatter.ISO_LOCAL_DATE);
+        final String endDate = partitionRange.endDate().format(DateTimeFormatter.ISO_LOCAL_DATE);
+
+        jdbcClient.sql("create table " + partitionName + " (like " + TABLE_NAME + " including defaults)").update();
+        jdbcClient.sql("alter table " + partitionName + " add constraint " + partitionName + "_range check " +
+                "(measurement_date >= date '" + startDate + "' and measurement_date < date '" + endDate + "')").update();
+
+        long movedRowCount = 0;
+
+        if (moveRows) {
+            movedRowCount = jdbcClient.sql("with moved as (delete from " + DEFAULT_PARTITION_NAME + " " +
+                            "where measurement_date >= :startDate and measurement_date < :endDate returning *) " +
+                            "insert into " + partitionName + " select * from moved")
+                    .param("startDate", partitionRange.startDate())
+                    .param("endDate", partitionRange.endDate())
+                    .update();
+        }
+
+        jdbcClient.sql("alter table " + TABLE_NAME + " attach partition " + partitionName +
+                " for values from ('" + startDate + "') to ('" + endDate + "')").update();
+        jdbcClient.sql("alter table " + partitionName + " drop constraint " + partitionName + "_range").update();
+
+        log.info("partition {} created for {} to {}, {} rows moved.", partitionName, startDate, endDate, movedRowCount);
+
+        return movedRowCount;
+    }
+
+    private boolean isPartitioned() {
+        return jdbcClient.sql("select count(*) from pg_partitioned_table where partrelid = to_regclass(:tableName)")
+                .param("tableName", TABLE_NAME)
+                .query(Long.class)
+                .single() > 0;
+    }
+
+    private List<String> findPartitionBounds() {
+        return jdbcClient.sql("select pg_get_expr(c.relpartbound, c.oid) from pg_inherits i " +
+                        "join pg_class c on c.oid = i.inhrelid where i.inhparent = to_regclass(:tableName)")
+                .param("tableName", TABLE_NAME)
+                .query(String.class)
+                .list();
+    }
+
+    private List<LocalDate> findDefaultPartitionStartDates() {
+        return jdbcClient.sql("select distinct cast(date_trunc('" + interval.unit() + "', cast(measurement_date as timestamp)) as date) " +
+                        "from " + DEFAULT_PARTITION_NAME)
+                .query(LocalDate.class)
+                .list();
+    }
+
+    /**
+     * Lists the start dates of the partitions to create: the current and the next {@code aheadCount} intervals,
+     * and those of the rows held by the default partition.
+     *
+     * @param interval             the partition interval
+     * @param today                the current date
+     * @param aheadCount           the number of intervals to create ahead of the current one
+     * @param defaultStartDateList the interval start dates of the rows in the default partition
+     * @return the start dates, in order
+     */
+    static SortedSet<LocalDate> toPlannedStartDates(final MeasurementAggregationService.Bucket interval, final LocalDate today,
+                                                    final int aheadCount, final Collection<LocalDate> defaultStartDateList) {
+        final SortedSet<LocalDate> startDateSet = new TreeSet<>(defaultStartDateList);
+        LocalDate startDate = interval.startOf(today);
+
+        for (int i = 0; i <= aheadCount; i++) {
+            startDateSet.add(startDate);
+            startDate = interval.endOf(startDate).plusDays(1);
+        }
+
+        return startDateSet;
+    }
+
+    /**
+     * Parses the range of a partition from its bound expression.
+     *
+     * @param partitionBound the bound, as returned by {@code pg_get_expr(relpartbound, oid)}
+     * @return the range, empty for the default partition
+     */
+    static Optional<PartitionRange> toPartitionRange(final String partitionBound) {
+        final Matcher matcher = RANGE_BOUND_PATTERN.matcher(partitionBound);
+
+        if (!matcher.matches()) {
+            return Optional.empty();
+        }
+
+        return Optional.of(new PartitionRange(LocalDate.parse(matcher.group(1)), LocalDate.parse(matcher.group(2))));
+    }
+
+    static String toPartitionName(final MeasurementAggregationService.Bucket interval, final LocalDate startDate) {
+        return switch (interval) {
+            case YEAR -> TABLE_NAME + "_y" + startDate.getYear();
+            case MONTH -> TABLE_NAME + "_m" + startDate.format(DateTimeFormatter.ofPattern("yyyy_MM"));
+            case WEEK -> TABLE_NAME + "_w" + startDate.format(DateTimeFormatter.ofPattern("yyyy_MM_dd"));
+        };
+    }
+}
@@ -0,0 +1,200 @@
+package com.grokthecode.services;
+
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Local archive of the raw upstream payloads.
+ * <p>
+ * Every payload is stored gzip compressed as {@code <directory>/<yyyy>/<yyyy-MM-dd>.<sha256>.json.gz},
+ * where the hash is taken over the raw payload; a payload identical to one already archived for the
+ * same date is not stored twice. Replays read the most recently archived payload of a date.
+ */
+@Component
+@Log4j2
+public class PayloadArchive {
+
+    private static final String FILE_SUFFIX = ".json.gz";
+    private static final int HASH_PREFIX_LENGTH = 16;
+
+    private final boolean enabled;
+    private final Path directory;
+
+    public PayloadArchive(@Value("${app.sync.archive.enabled}") final boolean enabled,
+                          @Value("${app.sync.archive.directory}") final String directory) {
+        this.enabled = enabled;
+        this.directory = Path.of(directory);
+    }
+
+    /**
+     * Checks if payloads are archived.
+     *
+     * @return true if archiving is enabled, false otherwise.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Archives a payload.
+     *
+     * @param date    the payload date
+     * @param payload the raw payload
+     * @return the archive file
+     * @throws IOException if the payload cannot be written
+     */
+    public Path archive(final LocalDate date, final byte[] payload) throws IOException {
+        Objects.requireNonNull(payload, "payload cannot be null.");
+
+        try (final Recording recording = record(date)) {
+            recording.write(payload, 0, payload.length);
+            return recording.commit();
+        }
+    }
+
+    private Recording record(final LocalDate date) throws IOException {
+        Objects.requireNonNull(date, "date cannot be null.");
+
+        final Path yearDirectory = Files.createDirectories(directory.resolve(String.valueOf(date.getYear())));
+
+        return new Recording(date, yearDirectory, Files.createTempFile(yearDirectory, date.toString(), ".tmp"));
+    }
+
+    /**
+     * Finds the most recently archived payload of a date.
+     *
+     * @param date the payload date
+     * @return the archive file, or an empty optional if the date was never archived
+     */
+    public Optional<Path> findLatest(final LocalDate date) {
+        Objects.requireNonNull(date, "date cannot be null.");
+
+        final Path yearDirectory = directory.resolve(String.valueOf(date.getYear()));
+
+        if (!Files.isDirectory(yearDirectory)) {
+            return Optional.empty();
+        }
+
+        final String prefix = date.format(DateTimeFormatter.ISO_LOCAL_DATE) + ".";
+
+        try (final Stream<Path> pathStream = Files.list(yearDirectory)) {
+            return pathStream
+                    .filter(path -> path.getFileName().toString().startsWith(prefix))
+                    .filter(path -> path.getFileName().toString().endsWith(FILE_SUFFIX))
+                    .max(Comparator.comparing(this::lastModifiedTime));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Opens an archived payload for reading.
+     *
+     * @param archiveFile the archive file
+     * @return the decompressed raw payload
+     * @throws IOException if the file cannot be read
+     */
+    public InputStream open(final Path archiveFile) throws IOException {
+        return new GZIPInputStream(new BufferedInputStream(Files.newInputStream(archiveFile)));
+    }
+
+    private FileTime lastModifiedTime(final Path path) {
+        try {
+            return Files.getLastModifiedTime(path);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * A payload being archived. The payload is compressed into a temporary file and only moved to its
+     * final name by {@link #commit()}; closing an uncommitted recording discards it.
+     */
+    private static final class Recording implements Closeable {
+
+        private final LocalDate date;
+        private final Path yearDirectory;
+        private final Path temporaryFile;
+        private final MessageDigest messageDigest;
+        private final OutputStream outputStream;
+        private boolean finished;
+
+        private Recording(final LocalDate date, final Path yearDirectory, final Path temporaryFile) throws IOException {
+            this.date = date;
+            this.yearDirectory = yearDirectory;
+            this.temporaryFile = temporaryFile;
+            this.messageDigest = sha256();
+            this.outputStream = new GZIPOutputStream(Files.newOutputStream(temporaryFile));
+        }
+
+        /**
+         * Moves the archive to its final, content addressed name.
+         *
+         * @return the archive file
+         * @throws IOException if the archive cannot be written
+         */
+        private Path commit() throws IOException {
+            outputStream.close();
+            finished = true;
+
+            final String hash = HexFormat.of().formatHex(messageDigest.digest()).substring(0, HASH_PREFIX_LENGTH);
+            final Path archiveFile = yearDirectory.resolve(date.format(DateTimeFormatter.ISO_LOCAL_DATE) + "." + hash + FILE_SUFFIX);
+
+            if (Files.exists(archiveFile)) {
+                // Same payload as an earlier archive, keep that file and mark it as the latest one of its date.
+                Files.deleteIfExists(temporaryFile);
+                Files.setLastModifiedTime(archiveFile, FileTime.fromMillis(System.currentTimeMillis()));
+            } else {
+                Files.move(temporaryFile, archiveFile, StandardCopyOption.ATOMIC_MOVE);
+            }
+            log.debug("archived payload of {} as {}", date, archiveFile);
+
+            return archiveFile;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (!finished) {
+                finished = true;
+                outputStream.close();
+                Files.deleteIfExists(temporaryFile);
+            }
+        }
+
+        private void write(final byte[] buffer, final int offset, final int length) throws IOException {
+            messageDigest.update(buffer, offset, length);
+            outputStream.write(buffer, offset, length);
+        }
+
+        private static MessageDigest sha256() {
+            try {
+                return MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.grokthecode.services;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.grokthecode.models.restapi.PresasDto;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Reads the CONAGUA presas feed for a given date.
+ * <p>
+ * The feed is read whole and parsed element by element with the Jackson streaming parser, which rejects
+ * anything but a JSON array of presas objects, so a null element or a truncated payload fails the date
+ * instead of syncing part of it.
+ * <p>
+ * Requests go through the shared {@code upstreamRestClient}, see {@link com.grokthecode.configs.UpstreamClientConfig}.
+ * Fetched payloads are also written to the {@link PayloadArchive} when archiving is enabled, and archived
+ * payloads can be fed back through {@link #parse(InputStream)}.
+ */
+@Component
+@Log4j2
+public class PresasFeedClient {
+
+    private final RestClient restClient;
+    private final ObjectMapper objectMapper;
+    private final PayloadArchive payloadArchive;
+
+    @Value("${app.datasource.url}")
+    private String appDatasourceUrl;
+
+    public PresasFeedClient(@Qualifier("upstreamRestClient") final RestClient restClient,
+                            final ObjectMapper objectMapper,
+                            final PayloadArchive payloadArchive) {
+        this.restClient = restClient;
+        this.objectMapper = objectMapper;
+        this.payloadArchive = payloadArchive;
+    }
+
+    /**
+     * Fetches the whole feed of a date into a list.
+     *
+     * @param formatedDate the date, formatted as ISO local date
+     * @return the feed
+     * @throws URISyntaxException the uri syntax exception
+     */
+    public List<PresasDto> fetch(final String formatedDate) throws URISyntaxException {
+        Objects.requireNonNull(formatedDate, "formatedDate cannot be null.");
+
+        final byte[] payload = restClient.get().uri(new URI(appDatasourceUrl + formatedDate))
+                .retrieve()
+                .body(byte[].class);
+
+        if (payload == null || payload.length == 0) {
+            return List.of();
+        }
+
+        try {
+            final List<PresasDto> presasDtoList = parse(new ByteArrayInputStream(payload));
+
+            // Only payloads that parse are archived, so replays never pick up an error page.
+            if (payloadArchive.isEnabled()) {
+                payloadArchive.archive(LocalDate.parse(formatedDate), payload);
+            }
+
+            return presasDtoList;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Parses a presas JSON array.
+     *
+     * @param inputStream the JSON array
+     * @return the presas, empty if the input is empty
+     * @throws IOException if the input is not a JSON array of presas
+     */
+    public List<PresasDto> parse(final InputStream inputStream) throws IOException {
+        final List<PresasDto> presasDtoList = new ArrayList<>();
+
+        try (final JsonParser jsonParser = objectMapper.getFactory().createParser(inputStream)
+                .disable(JsonParser.Feature.AUTO_CLOSE_SOURCE)) {
+            final JsonToken firstToken = jsonParser.nextToken();
+
+            if (firstToken == null) {
+                return presasDtoList;
+            }
+            if (firstToken != JsonToken.START_ARRAY) {
+                throw new IOException("expected a JSON array but found " + firstToken);
+            }
+
+            for (JsonToken token = jsonParser.nextToken(); token != JsonToken.END_ARRAY; token = jsonParser.nextToken()) {
+                if (token != JsonToken.START_OBJECT) {
+                    // A null, a scalar or a truncated payload is an error, not the end of the feed.
+                    throw new IOException("expected a presas object at element " + presasDtoList.size() + " but found "
+                            + (token == null ? "the end of the input" : token));
+                }
+
+                presasDtoList.add(objectMapper.readValue(jsonParser, PresasDto.class));
+            }
+        }
+
+        return presasDtoList;
+    }
+}
@@ -0,0 +1,330 @@
+package com.grokthecode.services;
+
+import com.grokthecode.data.projections.DailyMeasurementView;
+import com.grokthecode.data.projections.DailyStorageTotal;
+import com.grokthecode.data.projections.DamCatalogView;
+import com.grokthecode.data.repositories.DailyMeasurementRepository;
+import com.grokthecode.data.responses.StorageTotalsResponse;
+import com.grokthecode.services.events.DailyMeasurementsCreatedEvent;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Daily storage totals of the whole country, of every state and of every CNA region.
+ * <p>
+ * Each series is kept as per-day arrays of stored volume, NAME capacity weighted fill and reporting dams,
+ * so a series of any length is a map lookup and an array slice. The totals are loaded with one
+ * {@code group by} query, preloaded once the application is ready, and the measurements inserted by a sync
+ * are added once their transaction commits. The arrays grow with room to spare and readers get a snapshot of
+ * the arrays and their length published after each sync, so a new day is added in place and readers never
+ * see a partly applied sync; only adding to a day a snapshot already covers copies the arrays of a series.
+ * Measurements more than a year outside the loaded days are left out. A dam counts towards the state and
+ * region it has in the catalog when its measurement is added.
+ */
+@Service
+@Log4j2
+public class StorageTotalsStore {
+
+    /**
+     * The scopes totals are kept for.
+     */
+    public enum Scope {
+        NATIONAL, STATE, CNA_REGION
+    }
+
+    private static final int MAX_DAYS_OUTSIDE_LOADED_RANGE = 366;
+
+    private final DailyMeasurementRepository dailyMeasurementRepository;
+    private final DamCatalogCache damCatalogCache;
+    private final Object loadLock = new Object();
+
+    // The series added to, guarded by loadLock; readers only see the snapshots published from them.
+    private SeriesBuffer nationalBuffer;
+    private final Map<String, SeriesBuffer> stateBufferMap = new HashMap<>();
+    private final Map<String, SeriesBuffer> cnaRegionBufferMap = new HashMap<>();
+    private volatile Snapshot snapshot;
+
+    public StorageTotalsStore(final DailyMeasurementRepository dailyMeasurementRepository,
+                              final DamCatalogCache damCatalogCache) {
+        this.dailyMeasurementRepository = dailyMeasurementRepository;
+        this.damCatalogCache = damCatalogCache;
+    }
+
+    /**
+     * Loads the totals in the background once the application is ready.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        Thread.ofVirtual().name("storage-totals-load").start(this::getSnapshot);
+    }
+
+    /**
+     * Returns the daily totals of a scope.
+     *
+     * @param scope     the scope
+     * @param name      the state or CNA region, ignoring case; not used for the national totals
+     * @param startDate the start date, or null for the first day with measurements
+     * @param endDate   the end date, or null for the last day with measurements
+     * @return the totals, one slot per day
+     * @throws IllegalArgumentException if there are no totals for the state or region
+     */
+    public StorageTotalsResponse getTotals(final Scope scope, final String name, final LocalDate startDate, final LocalDate endDate) {
+        Objects.requireNonNull(scope, "scope cannot be null.");
+
+        final Snapshot currentSnapshot = getSnapshot();
+        final Series series = switch (scope) {
+            case NATIONAL -> currentSnapshot.national();
+            case STATE -> currentSnapshot.stateMap().get(normalize(Objects.requireNonNull(name, "name cannot be null.")));
+            case CNA_REGION -> currentSnapshot.cnaRegionMap().get(normalize(Objects.requireNonNull(name, "name cannot be null.")));
+        };
+
+        if (series == null) {
+            throw new IllegalArgumentException("no storage totals for " + scope.name().toLowerCase(Locale.ROOT) + ": " + name);
+        }
+
+        return series.toResponse(scope, startDate, endDate);
+    }
+
+    /**
+     * Adds the inserted measurements to the totals once their transaction commits.
+     *
+     * @param dailyMeasurementsCreatedEvent the event
+     */
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDailyMeasurementsCreated(final DailyMeasurementsCreatedEvent dailyMeasurementsCreatedEvent) {
+        synchronized (loadLock) {
+            if (snapshot == null) {
+                // Not loaded yet, the load reads the committed measurements.
+                return;
+            }
+
+            final List<DailyMeasurementView> dailyMeasurementViewList = dailyMeasurementsCreatedEvent.dailyMeasurementViewList();
+
+            if (dailyMeasurementViewList.isEmpty()) {
+                return;
+            }
+
+            final Map<Long, DamCatalogView> damCatalogViewMap = damCatalogCache.findAll().stream()
+                    .collect(Collectors.toMap(DamCatalogView::id, Function.identity()));
+
+            for (final DailyMeasurementView dailyMeasurementView : dailyMeasurementViewList) {
+                final DamCatalogView damCatalogView = damCatalogViewMap.get(dailyMeasurementView.damId());
+
+                if (damCatalogView == null || dailyMeasurementView.currentCapacity() == null) {
+                    log.debug("measurement {} left out of the storage totals.", dailyMeasurementView.id());
+                    continue;
+                }
+                if (!nationalBuffer.isNear(dailyMeasurementView.measurementDate().toEpochDay())) {
+                    log.warn("measurement {} of {} left out of the storage totals, too far from the loaded days.",
+                            dailyMeasurementView.id(), dailyMeasurementView.measurementDate());
+                    continue;
+                }
+
+                final double nameCapacity = valueOf(damCatalogView.nameCapacity());
+
+                add(new DailyStorageTotal(dailyMeasurementView.measurementDate(), damCatalogView.state(),
+                        damCatalogView.cnaRegion(), dailyMeasurementView.currentCapacity(),
+                        valueOf(dailyMeasurementView.currentFillPercentage()) * nameCapacity, nameCapacity, 1L));
+            }
+
+            publish();
+        }
+    }
+
+    private Snapshot getSnapshot() {
+        Snapshot currentSnapshot = snapshot;
+
+        if (currentSnapshot == null) {
+            synchronized (loadLock) {
+                if (snapshot == null) {
+                    final long startTime = System.nanoTime();
+                    final List<DailyStorageTotal> dailyStorageTotalList = dailyMeasurementRepository.findDailyStorageTotals();
+                    final long dayCount = dailyStorageTotalList.stream().mapToLong(total -> total.measurementDate().toEpochDay()).max().orElse(-1)
+                            - dailyStorageTotalList.stream().mapToLong(total -> total.measurementDate().toEpochDay()).min().orElse(0) + 1;
+
+                    nationalBuffer = new SeriesBuffer(null, (int) Math.max(16, dayCount));
+                    dailyStorageTotalList.forEach(this::add);
+                    publish();
+
+                    log.info("storage totals loaded for {} states and {} regions in {} ms.", snapshot.stateMap().size(),
+                            snapshot.cnaRegionMap().size(), (System.nanoTime() - startTime) / 1_000_000);
+                }
+                currentSnapshot = snapshot;
+            }
+        }
+
+        return currentSnapshot;
+    }
+
+    private void add(final DailyStorageTotal dailyStorageTotal) {
+        nationalBuffer.add(dailyStorageTotal);
+
+        if (dailyStorageTotal.state() != null) {
+            stateBufferMap.computeIfAbsent(normalize(dailyStorageTotal.state()),
+                    key -> new SeriesBuffer(dailyStorageTotal.state(), 16)).add(dailyStorageTotal);
+        }
+        if (dailyStorageTotal.cnaRegion() != null) {
+            cnaRegionBufferMap.computeIfAbsent(normalize(dailyStorageTotal.cnaRegion()),
+                    key -> new SeriesBuffer(dailyStorageTotal.cnaRegion(), 16)).add(dailyStorageTotal);
+        }
+    }
+
+    private void publish() {
+        snapshot = new Snapshot(nationalBuffer.view(), toSeriesMap(stateBufferMap), toSeriesMap(cnaRegionBufferMap));
+    }
+
+    private static Map<String, Series> toSeriesMap(final Map<String, SeriesBuffer> seriesBufferMap) {
+        final Map<String, Series> seriesMap = new HashMap<>();
+        seriesBufferMap.forEach((key, seriesBuffer) -> seriesMap.put(key, seriesBuffer.view()));
+
+        return Map.copyOf(seriesMap);
+    }
+
+    private static String normalize(final String value) {
+        return value.strip().toLowerCase(Locale.ROOT);
+    }
+
+    private static double valueOf(final Double value) {
+        return value == null ? 0 : value;
+    }
+
+    /**
+     * The national, state and CNA region series.
+     */
+    private record Snapshot(Series national, Map<String, Series> stateMap, Map<String, Series> cnaRegionMap) {
+    }
+
+    /**
+     * The published totals of a scope, the first {@code length} slots of its arrays from {@code firstDay}.
+     */
+    private record Series(String name, long firstDay, int length, double[] totalCapacities, double[] weightedFillPercentageSums,
+                          double[] nameCapacitySums, int[] damCounts) {
+
+        StorageTotalsResponse toResponse(final Scope scope, final LocalDate startDate, final LocalDate endDate) {
+            final int fromIndex = (int) Math.max(0, startDate == null ? 0 : startDate.toEpochDay() - firstDay);
+            final int toIndex = (int) Math.min(length, endDate == null ? length : endDate.toEpochDay() - firstDay + 1);
+            final int length = Math.max(0, toIndex - fromIndex);
+
+            final Double[] totalCapacityArray = new Double[length];
+            final Double[] weightedFillPercentageArray = new Double[length];
+
+            for (int i = 0; i < length; i++) {
+                final int index = fromIndex + i;
+
+                if (damCounts[index] > 0) {
+                    totalCapacityArray[i] = totalCapacities[index];
+                    weightedFillPercentageArray[i] = nameCapacitySums[index] > 0 ? weightedFillPercentageSums[index] / nameCapacitySums[index] : null;
+                }
+            }
+
+            final String scopeName = switch (scope) {
+                case NATIONAL -> "national";
+                case STATE -> "state";
+                case CNA_REGION -> "cnaRegion";
+            };
+
+            return new StorageTotalsResponse(scopeName, name, LocalDate.ofEpochDay(firstDay + fromIndex), totalCapacityArray,
+                    weightedFillPercentageArray, Arrays.copyOfRange(damCounts, fromIndex, fromIndex + length));
+        }
+    }
+
+    /**
+     * The totals of a scope, one slot per day from {@code firstDay}, in arrays with room to grow past
+     * {@code length}.
+     * <p>
+     * Slots below the length of the last published series are shared with readers and never written again; a
+     * write to one of them first copies the arrays.
+     */
+    private static final class SeriesBuffer {
+
+        private final String name;
+        private long firstDay;
+        private double[] totalCapacities;
+        private double[] weightedFillPercentageSums;
+        private double[] nameCapacitySums;
+        private int[] damCounts;
+        private int length;
+        private int publishedLength;
+
+        SeriesBuffer(final String name, final int capacity) {
+            this.name = name;
+            this.totalCapacities = new double[capacity];
+            this.weightedFillPercentageSums = new double[capacity];
+            this.nameCapacitySums = new double[capacity];
+            this.damCounts = new int[capacity];
+        }
+
+        boolean isNear(final long day) {
+            return length == 0
+                    || (day >= firstDay - MAX_DAYS_OUTSIDE_LOADED_RANGE && day < firstDay + length + MAX_DAYS_OUTSIDE_LOADED_RANGE);
+        }
+
+        void add(final DailyStorageTotal dailyStorageTotal) {
+            final long day = dailyStorageTotal.measurementDate().toEpochDay();
+
+            if (length == 0) {
+                firstDay = day;
+            } else if (day < firstDay) {
+                reallocate(day, damCounts.length + (int) (firstDay - day));
+            }
+
+            final int index = (int) (day - firstDay);
+
+            if (index < publishedLength) {
+                reallocate(firstDay, damCounts.length);
+            } else if (index >= damCounts.length) {
+                reallocate(firstDay, Math.max(index + 1, damCounts.length * 2));
+            }
+
+            totalCapacities[index] += valueOf(dailyStorageTotal.totalCapacity());
+            weightedFillPercentageSums[index] += valueOf(dailyStorageTotal.weightedFillPercentageSum());
+            nameCapacitySums[index] += valueOf(dailyStorageTotal.nameCapacitySum());
+            damCounts[index] += dailyStorageTotal.damCount().intValue();
+            length = Math.max(length, index + 1);
+        }
+
+        Series view() {
+            publishedLength = length;
+
+            return new Series(name, firstDay, length, totalCapacities, weightedFillPercentageSums, nameCapacitySums, damCounts);
+        }
+
+        private void reallocate(final long newFirstDay, final int capacity) {
+            final int offset = (int) (firstDay - newFirstDay);
+            final int[] newDamCounts = new int[capacity];
+            System.arraycopy(damCounts, 0, newDamCounts, offset, length);
+
+            damCounts = newDamCounts;
+            totalCapacities = copyOf(totalCapacities, offset, capacity);
+            weightedFillPercentageSums = copyOf(weightedFillPercentageSums, offset, capacity);
+            nameCapacitySums = copyOf(nameCapacitySums, offset, capacity);
+            firstDay = newFirstDay;
+            length += offset;
+            // The new arrays are not shared with any reader yet.
+            publishedLength = 0;
+        }
+
+        private double[] copyOf(final double[] values, final int offset, final int capacity) {
+            final double[] newValues = new double[capacity];
+            System.arraycopy(values, 0, newValues, offset, length);
+
+            return newValues;
+        }
+    }
+}
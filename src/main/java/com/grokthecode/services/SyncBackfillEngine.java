@@ -0,0 +1,174 @@
+package com.grokthecode.services;
+
+import com.grokthecode.common.utilities.AdaptiveConcurrencyLimiter;
+import com.grokthecode.common.utilities.RetryingClientHttpRequestInterceptor;
+import com.grokthecode.common.utilities.TokenBucketRateLimiter;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientException;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.BiFunction;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Runs one upstream sync task per date concurrently on virtual threads.
+ * <p>
+ * Calls to the upstream are spaced by a token bucket shared by every backfill, and the number of
+ * dates in flight adapts per run: it grows while the upstream answers quickly and is halved when it
+ * fails or slows down. Upstream failures are retried up to {@code app.sync.backfill.max-attempts} times.
+ * The engine is the only retry layer of a backfill: tasks run with the HTTP client's retries turned off,
+ * so every attempt waits for a permit and its outcome reaches the concurrency limiter.
+ */
+@Component
+@Log4j2
+public class SyncBackfillEngine {
+
+    /**
+     * A sync task for a single date.
+     *
+     * @param <T> the task result type
+     */
+    @FunctionalInterface
+    public interface DateTask<T> {
+        T apply(LocalDate date) throws Exception;
+    }
+
+    private final TokenBucketRateLimiter rateLimiter;
+    private final int minConcurrency;
+    private final int maxConcurrency;
+    private final long slowCallThresholdMillis;
+    private final int maxAttempts;
+
+    public SyncBackfillEngine(@Value("${app.sync.backfill.requests-per-second}") final double requestsPerSecond,
+                              @Value("${app.sync.backfill.burst}") final int burst,
+                              @Value("${app.sync.backfill.min-concurrency}") final int minConcurrency,
+                              @Value("${app.sync.backfill.max-concurrency}") final int maxConcurrency,
+                              @Value("${app.sync.backfill.slow-call-threshold-ms}") final long slowCallThresholdMillis,
+                              @Value("${app.sync.backfill.max-attempts}") final int maxAttempts) {
+        this.rateLimiter = new TokenBucketRateLimiter(requestsPerSecond, burst);
+        this.minConcurrency = minConcurrency;
+        this.maxConcurrency = maxConcurrency;
+        this.slowCallThresholdMillis = slowCallThresholdMillis;
+        this.maxAttempts = Math.max(1, maxAttempts);
+    }
+
+    /**
+     * Runs the task for every date and returns the results in the same order as the dates.
+     *
+     * @param dates    the dates to sync
+     * @param task     the sync task
+     * @param fallback builds the result of a date whose task failed
+     * @param <T>      the result type
+     * @return the results, one per date
+     */
+    public <T> List<T> run(final List<LocalDate> dates, final DateTask<T> task,
+                           final BiFunction<LocalDate, Exception, T> fallback) {
+        return run(dates, task, fallback, () -> false);
+    }
+
+    /**
+     * Runs the task for every date until the run is cancelled, and returns the results in the same
+     * order as the dates. Dates already in flight when the run is cancelled are completed; the others
+     * are given to the fallback with a {@link CancellationException}.
+     *
+     * @param dates     the dates to sync
+     * @param task      the sync task
+     * @param fallback  builds the result of a date whose task failed or was cancelled
+     * @param cancelled checked before every attempt, true once the run is cancelled
+     * @param <T>       the result type
+     * @return the results, one per date
+     */
+    public <T> List<T> run(final List<LocalDate> dates, final DateTask<T> task,
+                           final BiFunction<LocalDate, Exception, T> fallback, final BooleanSupplier cancelled) {
+        Objects.requireNonNull(dates, "dates cannot be null.");
+        Objects.requireNonNull(task, "task cannot be null.");
+        Objects.requireNonNull(fallback, "fallback cannot be null.");
+        Objects.requireNonNull(cancelled, "cancelled cannot be null.");
+
+        final AdaptiveConcurrencyLimiter concurrencyLimiter =
+                new AdaptiveConcurrencyLimiter(minConcurrency, maxConcurrency, minConcurrency, slowCallThresholdMillis);
+
+        try (final ExecutorService executorService = Executors.newVirtualThreadPerTaskExecutor()) {
+            final List<Future<T>> futureList = new ArrayList<>(dates.size());
+
+            for (final LocalDate date : dates) {
+                futureList.add(executorService.submit(() -> runWithRetries(date, task, fallback, cancelled, concurrencyLimiter)));
+            }
+
+            final List<T> resultList = new ArrayList<>(dates.size());
+
+            for (int i = 0; i < futureList.size(); i++) {
+                try {
+                    resultList.add(futureList.get(i).get());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    resultList.add(fallback.apply(dates.get(i), e));
+                } catch (ExecutionException e) {
+                    resultList.add(fallback.apply(dates.get(i), e));
+                }
+            }
+
+            return resultList;
+        }
+    }
+
+    private <T> T runWithRetries(final LocalDate date, final DateTask<T> task,
+                                 final BiFunction<LocalDate, Exception, T> fallback,
+                                 final BooleanSupplier cancelled,
+                                 final AdaptiveConcurrencyLimiter concurrencyLimiter) {
+        Exception lastException = null;
+
+        for (int attempt = 1; attempt <= maxAttempts; attempt++) {
+            if (cancelled.getAsBoolean()) {
+                return fallback.apply(date, new CancellationException("sync cancelled."));
+            }
+
+            try {
+                rateLimiter.acquire();
+                concurrencyLimiter.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return fallback.apply(date, e);
+            }
+
+            if (cancelled.getAsBoolean()) {
+                // Cancelled while waiting for a permit.
+                concurrencyLimiter.release(0, true);
+                return fallback.apply(date, new CancellationException("sync cancelled."));
+            }
+
+            final long startNanos = System.nanoTime();
+            boolean upstreamFailed = false;
+
+            try {
+                return RetryingClientHttpRequestInterceptor.callWithoutRetries(() -> task.apply(date));
+            } catch (RestClientException | IOException e) {
+                upstreamFailed = true;
+                lastException = e;
+                log.warn("Backfill of {} failed on attempt {}/{}: {}", date, attempt, maxAttempts, e.getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return fallback.apply(date, e);
+            } catch (Exception e) {
+                // Not an upstream failure, retrying would not help.
+                log.warn("Backfill of {} failed: {}", date, e.getMessage());
+                return fallback.apply(date, e);
+            } finally {
+                concurrencyLimiter.release(System.nanoTime() - startNanos, !upstreamFailed);
+            }
+        }
+
+        return fallback.apply(date, lastException);
+    }
+}
@@ -0,0 +1,223 @@
+package com.grokthecode.services;
+
+import com.grokthecode.data.responses.DailyMeasurementSyncResponse;
+import com.grokthecode.data.responses.DailyMeasurementSyncSummary;
+import com.grokthecode.data.responses.SyncJobResponse;
+import com.grokthecode.services.exceptions.ResourceNotFoundException;
+import com.grokthecode.services.exceptions.SyncJobLimitExceededException;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs multi-date daily measurement syncs as background jobs.
+ * <p>
+ * A job runs on its own virtual thread through the {@link SyncBackfillEngine} and keeps only a summary
+ * per date (counts and the first error messages), never the inserted entities. Jobs can be polled and
+ * cancelled by id; finished jobs are forgotten after {@code app.sync.jobs.retention-minutes}. At most
+ * {@code app.sync.jobs.max-running} jobs run at once, since they share the upstream rate limit.
+ */
+@Service
+@Log4j2
+public class SyncJobService {
+
+    private static final int MAX_ERROR_MESSAGES_PER_DATE = 5;
+
+    private final DailyMeasurementService dailyMeasurementService;
+    private final SyncBackfillEngine syncBackfillEngine;
+    private final Map<String, SyncJob> syncJobMap = new ConcurrentHashMap<>();
+
+    @Value("${app.sync.jobs.retention-minutes}")
+    private long retentionMinutes;
+    @Value("${app.sync.jobs.max-running}")
+    private int maxRunningJobs;
+
+    public SyncJobService(final DailyMeasurementService dailyMeasurementService,
+                          final SyncBackfillEngine syncBackfillEngine) {
+        this.dailyMeasurementService = dailyMeasurementService;
+        this.syncBackfillEngine = syncBackfillEngine;
+    }
+
+    /**
+     * Starts a daily measurement sync job for a date range.
+     *
+     * @param startDate the start date
+     * @param endDate   the end date
+     * @return the job, as just started
+     * @throws DateTimeParseException        the date time parse exception
+     * @throws SyncJobLimitExceededException if {@code app.sync.jobs.max-running} jobs are already running
+     */
+    public synchronized SyncJobResponse startDailyFillJob(final String startDate, final String endDate)
+            throws DateTimeParseException, SyncJobLimitExceededException {
+        Objects.requireNonNull(startDate, "startDate cannot be null or empty.");
+        Objects.requireNonNull(endDate, "endDate cannot be null or empty.");
+
+        final LocalDate parsedStartDate = LocalDate.parse(startDate);
+        final LocalDate parsedEndDate = LocalDate.parse(endDate);
+
+        if (parsedEndDate.isBefore(parsedStartDate)) {
+            throw new IllegalArgumentException("endDate cannot be before startDate.");
+        }
+
+        evictExpiredJobs();
+
+        if (syncJobMap.values().stream().filter(syncJob -> syncJob.status == SyncJobResponse.Status.RUNNING).count() >= maxRunningJobs) {
+            throw new SyncJobLimitExceededException(maxRunningJobs);
+        }
+
+        final SyncJob syncJob = new SyncJob(UUID.randomUUID().toString(), parsedStartDate, parsedEndDate);
+        syncJobMap.put(syncJob.jobId, syncJob);
+
+        Thread.ofVirtual().name("sync-job-" + syncJob.jobId).start(() -> run(syncJob));
+
+        return syncJob.toResponse();
+    }
+
+    /**
+     * Gets the progress of a job.
+     *
+     * @param jobId the job id
+     * @return the job
+     * @throws ResourceNotFoundException if there is no job with that id
+     */
+    public SyncJobResponse getJob(final String jobId) throws ResourceNotFoundException {
+        return findJob(jobId).toResponse();
+    }
+
+    /**
+     * Cancels a job. Dates already being synced are completed, the rest are skipped.
+     *
+     * @param jobId the job id
+     * @return the job
+     * @throws ResourceNotFoundException if there is no job with that id
+     */
+    public SyncJobResponse cancelJob(final String jobId) throws ResourceNotFoundException {
+        final SyncJob syncJob = findJob(jobId);
+
+        syncJob.cancelRequested = true;
+        log.info("cancel requested for sync job {}.", jobId);
+
+        return syncJob.toResponse();
+    }
+
+    private SyncJob findJob(final String jobId) throws ResourceNotFoundException {
+        Objects.requireNonNull(jobId, "jobId cannot be null.");
+
+        final SyncJob syncJob = syncJobMap.get(jobId);
+
+        if (syncJob == null) {
+            throw new ResourceNotFoundException("sync job " + jobId);
+        }
+        return syncJob;
+    }
+
+    private void run(final SyncJob syncJob) {
+        log.info("sync job {} started for {} to {}.", syncJob.jobId, syncJob.startDate, syncJob.endDate);
+
+        try {
+            syncBackfillEngine.run(syncJob.startDate.datesUntil(syncJob.endDate.plusDays(1)).toList(),
+                    localDate -> syncJob.record(dailyMeasurementService.syncDamsDailyFill(localDate.format(DateTimeFormatter.ISO_LOCAL_DATE))),
+                    (localDate, exception) -> {
+                        if (exception instanceof CancellationException) {
+                            return syncJob.skip(localDate);
+                        }
+                        return syncJob.record(new DailyMeasurementSyncResponse(localDate.format(DateTimeFormatter.ISO_LOCAL_DATE),
+                                0, List.of(), List.of("sync error: " + exception.getMessage())));
+                    },
+                    () -> syncJob.cancelRequested);
+
+            // A cancel that came after the last date started skipped nothing, so the job still completed.
+            syncJob.finish(syncJob.skippedDates.get() > 0 ? SyncJobResponse.Status.CANCELLED : SyncJobResponse.Status.COMPLETED);
+        } catch (RuntimeException e) {
+            log.error("sync job {} failed.", syncJob.jobId, e);
+            syncJob.finish(SyncJobResponse.Status.FAILED);
+        }
+
+        log.info("sync job {} {}: {} dates, {} measurements created.", syncJob.jobId, syncJob.status,
+                syncJob.completedDates.get(), syncJob.syncCount.get());
+    }
+
+    /**
+     * Forgets the jobs that finished more than {@code app.sync.jobs.retention-minutes} ago.
+     */
+    @Scheduled(fixedDelay = 1, timeUnit = TimeUnit.MINUTES)
+    public void evictExpiredJobs() {
+        final Instant expiredBefore = Instant.now().minus(Duration.ofMinutes(retentionMinutes));
+
+        syncJobMap.values().removeIf(syncJob -> syncJob.finishedAt != null && syncJob.finishedAt.isBefore(expiredBefore));
+    }
+
+    private static final class SyncJob {
+
+        private final String jobId;
+        private final LocalDate startDate;
+        private final LocalDate endDate;
+        private final int totalDates;
+        private final Instant startedAt = Instant.now();
+        private final AtomicInteger completedDates = new AtomicInteger();
+        private final AtomicInteger skippedDates = new AtomicInteger();
+        private final AtomicLong syncCount = new AtomicLong();
+        private final AtomicLong errorCount = new AtomicLong();
+        private final Map<LocalDate, DailyMeasurementSyncSummary> dateSummaryMap = new ConcurrentSkipListMap<>();
+        private volatile boolean cancelRequested;
+        private volatile SyncJobResponse.Status status = SyncJobResponse.Status.RUNNING;
+        private volatile Instant finishedAt;
+
+        private SyncJob(final String jobId, final LocalDate startDate, final LocalDate endDate) {
+            this.jobId = jobId;
+            this.startDate = startDate;
+            this.endDate = endDate;
+            this.totalDates = (int) startDate.datesUntil(endDate.plusDays(1)).count();
+        }
+
+        private DailyMeasurementSyncSummary record(final DailyMeasurementSyncResponse dailyMeasurementSyncResponse) {
+            final DailyMeasurementSyncSummary summary = DailyMeasurementSyncSummary.of(dailyMeasurementSyncResponse, MAX_ERROR_MESSAGES_PER_DATE);
+
+            dateSummaryMap.put(LocalDate.parse(summary.formatedDate()), summary);
+            syncCount.addAndGet(summary.syncCount());
+            errorCount.addAndGet(summary.errorCount());
+            completedDates.incrementAndGet();
+
+            return summary;
+        }
+
+        private DailyMeasurementSyncSummary skip(final LocalDate localDate) {
+            skippedDates.incrementAndGet();
+
+            return new DailyMeasurementSyncSummary(localDate.format(DateTimeFormatter.ISO_LOCAL_DATE), 0, 0, List.of("skipped: sync cancelled."));
+        }
+
+        private void finish(final SyncJobResponse.Status finalStatus) {
+            finishedAt = Instant.now();
+            status = finalStatus;
+        }
+
+        private SyncJobResponse toResponse() {
+            final Instant until = finishedAt == null ? Instant.now() : finishedAt;
+            final double elapsedSeconds = Math.max(0.001, Duration.between(startedAt, until).toMillis() / 1000.0);
+
+            return new SyncJobResponse(jobId, status,
+                    startDate.format(DateTimeFormatter.ISO_LOCAL_DATE), endDate.format(DateTimeFormatter.ISO_LOCAL_DATE),
+                    totalDates, completedDates.get(), skippedDates.get(), syncCount.get(), errorCount.get(),
+                    syncCount.get() / elapsedSeconds, completedDates.get() * 60 / elapsedSeconds,
+                    startedAt, finishedAt, List.copyOf(dateSummaryMap.values()));
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.grokthecode.services;
+
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Objects;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
+
+/**
+ * Runs the persist stage of a sync in its own short transaction.
+ * <p>
+ * Syncs fetch from the upstream without a transaction and only come here to write, so no pooled
+ * connection is held during the download. At most {@code app.sync.max-connections} persist stages run
+ * at the same time, which leaves the rest of the pool to the read APIs.
+ */
+@Component
+@Log4j2
+public class SyncPersistenceGate {
+
+    private final TransactionTemplate transactionTemplate;
+    private final Semaphore connectionPermits;
+
+    public SyncPersistenceGate(final PlatformTransactionManager platformTransactionManager,
+                               @Value("${app.sync.max-connections}") final int maxConnections) {
+        this.transactionTemplate = new TransactionTemplate(platformTransactionManager);
+        this.connectionPermits = new Semaphore(Math.max(1, maxConnections), true);
+    }
+
+    /**
+     * Runs the work in a new transaction once a sync connection permit is available.
+     *
+     * @param work the persist work
+     * @param <T>  the result type
+     * @return the work result
+     * @throws IllegalStateException if the calling thread is interrupted while waiting for a permit
+     */
+    public <T> T inTransaction(final Supplier<T> work) {
+        Objects.requireNonNull(work, "work cannot be null.");
+
+        try {
+            connectionPermits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while waiting for a sync connection.", e);
+        }
+
+        try {
+            return transactionTemplate.execute(status -> work.get());
+        } finally {
+            connectionPermits.release();
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.grokthecode.services.events;
+
+import com.grokthecode.data.projections.DailyMeasurementView;
+
+import java.util.List;
+
+/**
+ * Published when new daily measurements were inserted.
+ *
+ * @param dailyMeasurementViewList the inserted measurements
+ */
+public record DailyMeasurementsCreatedEvent(List<DailyMeasurementView> dailyMeasurementViewList) {
+}
@@ -0,0 +1,11 @@
+package com.grokthecode.services.events;
+
+import java.util.Set;
+
+/**
+ * Published when the catalog entries or the measurements of some dams were written.
+ *
+ * @param damIds the ids of the dams whose data changed
+ */
+public record DamDataChangedEvent(Set<Long> damIds) {
+}
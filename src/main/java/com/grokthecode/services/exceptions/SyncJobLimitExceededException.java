@@ -0,0 +1,8 @@
+package com.grokthecode.services.exceptions;
+
+public class SyncJobLimitExceededException extends Exception{
+
+    public SyncJobLimitExceededException(final int maxRunningJobs) {
+        super("Too many sync jobs running, the limit is " + maxRunningJobs + ".");
+    }
+}
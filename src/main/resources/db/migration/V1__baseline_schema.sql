@@ -0,0 +1,68 @@
+-- Schema as it was generated by spring.jpa.hibernate.ddl-auto=update. Databases created that way are
+-- baselined at this version (spring.flyway.baseline-on-migrate) and only run the later migrations.
+
+create sequence if not exists idgenerator start with 1 increment by 50;
+
+create table if not exists dams (
+    id                   bigint           not null primary key,
+    version              integer          not null,
+    soft_delete          boolean,
+    created_date         timestamp(6)     not null,
+    last_modified_date   timestamp(6)     not null,
+    sih_key              varchar(255)     not null,
+    official_name        varchar(255)     not null,
+    common_name          varchar(255)     not null,
+    state                varchar(255)     not null,
+    municipality         varchar(255)     not null,
+    cna_region           varchar(255)     not null,
+    latitude             float(53)        not null,
+    longitude            float(53)        not null,
+    use                  varchar(255),
+    currents             varchar(255)     not null,
+    verter_type          varchar(255)     not null,
+    operation_start_year varchar(255),
+    elevation_crown      varchar(255),
+    free_border          float(53)        not null,
+    nameelevation        float(53)        not null,
+    namecapacity         float(53)        not null,
+    shade_height         varchar(255)
+);
+
+create table if not exists daily_measurements (
+    id                      bigint       not null primary key,
+    version                 integer      not null,
+    soft_delete             boolean,
+    created_date            timestamp(6) not null,
+    last_modified_date      timestamp(6) not null,
+    current_elevation       float(53)    not null,
+    current_capacity        float(53)    not null,
+    current_fill_percentage float(53)    not null,
+    measurement_date        date,
+    dam_id                  bigint       constraint fk_daily_measurements_dam references dams (id)
+);
+
+create index if not exists idx_daily_measurements_dam_date on daily_measurements (dam_id, measurement_date);
+
+create table if not exists measurement_rollups (
+    dam_id                  bigint     not null,
+    bucket                  varchar(8) not null,
+    bucket_start            date       not null,
+    measurement_count       bigint     not null,
+    sum_fill_percentage     float(53)  not null,
+    min_fill_percentage     float(53)  not null,
+    max_fill_percentage     float(53)  not null,
+    last_fill_percentage    float(53)  not null,
+    sum_capacity            float(53)  not null,
+    min_capacity            float(53)  not null,
+    max_capacity            float(53)  not null,
+    last_capacity           float(53)  not null,
+    sum_elevation           float(53)  not null,
+    min_elevation           float(53)  not null,
+    max_elevation           float(53)  not null,
+    last_elevation          float(53)  not null,
+    last_measurement_date   date       not null,
+    last_measurement_id     bigint     not null,
+    primary key (bucket, bucket_start, dam_id)
+);
+
+create index if not exists idx_measurement_rollups_bucket on measurement_rollups (bucket, bucket_start);
@@ -0,0 +1,38 @@
+-- One dam per sihKey. A dam stored more than once under the same sihKey is merged into the first one:
+-- the measurements of the later copies are moved to it before the copies are removed.
+update daily_measurements m
+set dam_id = kept.id
+from dams duplicate
+join (select sih_key, min(id) as id from dams group by sih_key) kept on kept.sih_key = duplicate.sih_key
+where m.dam_id = duplicate.id
+  and duplicate.id <> kept.id;
+
+delete from dams duplicate
+using dams kept
+where duplicate.sih_key = kept.sih_key
+  and duplicate.id > kept.id;
+
+-- One measurement per dam and day, enforced by the database so concurrent syncs can insert with
+-- "on conflict do nothing" instead of checking first. The first stored row of a duplicate is kept.
+delete from daily_measurements duplicate
+using daily_measurements original
+where duplicate.dam_id = original.dam_id
+  and duplicate.measurement_date = original.measurement_date
+  and duplicate.id > original.id;
+
+alter table daily_measurements
+    add constraint uk_daily_measurements_dam_date unique (dam_id, measurement_date);
+
+-- The unique constraint's index serves the (dam_id, measurement_date) lookups.
+drop index if exists idx_daily_measurements_dam_date;
+
+-- Catalog lookups by sihKey (every sync) and by state.
+create unique index uk_dams_sih_key on dams (sih_key);
+create index idx_dams_state on dams (state);
+
+-- The rollups were built from the measurements as they were before the merges above; emptying them
+-- makes the application rebuild them at startup.
+truncate table measurement_rollups;
+
+-- Ids are handed out in blocks of 50 by both Hibernate and the bulk insert.
+alter sequence idgenerator increment by 50;
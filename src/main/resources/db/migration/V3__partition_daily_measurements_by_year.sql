@@ -0,0 +1,60 @@
+-- Range partitioning of daily_measurements by measurement_date, one partition per year, so date range
+-- queries only scan the years they cover and old years are vacuumed once and left alone. Partitions of
+-- the coming years are created ahead of time by the application (PartitionMaintenanceService); rows of a
+-- date without a partition go to the default partition until the application moves them to one.
+--
+-- A partitioned table's primary key must include the partition key, so it becomes (id, measurement_date)
+-- and measurement_date becomes not null. The table is copied, which locks it for the whole migration.
+
+create table daily_measurements_partitioned (
+    id                      bigint       not null,
+    version                 integer      not null,
+    soft_delete             boolean,
+    created_date            timestamp(6) not null,
+    last_modified_date      timestamp(6) not null,
+    current_elevation       float(53)    not null,
+    current_capacity        float(53)    not null,
+    current_fill_percentage float(53)    not null,
+    measurement_date        date         not null,
+    dam_id                  bigint,
+    constraint daily_measurements_partitioned_pkey primary key (id, measurement_date),
+    constraint uk_daily_measurements_partitioned_dam_date unique (dam_id, measurement_date),
+    constraint fk_daily_measurements_partitioned_dam foreign key (dam_id) references dams (id)
+) partition by range (measurement_date);
+
+do $$
+declare
+    first_year integer;
+    last_year  integer;
+begin
+    select coalesce(extract(year from min(measurement_date)), extract(year from current_date)),
+           greatest(coalesce(extract(year from max(measurement_date)), 0), extract(year from current_date) + 1)
+    into first_year, last_year
+    from daily_measurements;
+
+    for partition_year in first_year..last_year loop
+        execute format('create table daily_measurements_y%s partition of daily_measurements_partitioned for values from (%L) to (%L)',
+                       partition_year, make_date(partition_year, 1, 1), make_date(partition_year + 1, 1, 1));
+    end loop;
+end $$;
+
+create table daily_measurements_default partition of daily_measurements_partitioned default;
+
+-- Measurements without a date were never readable by date and cannot be partitioned.
+insert into daily_measurements_partitioned (id, version, soft_delete, created_date, last_modified_date,
+                                            current_elevation, current_capacity, current_fill_percentage,
+                                            measurement_date, dam_id)
+select id, version, soft_delete, created_date, last_modified_date,
+       current_elevation, current_capacity, current_fill_percentage,
+       measurement_date, dam_id
+from daily_measurements
+where measurement_date is not null;
+
+drop table daily_measurements;
+
+alter table daily_measurements_partitioned rename to daily_measurements;
+alter table daily_measurements rename constraint daily_measurements_partitioned_pkey to daily_measurements_pkey;
+alter table daily_measurements rename constraint uk_daily_measurements_partitioned_dam_date to uk_daily_measurements_dam_date;
+alter table daily_measurements rename constraint fk_daily_measurements_partitioned_dam to fk_daily_measurements_dam;
+
+analyze daily_measurements;
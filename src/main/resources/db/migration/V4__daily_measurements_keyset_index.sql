@@ -0,0 +1,5 @@
+-- Keyset pages of the measurements read (measurement_date, id) most recent first, starting after the last
+-- row of the previous page. This index lets each page be an index range scan of its own rows instead of a
+-- sort of every row in the date range; the (dam_id, measurement_date) unique index serves the pages of
+-- one dam. Created on the partitioned table, it is created on every partition, present and future.
+create index idx_daily_measurements_date_id on daily_measurements (measurement_date, id);
@@ -0,0 +1,21 @@
+package com.grokthecode.common.utilities;
+
+import com.grokthecode.services.MeasurementAggregationService;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+@Tag("UnitTest")
+public class EnumNamesTest {
+
+    @Test
+    public void parse_GivenCamelOrSnakeCaseName_ShouldReturnTheConstant() {
+        //when/then
+        Assertions.assertEquals(MeasurementAggregationService.GroupBy.CNA_REGION,
+                EnumNames.parse(MeasurementAggregationService.GroupBy.class, "cnaRegion"));
+        Assertions.assertEquals(MeasurementAggregationService.Metric.MAX_ELEVATION,
+                EnumNames.parse(MeasurementAggregationService.Metric.class, "max_elevation"));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> EnumNames.parse(MeasurementAggregationService.Bucket.class, "decade"));
+    }
+}
@@ -0,0 +1,48 @@
+package com.grokthecode.common.utilities;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Tag("UnitTest")
+public class KeysetPageTokenTest {
+
+    static final KeysetPageToken.Key[] KEYS = {
+            new KeysetPageToken.Key("measurementDate", LocalDate::parse),
+            new KeysetPageToken.Key("id", Long::valueOf)
+    };
+
+    @Test
+    public void encode_GivenKeyValues_ShouldDecodeToTheSameValues() {
+        //when
+        final String pageToken = KeysetPageToken.encode(LocalDate.of(2024, 1, 1), 9L);
+
+        //then
+        Assertions.assertEquals(List.of(LocalDate.of(2024, 1, 1), 9L), KeysetPageToken.decode(pageToken, KEYS));
+    }
+
+    @Test
+    public void decode_GivenNoToken_ShouldStartAtTheFirstPage() {
+        //when/then
+        Assertions.assertNull(KeysetPageToken.decode(null, KEYS));
+        Assertions.assertNull(KeysetPageToken.decode(" ", KEYS));
+    }
+
+    @Test
+    public void decode_GivenInvalidToken_ShouldThrowIllegalArgumentException() {
+        //when/then
+        Assertions.assertThrows(IllegalArgumentException.class, () -> KeysetPageToken.decode("not a token", KEYS));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> KeysetPageToken.decode(KeysetPageToken.encode("2024-01-01"), KEYS));
+    }
+
+    @Test
+    public void pageSize_GivenSizeAboveLimit_ShouldClampToMaxSize() {
+        //when/then
+        Assertions.assertEquals(1000, KeysetPageToken.pageSize(5000, 100, 1000));
+        Assertions.assertEquals(100, KeysetPageToken.pageSize(null, 100, 1000));
+        Assertions.assertEquals(1, KeysetPageToken.pageSize(0, 100, 1000));
+    }
+}
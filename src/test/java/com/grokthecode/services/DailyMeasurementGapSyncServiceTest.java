@@ -0,0 +1,95 @@
+package com.grokthecode.services;
+
+import com.grokthecode.data.projections.DailyMeasurementKey;
+import com.grokthecode.data.repositories.DailyMeasurementRepository;
+import com.grokthecode.data.responses.DailyMeasurementGapResponse;
+import com.grokthecode.data.responses.DailyMeasurementSyncResponse;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Tag("UnitTest")
+public class DailyMeasurementGapSyncServiceTest {
+
+    DamCatalogCache damCatalogCache;
+    DailyMeasurementRepository dailyMeasurementRepository;
+    DailyMeasurementService dailyMeasurementService;
+    DailyMeasurementGapSyncService dailyMeasurementGapSyncService;
+
+    @BeforeEach
+    public void setUp() {
+        damCatalogCache = Mockito.mock(DamCatalogCache.class);
+        dailyMeasurementRepository = Mockito.mock(DailyMeasurementRepository.class);
+        dailyMeasurementService = Mockito.mock(DailyMeasurementService.class);
+
+        dailyMeasurementGapSyncService = new DailyMeasurementGapSyncService(dailyMeasurementRepository, damCatalogCache,
+                dailyMeasurementService, new SyncBackfillEngine(1000, 1000, 1, 4, 1000, 3),
+                "00:00", "06:00", "America/Mexico_City");
+        ReflectionTestUtils.setField(dailyMeasurementGapSyncService, "lookbackDays", 1);
+    }
+
+    @Test
+    public void findGaps_GivenMissingAndIncompleteDates_ShouldReturnTheMissingDamsMostRecentFirst() {
+        //given
+        final LocalDate startDate = LocalDate.of(2024, 1, 1);
+        final LocalDate endDate = LocalDate.of(2024, 1, 4);
+
+        Mockito.when(damCatalogCache.findAll()).thenReturn(List.of(DailyMeasurementServiceTest.damCatalogView(1L),
+                DailyMeasurementServiceTest.damCatalogView(2L)));
+        Mockito.when(dailyMeasurementRepository.findKeysByMeasurementDateBetween(startDate, endDate)).thenReturn(List.of(
+                new DailyMeasurementKey(1L, LocalDate.of(2024, 1, 1)),
+                new DailyMeasurementKey(2L, LocalDate.of(2024, 1, 1)),
+                new DailyMeasurementKey(1L, LocalDate.of(2024, 1, 2)),
+                new DailyMeasurementKey(1L, LocalDate.of(2024, 1, 4)),
+                new DailyMeasurementKey(2L, LocalDate.of(2024, 1, 4))));
+
+        //when
+        final List<DailyMeasurementGapResponse> gapList = dailyMeasurementGapSyncService.findGaps(startDate, endDate);
+
+        //then
+        Assertions.assertEquals(List.of(
+                new DailyMeasurementGapResponse("2024-01-03", 0L, 2L, List.of("key1", "key2"), false),
+                new DailyMeasurementGapResponse("2024-01-02", 1L, 2L, List.of("key2"), false)), gapList);
+    }
+
+    @Test
+    public void findGaps_GivenAnEmptyCatalog_ShouldReturnNoGaps() {
+        //given
+        final LocalDate startDate = LocalDate.of(2024, 1, 1);
+        final LocalDate endDate = LocalDate.of(2024, 1, 4);
+
+        Mockito.when(damCatalogCache.findAll()).thenReturn(List.of());
+
+        //when
+        final List<DailyMeasurementGapResponse> gapList = dailyMeasurementGapSyncService.findGaps(startDate, endDate);
+
+        //then
+        Assertions.assertTrue(gapList.isEmpty());
+        Mockito.verifyNoInteractions(dailyMeasurementRepository);
+    }
+
+    @Test
+    public void syncGaps_GivenADateTheUpstreamCannotFill_ShouldNotFetchItAgain() throws Exception {
+        //given
+        Mockito.when(damCatalogCache.findAll()).thenReturn(List.of(DailyMeasurementServiceTest.damCatalogView(1L)));
+        Mockito.when(dailyMeasurementRepository.findKeysByMeasurementDateBetween(Mockito.any(), Mockito.any())).thenReturn(List.of());
+        Mockito.when(dailyMeasurementService.syncDamsDailyFill(Mockito.anyString()))
+                .thenAnswer(invocationOnMock -> new DailyMeasurementSyncResponse(invocationOnMock.getArgument(0), 0, List.of(), List.of()));
+
+        //when
+        final List<DailyMeasurementSyncResponse> firstResponseList = dailyMeasurementGapSyncService.syncGaps(false);
+        final List<DailyMeasurementSyncResponse> secondResponseList = dailyMeasurementGapSyncService.syncGaps(false);
+
+        //then
+        Assertions.assertEquals(1, firstResponseList.size());
+        Assertions.assertTrue(secondResponseList.isEmpty());
+        Assertions.assertTrue(dailyMeasurementGapSyncService.findGaps().getFirst().upstreamExhausted());
+        Mockito.verify(dailyMeasurementService, Mockito.times(1)).syncDamsDailyFill(Mockito.anyString());
+    }
+}
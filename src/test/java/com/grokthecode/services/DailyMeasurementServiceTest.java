@@ -0,0 +1,115 @@
+package com.grokthecode.services;
+
+import com.grokthecode.data.entities.DailyMeasurementEntity;
+import com.grokthecode.data.entities.DamCatalogEntity;
+import com.grokthecode.data.projections.DamCatalogView;
+import com.grokthecode.data.repositories.DailyMeasurementRepository;
+import com.grokthecode.data.repositories.DamCatalogRepository;
+import com.grokthecode.data.responses.DailyMeasurementSyncResponse;
+import com.grokthecode.models.restapi.PresasDto;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+@Tag("UnitTest")
+public class DailyMeasurementServiceTest {
+
+    DailyMeasurementRepository dailyMeasurementRepository;
+    DamCatalogRepository damCatalogRepository;
+    DamCatalogCache damCatalogCache;
+    DailyMeasurementWriter dailyMeasurementWriter;
+    DailyMeasurementService dailyMeasurementService;
+
+    @BeforeEach
+    public void setUp() {
+        dailyMeasurementRepository = Mockito.mock(DailyMeasurementRepository.class);
+        damCatalogRepository = Mockito.mock(DamCatalogRepository.class);
+        damCatalogCache = Mockito.mock(DamCatalogCache.class);
+        dailyMeasurementWriter = Mockito.mock(DailyMeasurementWriter.class);
+
+        dailyMeasurementService = new DailyMeasurementService(dailyMeasurementRepository, damCatalogRepository,
+                Mockito.mock(SyncBackfillEngine.class), Mockito.mock(SyncPersistenceGate.class), Mockito.mock(PresasFeedClient.class),
+                Mockito.mock(PayloadArchive.class), damCatalogCache, Mockito.mock(ApplicationEventPublisher.class),
+                Mockito.mock(MeasurementSeriesStore.class), dailyMeasurementWriter);
+
+        Mockito.when(damCatalogRepository.getReferenceById(Mockito.anyLong()))
+                .thenAnswer(invocationOnMock -> damCatalogEntity(invocationOnMock.getArgument(0), null));
+        Mockito.when(dailyMeasurementWriter.insertIgnoringDuplicates(Mockito.anyList()))
+                .thenAnswer(invocationOnMock -> {
+                    final List<DailyMeasurementEntity> dailyMeasurementEntityList = invocationOnMock.getArgument(0);
+                    dailyMeasurementEntityList.forEach(dailyMeasurementEntity -> dailyMeasurementEntity.setId(100L + dailyMeasurementEntity.getDamCatalogEntity().getId()));
+                    return dailyMeasurementEntityList;
+                });
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void createDamDailyMeasurements_GivenPayloadOfCachedDams_ShouldWriteOneBatchWithoutPerRowLookups() {
+        //given
+        for (long damId = 1; damId <= 3; damId++) {
+            Mockito.when(damCatalogCache.findBySihKey("key" + damId)).thenReturn(Optional.of(damCatalogView(damId)));
+        }
+
+        //when
+        final DailyMeasurementSyncResponse dailyMeasurementSyncResponse = dailyMeasurementService.createDamDailyMeasurements(
+                LocalDate.of(2024, 1, 1), List.of(presasDto("key1"), presasDto("key2"), presasDto("key3"), presasDto("key3")));
+
+        //then
+        final ArgumentCaptor<List<DailyMeasurementEntity>> argumentCaptor = ArgumentCaptor.forClass(List.class);
+        Mockito.verify(dailyMeasurementWriter, Mockito.times(1)).insertIgnoringDuplicates(argumentCaptor.capture());
+        Assertions.assertEquals(3, argumentCaptor.getValue().size());
+        Assertions.assertEquals(3, dailyMeasurementSyncResponse.syncCount());
+        Assertions.assertEquals(1, dailyMeasurementSyncResponse.syncErrorMessageList().size());
+        Mockito.verifyNoInteractions(dailyMeasurementRepository);
+        Mockito.verify(damCatalogRepository, Mockito.never()).findBySihKeyIn(Mockito.anyCollection());
+        Mockito.verify(damCatalogRepository, Mockito.never()).findBySihKey(Mockito.anyString());
+    }
+
+    @Test
+    public void createDamDailyMeasurements_GivenUncachedDams_ShouldLoadThemWithOneQuery() {
+        //given
+        Mockito.when(damCatalogCache.findBySihKey(Mockito.anyString())).thenReturn(Optional.empty());
+        Mockito.when(damCatalogRepository.findBySihKeyIn(Mockito.anyCollection()))
+                .thenReturn(List.of(damCatalogEntity(1L, "key1"), damCatalogEntity(2L, "key2")));
+
+        //when
+        final DailyMeasurementSyncResponse dailyMeasurementSyncResponse = dailyMeasurementService.createDamDailyMeasurements(
+                LocalDate.of(2024, 1, 1), List.of(presasDto("key1"), presasDto("key2")));
+
+        //then
+        Assertions.assertEquals(2, dailyMeasurementSyncResponse.syncCount());
+        Mockito.verify(damCatalogRepository, Mockito.times(1)).findBySihKeyIn(Mockito.anyCollection());
+        Mockito.verify(dailyMeasurementWriter, Mockito.times(1)).insertIgnoringDuplicates(Mockito.anyList());
+    }
+
+    static PresasDto presasDto(final String sihKey) {
+        final PresasDto presasDto = new PresasDto();
+        presasDto.setClavesih(sihKey);
+        presasDto.setElevacionactual(1.0);
+        presasDto.setAlmacenaactual(1.0);
+        presasDto.setLlenano(1.0);
+
+        return presasDto;
+    }
+
+    static DamCatalogEntity damCatalogEntity(final Long damId, final String sihKey) {
+        final DamCatalogEntity damCatalogEntity = new DamCatalogEntity();
+        damCatalogEntity.setId(damId);
+        damCatalogEntity.setSihKey(sihKey);
+
+        return damCatalogEntity;
+    }
+
+    static DamCatalogView damCatalogView(final Long damId) {
+        return new DamCatalogView(damId, "key" + damId, null, null, "Aguascalientes", null, null, null, null, null, null,
+                null, null, null, null, null, null, null);
+    }
+}
@@ -0,0 +1,80 @@
+package com.grokthecode.services;
+
+import com.grokthecode.data.entities.DailyMeasurementEntity;
+import com.grokthecode.data.entities.DamCatalogEntity;
+import com.grokthecode.data.repositories.DailyMeasurementRepository;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Tag("UnitTest")
+public class DailyMeasurementWriterTest {
+
+    JdbcTemplate jdbcTemplate;
+    DailyMeasurementWriter dailyMeasurementWriter;
+
+    @BeforeEach
+    public void setUp() {
+        jdbcTemplate = Mockito.mock(JdbcTemplate.class);
+        dailyMeasurementWriter = new DailyMeasurementWriter(jdbcTemplate, Mockito.mock(DailyMeasurementRepository.class));
+    }
+
+    @Test
+    public void allocateIds_GivenTwoBlocks_ShouldUseTheBlocksEndingAtTheSequenceValues() {
+        //given
+        Mockito.when(jdbcTemplate.queryForList(Mockito.anyString(), Mockito.eq(Long.class), Mockito.eq(2)))
+                .thenReturn(List.of(100L, 150L));
+
+        //when
+        final List<Long> idList = dailyMeasurementWriter.allocateIds(60);
+
+        //then
+        Assertions.assertEquals(60, idList.size());
+        Assertions.assertEquals(51L, idList.getFirst());
+        Assertions.assertEquals(110L, idList.getLast());
+    }
+
+    @Test
+    public void allocateIds_GivenFirstSequenceValue_ShouldFetchAnotherBlock() {
+        //given
+        Mockito.when(jdbcTemplate.queryForList(Mockito.anyString(), Mockito.eq(Long.class), Mockito.eq(1)))
+                .thenReturn(List.of(1L), List.of(51L));
+
+        //when
+        final List<Long> idList = dailyMeasurementWriter.allocateIds(3);
+
+        //then
+        Assertions.assertEquals(List.of(1L, 2L, 3L), idList);
+    }
+
+    @Test
+    public void insertIgnoringDuplicates_GivenNoMeasurements_ShouldNotQuery() {
+        //when
+        final int insertedCount = dailyMeasurementWriter.insertIgnoringDuplicates(List.of()).size();
+
+        //then
+        Assertions.assertEquals(0, insertedCount);
+        Mockito.verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    public void toCopyRow_GivenMeasurement_ShouldFormatATabSeparatedLine() {
+        //given
+        final DamCatalogEntity damCatalogEntity = new DamCatalogEntity();
+        damCatalogEntity.setId(7L);
+        final DailyMeasurementEntity dailyMeasurementEntity = new DailyMeasurementEntity(1520.5, null, 83.25,
+                LocalDate.of(2024, 2, 29), damCatalogEntity);
+
+        //when
+        final String copyRow = DailyMeasurementWriter.toCopyRow(51L, dailyMeasurementEntity);
+
+        //then
+        Assertions.assertEquals("51\t1520.5\t\\N\t83.25\t2024-02-29\t7\n", copyRow);
+    }
+}
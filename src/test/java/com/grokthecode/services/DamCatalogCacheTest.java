@@ -0,0 +1,82 @@
+package com.grokthecode.services;
+
+import com.grokthecode.data.projections.DamCatalogView;
+import com.grokthecode.data.repositories.DamCatalogRepository;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.List;
+
+@Tag("UnitTest")
+public class DamCatalogCacheTest {
+
+    DamCatalogRepository damCatalogRepository;
+    DamCatalogCache damCatalogCache;
+
+    @BeforeEach
+    public void setUp() {
+        damCatalogRepository = Mockito.mock(DamCatalogRepository.class);
+        damCatalogCache = new DamCatalogCache(damCatalogRepository);
+
+        Mockito.when(damCatalogRepository.findAllViews()).thenReturn(List.of(
+                damCatalogView(3L, "CCC", "Sonora", "Noroeste"),
+                damCatalogView(1L, "AAA", "Jalisco", "Lerma Santiago Pacifico"),
+                damCatalogView(2L, "BBB", "Jalisco", "Lerma Santiago Pacifico")));
+    }
+
+    static DamCatalogView damCatalogView(final Long damId, final String sihKey, final String state, final String cnaRegion) {
+
+        return new DamCatalogView(damId, sihKey, null, null, state, null, cnaRegion, null, null, null, null,
+                null, null, null, null, null, null, null);
+    }
+
+    @Test
+    public void findBySihKey_GivenSeveralLookups_ShouldLoadTheCatalogOnce() {
+        //when
+        final Long firstDamId = damCatalogCache.findBySihKey("AAA").orElseThrow().id();
+        final Long thirdDamId = damCatalogCache.findBySihKey("CCC").orElseThrow().id();
+
+        //then
+        Assertions.assertEquals(1L, firstDamId);
+        Assertions.assertEquals(3L, thirdDamId);
+        Assertions.assertTrue(damCatalogCache.findBySihKey("ZZZ").isEmpty());
+        Mockito.verify(damCatalogRepository, Mockito.times(1)).findAllViews();
+    }
+
+    @Test
+    public void findByState_GivenStateInAnotherCase_ShouldReturnItsDamsOrderedBySihKey() {
+        //when
+        final List<DamCatalogView> damCatalogViewList = damCatalogCache.findByState(" jalisco ");
+
+        //then
+        Assertions.assertEquals(List.of("AAA", "BBB"), damCatalogViewList.stream().map(DamCatalogView::sihKey).toList());
+        Assertions.assertEquals(1, damCatalogCache.findByCnaRegion("NOROESTE").size());
+        Assertions.assertTrue(damCatalogCache.findByState("Yucatan").isEmpty());
+    }
+
+    @Test
+    public void findPage_GivenAfterSihKey_ShouldReturnTheFollowingDams() {
+        //when/then
+        Assertions.assertEquals(List.of("AAA", "BBB"), damCatalogCache.findPage(null, null, 2).stream().map(DamCatalogView::sihKey).toList());
+        Assertions.assertEquals(List.of("CCC"), damCatalogCache.findPage(null, "BBB", 2).stream().map(DamCatalogView::sihKey).toList());
+        Assertions.assertEquals(List.of("BBB"), damCatalogCache.findPage("Jalisco", "AAA", 2).stream().map(DamCatalogView::sihKey).toList());
+    }
+
+    @Test
+    public void refresh_GivenChangedCatalog_ShouldSwapTheSnapshot() {
+        //given
+        Assertions.assertEquals(3, damCatalogCache.size());
+        Mockito.when(damCatalogRepository.findAllViews()).thenReturn(List.of(damCatalogView(4L, "DDD", "Sonora", "Noroeste")));
+
+        //when
+        damCatalogCache.refreshAfterCommit();
+
+        //then
+        Assertions.assertEquals(1, damCatalogCache.size());
+        Assertions.assertTrue(damCatalogCache.findBySihKey("AAA").isEmpty());
+        Assertions.assertEquals(4L, damCatalogCache.findByState("Sonora").getFirst().id());
+    }
+}
@@ -21,6 +21,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
 import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
@@ -34,6 +35,15 @@ public class DamCatalogServiceTest {
     @MockBean
     DamCatalogRepository damCatalogRepository;
 
+    @MockBean
+    DamCatalogCache damCatalogCache;
+
+    @MockBean
+    SyncPersistenceGate syncPersistenceGate;
+
+    @MockBean
+    PresasFeedClient presasFeedClient;
+
     @Autowired
     DamCatalogService damCatalogService;
 
@@ -152,6 +162,57 @@ public class DamCatalogServiceTest {
        Assertions.assertThrows(IllegalArgumentException.class, () ->
                damCatalogService.updateDamCatalog(updatedDamCatalogEntity));
    }
+
+   @Test
+   @SuppressWarnings("unchecked")
+   public void syncDamsCatalog_GivenOnlySomeDamsChanged_ShouldOnlyWriteTheChangedDams() throws Exception {
+       // Given
+       final PresasDto unchangedPresasDto = new PresasDto();
+       unchangedPresasDto.setClavesih("unchangedKey");
+       unchangedPresasDto.setNombreoficial("unchangedOfficialName");
+
+       final PresasDto changedPresasDto = new PresasDto();
+       changedPresasDto.setClavesih("changedKey");
+       changedPresasDto.setNombreoficial("newOfficialName");
+
+       final PresasDto newPresasDto = new PresasDto();
+       newPresasDto.setClavesih("newKey");
+       newPresasDto.setNombreoficial("newDamOfficialName");
+
+       final DamCatalogEntity unchangedDamCatalogEntity = new DamCatalogEntity();
+       unchangedDamCatalogEntity.setId(1L);
+       unchangedDamCatalogEntity.setSihKey("unchangedKey");
+       unchangedDamCatalogEntity.setOfficialName("unchangedOfficialName");
+
+       final DamCatalogEntity changedDamCatalogEntity = new DamCatalogEntity();
+       changedDamCatalogEntity.setId(2L);
+       changedDamCatalogEntity.setSihKey("changedKey");
+       changedDamCatalogEntity.setOfficialName("oldOfficialName");
+
+       // When
+       Mockito.when(syncPersistenceGate.inTransaction(Mockito.any()))
+               .thenAnswer(invocationOnMock -> invocationOnMock.<Supplier<?>>getArgument(0).get());
+       Mockito.when(presasFeedClient.fetch(Mockito.anyString()))
+               .thenReturn(List.of(unchangedPresasDto, changedPresasDto, newPresasDto));
+       Mockito.when(damCatalogRepository.findBySihKeyIn(Mockito.anyCollection()))
+               .thenReturn(List.of(unchangedDamCatalogEntity, changedDamCatalogEntity));
+       Mockito.when(damCatalogRepository.saveAll(Mockito.anyIterable()))
+               .thenAnswer(invocationOnMock -> {
+                   final List<DamCatalogEntity> savedList = new ArrayList<>();
+                   invocationOnMock.<Iterable<DamCatalogEntity>>getArgument(0).forEach(savedList::add);
+                   return savedList;
+               });
+
+       final DamCatalogSyncResponse damCatalogSyncResponse = damCatalogService.syncDamsCatalog();
+
+       // Then
+       Assertions.assertEquals(1, damCatalogSyncResponse.createdCount());
+       Assertions.assertEquals(1, damCatalogSyncResponse.updatedCount());
+       Assertions.assertEquals(1, damCatalogSyncResponse.unchangedCount());
+       Assertions.assertEquals("newOfficialName", changedDamCatalogEntity.getOfficialName());
+       Mockito.verify(damCatalogRepository, Mockito.never()).findBySihKey(Mockito.anyString());
+   }
+
    @Test
    @Disabled
    public void testSyncDamsCatalog_WhenNewDamDataExists() throws JsonProcessingException, SyncDamCatalogException {
@@ -179,7 +240,7 @@ public class DamCatalogServiceTest {
        // Then
        Assertions.assertEquals(initialDamList.size() + 2, finalDamList.size());
        Assertions.assertEquals(0, damCatalogSyncResponse.syncErrorMessageList().size());
-       Assertions.assertNotEquals(damCatalogSyncResponse.dailyMeasurementList(), initialDamList);
+       Assertions.assertNotEquals(damCatalogSyncResponse.damCatalogList(), initialDamList);
    }
    @Test
    @Disabled
@@ -206,6 +267,6 @@ public class DamCatalogServiceTest {
        // Then
        Assertions.assertEquals(initialDamList.size(), finalDamList.size());
        Assertions.assertEquals(0, damCatalogSyncResponse.syncErrorMessageList().size());
-       Assertions.assertNotEquals(damCatalogSyncResponse.dailyMeasurementList(), initialDamList);
+       Assertions.assertNotEquals(damCatalogSyncResponse.damCatalogList(), initialDamList);
    }
 }
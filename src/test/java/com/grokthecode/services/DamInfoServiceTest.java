@@ -1,7 +1,7 @@
 package com.grokthecode.services;
 
-import com.grokthecode.data.entities.DailyMeasurementEntity;
-import com.grokthecode.data.entities.DamCatalogEntity;
+import com.grokthecode.data.projections.DailyMeasurementView;
+import com.grokthecode.data.projections.DamCatalogView;
 import com.grokthecode.data.repositories.DailyMeasurementRepository;
 import com.grokthecode.data.repositories.DamCatalogRepository;
 import com.grokthecode.data.responses.DamInfoResponse;
@@ -14,7 +14,6 @@ import org.mockito.Mockito;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Optional;
 
 @Tag("UnitTest")
 public class DamInfoServiceTest {
@@ -22,54 +21,138 @@ public class DamInfoServiceTest {
     static DamCatalogRepository damCatalogRepository;
     static DailyMeasurementRepository dailyMeasurementRepository;
     static DamInfoService damInfoService;
-    static DamCatalogEntity damCatalogEntity;
-    static List<DamCatalogEntity> damCatalogEntityList;
-    List<DailyMeasurementEntity> dailyMeasurementEntityList;
+    static DamCatalogView damCatalogView;
+    static List<DamCatalogView> damCatalogViewList;
+    List<DailyMeasurementView> dailyMeasurementViewList;
 
     @BeforeAll
     public static void setUp() {
         damCatalogRepository = Mockito.mock(DamCatalogRepository.class);
         dailyMeasurementRepository = Mockito.mock(DailyMeasurementRepository.class);
 
-        damInfoService = new DamInfoService(damCatalogRepository, dailyMeasurementRepository);
-        damCatalogEntity = new DamCatalogEntity();
-        damCatalogEntityList = new ArrayList<>();
-        damCatalogEntityList.add(damCatalogEntity);
+        damInfoService = new DamInfoService(new DamCatalogCache(damCatalogRepository), dailyMeasurementRepository, Mockito.mock(MeasurementSeriesStore.class));
+        damCatalogView = damCatalogView(1L);
+        damCatalogViewList = new ArrayList<>();
+        damCatalogViewList.add(damCatalogView);
 
-        Mockito.when(damCatalogRepository.findAll()).thenReturn(damCatalogEntityList);
+        Mockito.when(damCatalogRepository.findAllViews()).thenReturn(damCatalogViewList);
+    }
+
+    static DamCatalogView damCatalogView(final Long damId) {
+
+        return new DamCatalogView(damId, "key" + damId, null, null, "Aguascalientes", null, null, null, null, null, null,
+                null, null, null, null, null, null, null);
+    }
+
+    static DailyMeasurementView dailyMeasurementView(final Long damId, final LocalDate measurementDate) {
+
+        return new DailyMeasurementView(null, damId, measurementDate, 1.0, 1.0, 1.0);
     }
 
     @Test
     public void getDamsInfo_GivenServiceCall_ShouldReturnDamInfoList() {
         //given
-        final List<DailyMeasurementEntity> dailyMeasurementEntityList = new ArrayList<>();
+        final List<DailyMeasurementView> dailyMeasurementViewList = new ArrayList<>();
 
         //when
-        Mockito.when(dailyMeasurementRepository.findByDamCatalogEntityOrderByMeasurementDateDesc(damCatalogEntity)).thenReturn(dailyMeasurementEntityList);
+        Mockito.when(dailyMeasurementRepository.findViewsOrderByDamIdAndMeasurementDateDesc()).thenReturn(dailyMeasurementViewList);
         final List<DamInfoResponse> responses = damInfoService.getDamsInfo();
 
         //then
-        verifyDamInfoResponse(responses, dailyMeasurementEntityList);
+        verifyDamInfoResponse(responses, dailyMeasurementViewList);
     }
 
     @Test
     public void getDamsInfoByDates_GivenValidDates_ShouldReturnDamInfoList() {
         //given
-        final List<DailyMeasurementEntity> dailyMeasurementEntities = new ArrayList<>();
+        final List<DailyMeasurementView> dailyMeasurementViews = new ArrayList<>();
         final LocalDate startDate = LocalDate.of(2023, 1, 1);
         final LocalDate endDate = LocalDate.of(2023, 12, 31);
 
         //when
-        Mockito.when(dailyMeasurementRepository.findByMeasurementDateBetweenOrderByMeasurementDateDesc(Mockito.any(LocalDate.class), Mockito.any(LocalDate.class))).thenReturn(dailyMeasurementEntities);
+        Mockito.when(dailyMeasurementRepository.findViewsByMeasurementDateBetweenOrderByDamIdAndMeasurementDateDesc(Mockito.any(LocalDate.class), Mockito.any(LocalDate.class))).thenReturn(dailyMeasurementViews);
         final List<DamInfoResponse> responses = damInfoService.getDamsInfoByDates(startDate, endDate);
 
         //then
-        verifyDamInfoResponse(responses, dailyMeasurementEntities);
+        verifyDamInfoResponse(responses, dailyMeasurementViews);
+    }
+
+    @Test
+    public void getDamsInfoByDates_GivenSeveralDams_ShouldAttachMeasurementsOnlyToTheirDam() {
+        //given
+        final DamCatalogRepository rangeDamCatalogRepository = Mockito.mock(DamCatalogRepository.class);
+        final DailyMeasurementRepository rangeDailyMeasurementRepository = Mockito.mock(DailyMeasurementRepository.class);
+        final DamInfoService rangeDamInfoService = new DamInfoService(new DamCatalogCache(rangeDamCatalogRepository), rangeDailyMeasurementRepository, Mockito.mock(MeasurementSeriesStore.class));
+        final LocalDate startDate = LocalDate.of(2023, 1, 1);
+        final LocalDate endDate = LocalDate.of(2023, 1, 2);
+
+        final DamCatalogView firstDam = damCatalogView(1L);
+        final DamCatalogView secondDam = damCatalogView(2L);
+        final DamCatalogView damWithoutMeasurements = damCatalogView(3L);
+
+        final DailyMeasurementView firstDamMeasurement = dailyMeasurementView(1L, endDate);
+        final DailyMeasurementView secondDamNewerMeasurement = dailyMeasurementView(2L, endDate);
+        final DailyMeasurementView secondDamOlderMeasurement = dailyMeasurementView(2L, startDate);
+
+        Mockito.when(rangeDamCatalogRepository.findAllViews()).thenReturn(List.of(firstDam, secondDam, damWithoutMeasurements));
+        Mockito.when(rangeDailyMeasurementRepository.findViewsByMeasurementDateBetweenOrderByDamIdAndMeasurementDateDesc(startDate, endDate))
+                .thenReturn(List.of(firstDamMeasurement, secondDamNewerMeasurement, secondDamOlderMeasurement));
+
+        //when
+        final List<DamInfoResponse> responses = rangeDamInfoService.getDamsInfoByDates(startDate, endDate);
+
+        //then
+        Assertions.assertEquals(3, responses.size());
+        Assertions.assertEquals(List.of(firstDamMeasurement), responses.get(0).dailyMeasurementList());
+        Assertions.assertEquals(List.of(secondDamNewerMeasurement, secondDamOlderMeasurement), responses.get(1).dailyMeasurementList());
+        Assertions.assertTrue(responses.get(2).dailyMeasurementList().isEmpty());
+        Mockito.verify(rangeDailyMeasurementRepository, Mockito.times(1))
+                .findViewsByMeasurementDateBetweenOrderByDamIdAndMeasurementDateDesc(startDate, endDate);
+    }
+
+    // Counts repository calls only; the SQL statements Hibernate runs are not observed by this test.
+    @Test
+    public void getDamsInfo_GivenAnyNumberOfDams_ShouldCallEachRepositoryOnce() {
+        for (final int damCount : List.of(1, 50)) {
+            //given
+            final DamCatalogRepository countingDamCatalogRepository = Mockito.mock(DamCatalogRepository.class);
+            final DailyMeasurementRepository countingDailyMeasurementRepository = Mockito.mock(DailyMeasurementRepository.class);
+            final DamInfoService countingDamInfoService = new DamInfoService(new DamCatalogCache(countingDamCatalogRepository), countingDailyMeasurementRepository, Mockito.mock(MeasurementSeriesStore.class));
+
+            final List<DamCatalogView> dams = new ArrayList<>();
+            final List<DailyMeasurementView> measurements = new ArrayList<>();
+
+            for (long damId = 1; damId <= damCount; damId++) {
+                dams.add(damCatalogView(damId));
+
+                for (int day = 3; day >= 1; day--) {
+                    measurements.add(dailyMeasurementView(damId, LocalDate.of(2023, 1, day)));
+                }
+            }
+
+            Mockito.when(countingDamCatalogRepository.findAllViews()).thenReturn(dams);
+            Mockito.when(countingDailyMeasurementRepository.findViewsOrderByDamIdAndMeasurementDateDesc()).thenReturn(measurements);
+
+            //when
+            final List<DamInfoResponse> responses = countingDamInfoService.getDamsInfo();
+
+            //then
+            Mockito.verify(countingDamCatalogRepository, Mockito.times(1)).findAllViews();
+            Mockito.verify(countingDailyMeasurementRepository, Mockito.times(1)).findViewsOrderByDamIdAndMeasurementDateDesc();
+            Mockito.verifyNoMoreInteractions(countingDamCatalogRepository, countingDailyMeasurementRepository);
+
+            Assertions.assertEquals(damCount, responses.size());
+            for (final DamInfoResponse response : responses) {
+                Assertions.assertEquals(3, response.dailyMeasurementList().size());
+                Assertions.assertTrue(response.dailyMeasurementList().stream()
+                        .allMatch(measurement -> measurement.damId().equals(response.dam().id())));
+            }
+        }
     }
 
     // Extracted method to verify
     private void verifyDamInfoResponse(final List<DamInfoResponse> damInfoResponses,
-                                       final List<DailyMeasurementEntity> expectedMeasurements) {
+                                       final List<DailyMeasurementView> expectedMeasurements) {
         final DamInfoResponse damInfoResponse = damInfoResponses.getFirst();
 
         Assertions.assertEquals(1, damInfoResponses.size());
@@ -77,24 +160,23 @@ public class DamInfoServiceTest {
     }
 
     private void verifyDamInfoResponse(final DamInfoResponse damInfoResponse,
-                                       final List<DailyMeasurementEntity> expectedMeasurements) {
+                                       final List<DailyMeasurementView> expectedMeasurements) {
 
-        Assertions.assertEquals(damCatalogEntity, damInfoResponse.dam());
+        Assertions.assertEquals(damCatalogView, damInfoResponse.dam());
         Assertions.assertEquals(expectedMeasurements, damInfoResponse.dailyMeasurementList());
     }
     @Test
     public void getDamsInfoByState_GivenState_ShouldReturnDamInfoList() {
         //given
         final String state = "Aguascalientes";
-        final List<DailyMeasurementEntity> dailyMeasurementEntityList = new ArrayList<>();
+        final List<DailyMeasurementView> dailyMeasurementViewList = new ArrayList<>();
 
         //when
-        Mockito.when(damCatalogRepository.findByState(state)).thenReturn(damCatalogEntityList);
-        Mockito.when(dailyMeasurementRepository.findByDamCatalogEntityOrderByMeasurementDateDesc(damCatalogEntity)).thenReturn(dailyMeasurementEntityList);
+        Mockito.when(dailyMeasurementRepository.findViewsByDamIdsOrderByDamIdAndMeasurementDateDesc(List.of(damCatalogView.id()))).thenReturn(dailyMeasurementViewList);
 
         //then
         final List<DamInfoResponse> responses = damInfoService.getDamsInfoByState(state);
-        verifyDamInfoResponse(responses, dailyMeasurementEntityList);
+        verifyDamInfoResponse(responses, dailyMeasurementViewList);
     }
 
     @Test
@@ -103,7 +185,6 @@ public class DamInfoServiceTest {
         final String state = "InvalidState";
 
         //when
-        Mockito.when(damCatalogRepository.findByState(state)).thenReturn(new ArrayList<>());
         final List<DamInfoResponse> responses = damInfoService.getDamsInfoByState(state);
 
         //then
@@ -119,15 +200,14 @@ public class DamInfoServiceTest {
     @Test
     public void getDamsInfoBySihKey_GivenSihKey_ShouldReturnDamInfoResponse() {
         //given
-        final String sihKey = "12345";
+        final String sihKey = damCatalogView.sihKey();
 
         //when
-        Mockito.when(damCatalogRepository.findBySihKey(sihKey)).thenReturn(Optional.of(damCatalogEntity));
-        Mockito.when(dailyMeasurementRepository.findByDamCatalogEntityOrderByMeasurementDateDesc(damCatalogEntity)).thenReturn(dailyMeasurementEntityList);
+        Mockito.when(dailyMeasurementRepository.findViewsByDamId(damCatalogView.id())).thenReturn(dailyMeasurementViewList);
         final DamInfoResponse response = damInfoService.getDamsInfoBySihKey(sihKey);
 
         //then
-        verifyDamInfoResponse(response, dailyMeasurementEntityList);
+        verifyDamInfoResponse(response, dailyMeasurementViewList);
     }
 
     @Test
@@ -135,9 +215,6 @@ public class DamInfoServiceTest {
         //given
         final String sihKey = "nonExistingKey";
 
-        //when
-        Mockito.when(damCatalogRepository.findBySihKey(sihKey)).thenReturn(Optional.empty());
-
         //then
         Assertions.assertThrows(IllegalArgumentException.class, () -> damInfoService.getDamsInfoBySihKey(sihKey));
     }
@@ -147,9 +224,6 @@ public class DamInfoServiceTest {
         //given
         final String sihKey = "InvalidSihKey";
 
-        //when
-        Mockito.when(damCatalogRepository.findBySihKey(sihKey)).thenReturn(Optional.empty());
-
         //then
         Assertions.assertThrows(IllegalArgumentException.class, () -> damInfoService.getDamsInfoBySihKey(sihKey));
     }
@@ -163,17 +237,16 @@ public class DamInfoServiceTest {
     @Test
     public void getDamsInfoBySihKey_GivenSihKeyAndValidDates_ShouldReturnDamInfoResponse() {
         //given
-        final String sihKey = "12345";
+        final String sihKey = damCatalogView.sihKey();
         final LocalDate startDate = LocalDate.of(2023, 1, 1);
         final LocalDate endDate = LocalDate.of(2023, 12, 31);
 
         //when
-        Mockito.when(damCatalogRepository.findBySihKey(sihKey)).thenReturn(Optional.of(damCatalogEntity));
-        Mockito.when(dailyMeasurementRepository.findByDamCatalogEntityAndMeasurementDateBetweenOrderByMeasurementDateDesc(damCatalogEntity, startDate, endDate)).thenReturn(dailyMeasurementEntityList);
+        Mockito.when(dailyMeasurementRepository.findViewsByDamIdAndMeasurementDateBetween(damCatalogView.id(), startDate, endDate)).thenReturn(dailyMeasurementViewList);
         final DamInfoResponse response = damInfoService.getDamsInfoBySihKey(sihKey, startDate, endDate);
 
         //then
-        verifyDamInfoResponse(response, dailyMeasurementEntityList);
+        verifyDamInfoResponse(response, dailyMeasurementViewList);
     }
 
     @Test
@@ -183,9 +256,6 @@ public class DamInfoServiceTest {
        final LocalDate startDate = LocalDate.of(2023, 1, 1);
        final LocalDate endDate = LocalDate.of(2023, 12, 31);
 
-       //when
-       Mockito.when(damCatalogRepository.findBySihKey(sihKey)).thenReturn(Optional.empty());
-
        //then
        Assertions.assertThrows(IllegalArgumentException.class, () -> damInfoService.getDamsInfoBySihKey(sihKey, startDate, endDate));
    }
@@ -197,9 +267,6 @@ public class DamInfoServiceTest {
         final LocalDate startDate = LocalDate.of(2023, 1, 1);
         final LocalDate endDate = LocalDate.of(2023, 12, 31);
 
-        //when
-        Mockito.when(damCatalogRepository.findBySihKey(sihKey)).thenReturn(Optional.empty());
-
         //then
         Assertions.assertThrows(IllegalArgumentException.class, () -> damInfoService.getDamsInfoBySihKey(sihKey, startDate, endDate));
     }
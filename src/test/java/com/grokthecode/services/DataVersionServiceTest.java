@@ -0,0 +1,30 @@
+package com.grokthecode.services;
+
+import com.grokthecode.services.events.DamDataChangedEvent;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.Set;
+
+@Tag("UnitTest")
+public class DataVersionServiceTest {
+
+    @Test
+    public void onDamDataChanged_GivenChangedDams_ShouldBumpOnlyTheirVersions() {
+        //given
+        final DataVersionService dataVersionService = new DataVersionService(Mockito.mock(DamCatalogCache.class));
+        final String globalVersion = dataVersionService.getGlobalVersion();
+        final String firstDamVersion = dataVersionService.getDamVersion(1L);
+        final String secondDamVersion = dataVersionService.getDamVersion(2L);
+
+        //when
+        dataVersionService.onDamDataChanged(new DamDataChangedEvent(Set.of(1L)));
+
+        //then
+        Assertions.assertNotEquals(globalVersion, dataVersionService.getGlobalVersion());
+        Assertions.assertNotEquals(firstDamVersion, dataVersionService.getDamVersion(1L));
+        Assertions.assertEquals(secondDamVersion, dataVersionService.getDamVersion(2L));
+    }
+}
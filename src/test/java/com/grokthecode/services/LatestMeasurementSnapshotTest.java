@@ -0,0 +1,66 @@
+package com.grokthecode.services;
+
+import com.grokthecode.data.projections.DailyMeasurementView;
+import com.grokthecode.data.projections.DamCatalogView;
+import com.grokthecode.data.repositories.DailyMeasurementRepository;
+import com.grokthecode.data.repositories.DamCatalogRepository;
+import com.grokthecode.data.responses.DamLatestMeasurementResponse;
+import com.grokthecode.services.events.DamDataChangedEvent;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+
+@Tag("UnitTest")
+public class LatestMeasurementSnapshotTest {
+
+    DailyMeasurementRepository dailyMeasurementRepository;
+    LatestMeasurementSnapshot latestMeasurementSnapshot;
+
+    @BeforeEach
+    public void setUp() {
+        final DamCatalogRepository damCatalogRepository = Mockito.mock(DamCatalogRepository.class);
+        dailyMeasurementRepository = Mockito.mock(DailyMeasurementRepository.class);
+        latestMeasurementSnapshot = new LatestMeasurementSnapshot(dailyMeasurementRepository, new DamCatalogCache(damCatalogRepository));
+
+        Mockito.when(damCatalogRepository.findAllViews()).thenReturn(List.of(
+                DamCatalogCacheTest.damCatalogView(1L, "AAA", "Jalisco", "Lerma Santiago Pacifico"),
+                DamCatalogCacheTest.damCatalogView(2L, "BBB", "Sonora", "Noroeste")));
+        Mockito.when(dailyMeasurementRepository.findLatestViews()).thenReturn(List.of(
+                new DailyMeasurementView(10L, 1L, LocalDate.of(2024, 1, 2), 1.0, 1.0, 1.0)));
+    }
+
+    @Test
+    public void getLatestMeasurements_GivenStateFilter_ShouldReturnOnlyItsDams() {
+        //when
+        final List<DamLatestMeasurementResponse> responses = latestMeasurementSnapshot.getLatestMeasurements("jalisco", null);
+
+        //then
+        Assertions.assertEquals(1, responses.size());
+        Assertions.assertEquals(10L, responses.getFirst().latestMeasurement().id());
+        Assertions.assertEquals(2, latestMeasurementSnapshot.getLatestMeasurements(null, null).size());
+        Assertions.assertNull(latestMeasurementSnapshot.getLatestMeasurements(null, "noroeste").getFirst().latestMeasurement());
+    }
+
+    @Test
+    public void onDamDataChanged_GivenNewMeasurement_ShouldReloadOnlyTheChangedDams() {
+        //given
+        latestMeasurementSnapshot.getLatestMeasurements(null, null);
+        Mockito.when(dailyMeasurementRepository.findLatestViewsByDamIds(Set.of(2L))).thenReturn(List.of(
+                new DailyMeasurementView(11L, 2L, LocalDate.of(2024, 1, 3), 1.0, 1.0, 1.0)));
+
+        //when
+        latestMeasurementSnapshot.onDamDataChanged(new DamDataChangedEvent(Set.of(2L)));
+        final List<DamLatestMeasurementResponse> responses = latestMeasurementSnapshot.getLatestMeasurements(null, null);
+
+        //then
+        Assertions.assertEquals(10L, responses.get(0).latestMeasurement().id());
+        Assertions.assertEquals(11L, responses.get(1).latestMeasurement().id());
+        Mockito.verify(dailyMeasurementRepository, Mockito.times(1)).findLatestViews();
+    }
+}
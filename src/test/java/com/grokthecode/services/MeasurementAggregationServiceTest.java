@@ -0,0 +1,71 @@
+package com.grokthecode.services;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.jdbc.core.simple.JdbcClient;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Tag("UnitTest")
+public class MeasurementAggregationServiceTest {
+
+    @Test
+    public void toSql_GivenStateAndMonthlyMetrics_ShouldGroupByStateAndMonth() {
+        //when
+        final String sql = MeasurementAggregationService.toSql(MeasurementAggregationService.GroupBy.STATE,
+                MeasurementAggregationService.Bucket.MONTH,
+                List.of(MeasurementAggregationService.Metric.AVG_FILL_PERCENTAGE, MeasurementAggregationService.Metric.LAST_CAPACITY),
+                false, true, true);
+
+        //then
+        Assertions.assertTrue(sql.startsWith("select d.state as group_key, cast(date_trunc('month', "));
+        Assertions.assertTrue(sql.contains("avg(m.current_fill_percentage) as metric_0"));
+        Assertions.assertTrue(sql.contains("(array_agg(m.current_capacity order by m.measurement_date desc, m.id desc))[1] as metric_1"));
+        Assertions.assertTrue(sql.contains("lower(d.cna_region) = lower(:cnaRegion)"));
+        Assertions.assertTrue(sql.contains("m.measurement_date between :startDate and :endDate"));
+        Assertions.assertFalse(sql.contains(":state"));
+        Assertions.assertTrue(sql.endsWith("group by 1, 2 order by 1, 2"));
+    }
+
+    @Test
+    public void toRollupSql_GivenMonthlyMetrics_ShouldCombineTheRollupsOfTheGroup() {
+        //when
+        final String sql = MeasurementAggregationService.toRollupSql(MeasurementAggregationService.GroupBy.CNA_REGION,
+                MeasurementAggregationService.Bucket.MONTH,
+                List.of(MeasurementAggregationService.Metric.AVG_CAPACITY, MeasurementAggregationService.Metric.MIN_ELEVATION),
+                false, false, true);
+
+        //then
+        Assertions.assertTrue(sql.contains("from measurement_rollups r join dams d on d.id = r.dam_id where r.bucket = 'month'"));
+        Assertions.assertTrue(sql.contains("sum(r.sum_capacity) / sum(r.measurement_count) as metric_0"));
+        Assertions.assertTrue(sql.contains("min(r.min_elevation) as metric_1"));
+        Assertions.assertTrue(sql.contains("r.bucket_start between :startDate and :endDate"));
+    }
+
+    @Test
+    public void isAligned_GivenWholeAndPartialBuckets_ShouldOnlyAcceptWholeBuckets() {
+        //when/then
+        Assertions.assertTrue(MeasurementAggregationService.Bucket.MONTH.isAligned(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 2, 29)));
+        Assertions.assertFalse(MeasurementAggregationService.Bucket.MONTH.isAligned(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 2, 28)));
+        Assertions.assertTrue(MeasurementAggregationService.Bucket.WEEK.isAligned(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 7)));
+        Assertions.assertEquals(LocalDate.of(2024, 12, 31), MeasurementAggregationService.Bucket.YEAR.endOf(LocalDate.of(2024, 6, 15)));
+    }
+
+    @Test
+    public void aggregate_GivenOnlyStartDate_ShouldThrowIllegalArgumentException() {
+        //given
+        final MeasurementAggregationService measurementAggregationService = new MeasurementAggregationService(Mockito.mock(JdbcClient.class),
+                Mockito.mock(MeasurementRollupService.class));
+
+        //when/then
+        Assertions.assertThrows(IllegalArgumentException.class, () -> measurementAggregationService.aggregate(
+                MeasurementAggregationService.GroupBy.DAM, MeasurementAggregationService.Bucket.YEAR,
+                List.of(MeasurementAggregationService.Metric.MIN_FILL_PERCENTAGE), null, null, LocalDate.of(2024, 1, 1), null));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> measurementAggregationService.aggregate(
+                MeasurementAggregationService.GroupBy.DAM, MeasurementAggregationService.Bucket.YEAR,
+                List.of(), null, null, null, null));
+    }
+}
@@ -0,0 +1,132 @@
+package com.grokthecode.services;
+
+import com.grokthecode.data.projections.DailyMeasurementView;
+import com.grokthecode.services.events.DailyMeasurementsCreatedEvent;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Tag("UnitTest")
+public class MeasurementRollupServiceTest {
+
+    JdbcClient jdbcClient;
+    MeasurementRollupService measurementRollupService;
+
+    @BeforeEach
+    public void setUp() {
+        jdbcClient = Mockito.mock(JdbcClient.class, Mockito.RETURNS_DEEP_STUBS);
+        measurementRollupService = new MeasurementRollupService(jdbcClient, Mockito.mock(PlatformTransactionManager.class), true);
+    }
+
+    @Test
+    public void refresh_GivenMeasurementsOfTwoMonths_ShouldOnlyUpsertTheirBuckets() {
+        //given
+        final List<DailyMeasurementView> dailyMeasurementViewList = List.of(
+                new DailyMeasurementView(1L, 1L, LocalDate.of(2024, 1, 31), 1.0, 1.0, 1.0),
+                new DailyMeasurementView(2L, 2L, LocalDate.of(2024, 2, 1), 1.0, 1.0, 1.0));
+
+        //when
+        measurementRollupService.refresh(dailyMeasurementViewList);
+
+        //then
+        // One week, two months and one year.
+        Mockito.verify(jdbcClient, Mockito.times(4)).sql(Mockito.anyString());
+    }
+
+    @Test
+    public void onDailyMeasurementsCreated_GivenARunningRebuild_ShouldQueueTheRefreshWithoutWaiting() {
+        //given
+        final Object rebuildLock = ReflectionTestUtils.getField(measurementRollupService, "rebuildLock");
+
+        //when
+        synchronized (rebuildLock) {
+            Assertions.assertTimeoutPreemptively(Duration.ofSeconds(5), () -> measurementRollupService.onDailyMeasurementsCreated(
+                    new DailyMeasurementsCreatedEvent(List.of(new DailyMeasurementView(1L, 1L, LocalDate.of(2024, 1, 31), 1.0, 1.0, 1.0)))));
+        }
+
+        //then
+        Mockito.verifyNoInteractions(jdbcClient);
+        Assertions.assertFalse(measurementRollupService.isReady());
+    }
+
+    @Test
+    public void drainRefreshQueue_GivenEventsOfTheSameDay_ShouldRefreshThemTogether() throws InterruptedException {
+        //given
+        measurementRollupService.onDailyMeasurementsCreated(new DailyMeasurementsCreatedEvent(List.of(
+                new DailyMeasurementView(1L, 1L, LocalDate.of(2024, 1, 31), 1.0, 1.0, 1.0))));
+        measurementRollupService.onDailyMeasurementsCreated(new DailyMeasurementsCreatedEvent(List.of(
+                new DailyMeasurementView(2L, 2L, LocalDate.of(2024, 1, 31), 1.0, 1.0, 1.0))));
+
+        //when
+        measurementRollupService.drainRefreshQueue();
+
+        //then
+        // One week, one month and one year for both dams.
+        Mockito.verify(jdbcClient, Mockito.times(3)).sql(Mockito.anyString());
+    }
+
+    @Test
+    public void isReady_GivenMeasurementsWaitingForTheirRefresh_ShouldReadTheMeasurements() throws InterruptedException {
+        //given
+        ReflectionTestUtils.setField(measurementRollupService, "ready", true);
+
+        //when
+        measurementRollupService.onDailyMeasurementsCreated(new DailyMeasurementsCreatedEvent(List.of(
+                new DailyMeasurementView(1L, 1L, LocalDate.of(2024, 1, 31), 1.0, 1.0, 1.0))));
+        final boolean readyWhilePending = measurementRollupService.isReady();
+        measurementRollupService.drainRefreshQueue();
+
+        //then
+        Assertions.assertFalse(readyWhilePending);
+        Assertions.assertTrue(measurementRollupService.isReady());
+    }
+
+    @Test
+    public void drainRefreshQueue_GivenAFailedRefresh_ShouldRebuildOnTheNextDrain() throws InterruptedException {
+        //given
+        final AtomicInteger sqlCount = new AtomicInteger();
+        Mockito.when(jdbcClient.sql(Mockito.anyString())).thenAnswer(invocationOnMock -> {
+            if (sqlCount.incrementAndGet() == 1) {
+                throw new IllegalStateException("connection lost");
+            }
+            return Mockito.mock(JdbcClient.StatementSpec.class, Mockito.RETURNS_DEEP_STUBS);
+        });
+        ReflectionTestUtils.setField(measurementRollupService, "ready", true);
+
+        //when
+        measurementRollupService.onDailyMeasurementsCreated(new DailyMeasurementsCreatedEvent(List.of(
+                new DailyMeasurementView(1L, 1L, LocalDate.of(2024, 1, 31), 1.0, 1.0, 1.0))));
+        measurementRollupService.drainRefreshQueue();
+        final boolean readyAfterFailure = measurementRollupService.isReady();
+
+        measurementRollupService.onDailyMeasurementsCreated(new DailyMeasurementsCreatedEvent(List.of(
+                new DailyMeasurementView(2L, 1L, LocalDate.of(2024, 2, 1), 1.0, 1.0, 1.0))));
+        measurementRollupService.drainRefreshQueue();
+
+        //then
+        Assertions.assertFalse(readyAfterFailure);
+        Mockito.verify(jdbcClient).sql("delete from measurement_rollups");
+        Assertions.assertTrue(measurementRollupService.isReady());
+    }
+
+    @Test
+    public void toRefreshSql_GivenMonthBucket_ShouldUpsertTheBucketsOfTheDams() {
+        //when
+        final String sql = MeasurementRollupService.toRefreshSql(MeasurementAggregationService.Bucket.MONTH);
+
+        //then
+        Assertions.assertTrue(sql.contains("cast(date_trunc('month', cast(m.measurement_date as timestamp)) as date)"));
+        Assertions.assertTrue(sql.contains("where m.dam_id in (:damIds) and m.measurement_date between :startDate and :endDate"));
+        Assertions.assertTrue(sql.contains("on conflict (dam_id, bucket, bucket_start) do update set"));
+    }
+}
@@ -0,0 +1,103 @@
+package com.grokthecode.services;
+
+import com.grokthecode.data.projections.DailyMeasurementView;
+import com.grokthecode.data.repositories.DailyMeasurementRepository;
+import com.grokthecode.services.events.DailyMeasurementsCreatedEvent;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Stream;
+
+@Tag("UnitTest")
+public class MeasurementSeriesStoreTest {
+
+    DailyMeasurementRepository dailyMeasurementRepository;
+    MeasurementSeriesStore measurementSeriesStore;
+
+    @BeforeEach
+    public void setUp() {
+        dailyMeasurementRepository = Mockito.mock(DailyMeasurementRepository.class);
+        measurementSeriesStore = new MeasurementSeriesStore(dailyMeasurementRepository,
+                Mockito.mock(PlatformTransactionManager.class), true);
+
+        Mockito.when(dailyMeasurementRepository.streamAllViews()).thenReturn(Stream.of(
+                new DailyMeasurementView(1L, 1L, LocalDate.of(2024, 1, 1), 10.0, 20.0, 30.0),
+                new DailyMeasurementView(3L, 1L, LocalDate.of(2024, 1, 5), 11.0, null, 31.0),
+                new DailyMeasurementView(2L, 2L, LocalDate.of(2024, 1, 3), 12.0, 22.0, 32.0)));
+    }
+
+    @Test
+    public void isLoaded_GivenStoreNotLoaded_ShouldReturnFalse() {
+        //when/then
+        Assertions.assertFalse(measurementSeriesStore.isLoaded());
+        Assertions.assertThrows(IllegalStateException.class, () -> measurementSeriesStore.findByDamId(1L, null, null));
+    }
+
+    @Test
+    public void findByDamId_GivenDateRange_ShouldReturnTheSliceMostRecentFirst() {
+        //given
+        measurementSeriesStore.load();
+
+        //when
+        final List<DailyMeasurementView> allMeasurements = measurementSeriesStore.findByDamId(1L, null, null);
+        final List<DailyMeasurementView> rangeMeasurements = measurementSeriesStore.findByDamId(1L,
+                LocalDate.of(2024, 1, 2), LocalDate.of(2024, 1, 31));
+
+        //then
+        Assertions.assertTrue(measurementSeriesStore.isLoaded());
+        Assertions.assertEquals(List.of(3L, 1L), allMeasurements.stream().map(DailyMeasurementView::id).toList());
+        Assertions.assertEquals(1, rangeMeasurements.size());
+        Assertions.assertNull(rangeMeasurements.getFirst().currentCapacity());
+        Assertions.assertTrue(measurementSeriesStore.findByDamId(3L, null, null).isEmpty());
+    }
+
+    @Test
+    public void findByMeasurementDateBetween_GivenDateRange_ShouldReturnEveryDamSortedByDate() {
+        //given
+        measurementSeriesStore.load();
+
+        //when
+        final List<DailyMeasurementView> measurements = measurementSeriesStore.findByMeasurementDateBetween(
+                LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 4));
+
+        //then
+        Assertions.assertEquals(List.of(2L, 1L), measurements.stream().map(DailyMeasurementView::id).toList());
+    }
+
+    @Test
+    public void onDailyMeasurementsCreated_GivenNewMeasurements_ShouldAppendThem() {
+        //given
+        measurementSeriesStore.load();
+
+        //when
+        measurementSeriesStore.onDailyMeasurementsCreated(new DailyMeasurementsCreatedEvent(List.of(
+                new DailyMeasurementView(4L, 1L, LocalDate.of(2024, 1, 6), 13.0, 23.0, 33.0),
+                new DailyMeasurementView(5L, 3L, LocalDate.of(2024, 1, 6), 14.0, 24.0, 34.0))));
+
+        //then
+        Assertions.assertEquals(List.of(4L, 3L, 1L), measurementSeriesStore.findByDamId(1L, null, null).stream()
+                .map(DailyMeasurementView::id).toList());
+        Assertions.assertEquals(5L, measurementSeriesStore.findByDamId(3L, null, null).getFirst().id());
+    }
+
+    @Test
+    public void onDailyMeasurementsCreated_GivenABackfilledDayAndADateFarOutsideTheLoadedDays_ShouldOnlyAddTheBackfilledDay() {
+        //given
+        measurementSeriesStore.load();
+
+        //when
+        measurementSeriesStore.onDailyMeasurementsCreated(new DailyMeasurementsCreatedEvent(List.of(
+                new DailyMeasurementView(4L, 1L, LocalDate.of(2024, 1, 2), 13.0, 23.0, 33.0),
+                new DailyMeasurementView(5L, 1L, LocalDate.of(2030, 1, 1), 14.0, 24.0, 34.0))));
+
+        //then
+        Assertions.assertEquals(List.of(3L, 4L, 1L), measurementSeriesStore.findByDamId(1L, null, null).stream()
+                .map(DailyMeasurementView::id).toList());
+    }
+}
@@ -0,0 +1,56 @@
+package com.grokthecode.services;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.SortedSet;
+
+@Tag("UnitTest")
+public class PartitionMaintenanceServiceTest {
+
+    @Test
+    public void toPlannedStartDates_GivenYearInterval_ShouldPlanTheComingYearsAndTheDefaultPartitionYears() {
+        //when
+        final SortedSet<LocalDate> startDateSet = PartitionMaintenanceService.toPlannedStartDates(MeasurementAggregationService.Bucket.YEAR,
+                LocalDate.of(2026, 10, 18), 2, List.of(LocalDate.of(1995, 1, 1), LocalDate.of(2026, 1, 1)));
+
+        //then
+        Assertions.assertEquals(List.of(LocalDate.of(1995, 1, 1), LocalDate.of(2026, 1, 1), LocalDate.of(2027, 1, 1),
+                LocalDate.of(2028, 1, 1)), List.copyOf(startDateSet));
+    }
+
+    @Test
+    public void toPartitionRange_GivenRangeAndDefaultBounds_ShouldOnlyParseTheRange() {
+        //when
+        final Optional<PartitionMaintenanceService.PartitionRange> optionalPartitionRange =
+                PartitionMaintenanceService.toPartitionRange("FOR VALUES FROM ('2024-01-01') TO ('2025-01-01')");
+
+        //then
+        Assertions.assertEquals(new PartitionMaintenanceService.PartitionRange(LocalDate.of(2024, 1, 1), LocalDate.of(2025, 1, 1)),
+                optionalPartitionRange.orElseThrow());
+        Assertions.assertTrue(PartitionMaintenanceService.toPartitionRange("DEFAULT").isEmpty());
+    }
+
+    @Test
+    public void overlaps_GivenMonthInsideAndAfterAYear_ShouldOnlyOverlapInside() {
+        //given
+        final PartitionMaintenanceService.PartitionRange yearRange =
+                new PartitionMaintenanceService.PartitionRange(LocalDate.of(2024, 1, 1), LocalDate.of(2025, 1, 1));
+
+        //when
+        final boolean insideOverlaps = new PartitionMaintenanceService.PartitionRange(LocalDate.of(2024, 12, 1),
+                LocalDate.of(2025, 1, 1)).overlaps(yearRange);
+        final boolean afterOverlaps = new PartitionMaintenanceService.PartitionRange(LocalDate.of(2025, 1, 1),
+                LocalDate.of(2025, 2, 1)).overlaps(yearRange);
+
+        //then
+        Assertions.assertTrue(insideOverlaps);
+        Assertions.assertFalse(afterOverlaps);
+        Assertions.assertEquals("daily_measurements_m2025_01",
+                PartitionMaintenanceService.toPartitionName(MeasurementAggregationService.Bucket.MONTH, LocalDate.of(2025, 1, 1)));
+    }
+}
@@ -0,0 +1,71 @@
+package com.grokthecode.services;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Stream;
+
+@Tag("UnitTest")
+public class PayloadArchiveTest {
+
+    static final LocalDate DATE = LocalDate.of(2024, 3, 1);
+
+    @TempDir
+    Path directory;
+
+    PayloadArchive payloadArchive;
+
+    @BeforeEach
+    public void setUp() {
+        payloadArchive = new PayloadArchive(true, directory.toString());
+    }
+
+    @Test
+    public void archive_GivenPayload_ShouldBeFoundAndReadBack() throws IOException {
+        //given
+        final byte[] payload = "[{\"clavesih\":\"a\"}]".getBytes(StandardCharsets.UTF_8);
+
+        //when
+        final Path archiveFile = payloadArchive.archive(DATE, payload);
+
+        //then
+        Assertions.assertEquals(archiveFile, payloadArchive.findLatest(DATE).orElseThrow());
+        Assertions.assertTrue(archiveFile.getFileName().toString().matches("2024-03-01\\.[0-9a-f]{16}\\.json\\.gz"));
+        try (final InputStream inputStream = payloadArchive.open(archiveFile)) {
+            Assertions.assertArrayEquals(payload, inputStream.readAllBytes());
+        }
+        Assertions.assertTrue(payloadArchive.findLatest(DATE.plusDays(1)).isEmpty());
+    }
+
+    @Test
+    public void archive_GivenSamePayloadTwice_ShouldKeepOneFile() throws IOException {
+        //given
+        final byte[] payload = "[]".getBytes(StandardCharsets.UTF_8);
+
+        //when
+        final Path firstArchiveFile = payloadArchive.archive(DATE, payload);
+        final Path otherArchiveFile = payloadArchive.archive(DATE, "[{}]".getBytes(StandardCharsets.UTF_8));
+        final Path secondArchiveFile = payloadArchive.archive(DATE, payload);
+
+        //then
+        Assertions.assertEquals(firstArchiveFile, secondArchiveFile);
+        Assertions.assertNotEquals(firstArchiveFile, otherArchiveFile);
+        Assertions.assertEquals(2, listFiles().size());
+    }
+
+    List<Path> listFiles() throws IOException {
+        try (final Stream<Path> pathStream = Files.walk(directory)) {
+            return pathStream.filter(Files::isRegularFile).toList();
+        }
+    }
+}
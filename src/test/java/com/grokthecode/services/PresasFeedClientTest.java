@@ -0,0 +1,58 @@
+package com.grokthecode.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.grokthecode.models.restapi.PresasDto;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.web.client.RestClient;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+@Tag("UnitTest")
+public class PresasFeedClientTest {
+
+    PresasFeedClient presasFeedClient;
+
+    @BeforeEach
+    public void setUp() {
+        presasFeedClient = new PresasFeedClient(Mockito.mock(RestClient.class), new ObjectMapper(),
+                Mockito.mock(PayloadArchive.class));
+    }
+
+    @Test
+    public void parse_GivenArrayOfPresas_ShouldReturnEveryElement() throws IOException {
+        //when
+        final List<PresasDto> presasDtoList = presasFeedClient.parse(
+                toInputStream("[{\"clavesih\":\"a\"},{\"clavesih\":\"b\"},{\"clavesih\":\"c\"}]"));
+
+        //then
+        Assertions.assertEquals(List.of("a", "b", "c"), presasDtoList.stream().map(PresasDto::getClavesih).toList());
+    }
+
+    @Test
+    public void parse_GivenNullElement_ShouldFail() {
+        //when
+        final IOException exception = Assertions.assertThrows(IOException.class,
+                () -> presasFeedClient.parse(toInputStream("[{\"clavesih\":\"a\"},null,{\"clavesih\":\"c\"}]")));
+
+        //then
+        Assertions.assertTrue(exception.getMessage().contains("element 1"));
+    }
+
+    @Test
+    public void parse_GivenTruncatedArray_ShouldFail() {
+        //then
+        Assertions.assertThrows(IOException.class,
+                () -> presasFeedClient.parse(toInputStream("[{\"clavesih\":\"a\"},")));
+    }
+
+    static ByteArrayInputStream toInputStream(final String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
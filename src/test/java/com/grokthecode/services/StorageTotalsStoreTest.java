@@ -0,0 +1,104 @@
+package com.grokthecode.services;
+
+import com.grokthecode.data.projections.DailyMeasurementView;
+import com.grokthecode.data.projections.DailyStorageTotal;
+import com.grokthecode.data.projections.DamCatalogView;
+import com.grokthecode.data.repositories.DailyMeasurementRepository;
+import com.grokthecode.data.repositories.DamCatalogRepository;
+import com.grokthecode.data.responses.StorageTotalsResponse;
+import com.grokthecode.services.events.DailyMeasurementsCreatedEvent;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Tag("UnitTest")
+public class StorageTotalsStoreTest {
+
+    StorageTotalsStore storageTotalsStore;
+
+    @BeforeEach
+    public void setUp() {
+        final DamCatalogRepository damCatalogRepository = Mockito.mock(DamCatalogRepository.class);
+        final DailyMeasurementRepository dailyMeasurementRepository = Mockito.mock(DailyMeasurementRepository.class);
+        storageTotalsStore = new StorageTotalsStore(dailyMeasurementRepository, new DamCatalogCache(damCatalogRepository));
+
+        Mockito.when(damCatalogRepository.findAllViews()).thenReturn(List.of(
+                damCatalogView(1L, "Jalisco", "Lerma Santiago Pacifico", 100.0),
+                damCatalogView(2L, "Sonora", "Noroeste", 300.0)));
+        Mockito.when(dailyMeasurementRepository.findDailyStorageTotals()).thenReturn(List.of(
+                new DailyStorageTotal(LocalDate.of(2024, 1, 1), "Jalisco", "Lerma Santiago Pacifico", 50.0, 5000.0, 100.0, 1L),
+                new DailyStorageTotal(LocalDate.of(2024, 1, 3), "Jalisco", "Lerma Santiago Pacifico", 60.0, 6000.0, 100.0, 1L),
+                new DailyStorageTotal(LocalDate.of(2024, 1, 1), "Sonora", "Noroeste", 30.0, 3000.0, 300.0, 1L)));
+    }
+
+    @Test
+    public void getTotals_GivenNationalScope_ShouldReturnOneSlotPerDay() {
+        //when
+        final StorageTotalsResponse storageTotalsResponse = storageTotalsStore.getTotals(StorageTotalsStore.Scope.NATIONAL, null, null, null);
+
+        //then
+        Assertions.assertEquals(LocalDate.of(2024, 1, 1), storageTotalsResponse.startDate());
+        Assertions.assertArrayEquals(new Double[]{80.0, null, 60.0}, storageTotalsResponse.totalCapacity());
+        Assertions.assertEquals(20.0, storageTotalsResponse.weightedFillPercentage()[0]);
+        Assertions.assertArrayEquals(new int[]{2, 0, 1}, storageTotalsResponse.damCount());
+    }
+
+    @Test
+    public void getTotals_GivenStateAndDateRange_ShouldReturnTheSlice() {
+        //when
+        final StorageTotalsResponse storageTotalsResponse = storageTotalsStore.getTotals(StorageTotalsStore.Scope.STATE, " jalisco ",
+                LocalDate.of(2024, 1, 2), LocalDate.of(2024, 1, 31));
+
+        //then
+        Assertions.assertEquals("Jalisco", storageTotalsResponse.name());
+        Assertions.assertEquals(LocalDate.of(2024, 1, 2), storageTotalsResponse.startDate());
+        Assertions.assertArrayEquals(new Double[]{null, 60.0}, storageTotalsResponse.totalCapacity());
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> storageTotalsStore.getTotals(StorageTotalsStore.Scope.CNA_REGION, "Golfo Norte", null, null));
+    }
+
+    @Test
+    public void onDailyMeasurementsCreated_GivenNewDay_ShouldExtendTheSeries() {
+        //given
+        final StorageTotalsResponse beforeResponse = storageTotalsStore.getTotals(StorageTotalsStore.Scope.NATIONAL, null, null, null);
+
+        //when
+        storageTotalsStore.onDailyMeasurementsCreated(new DailyMeasurementsCreatedEvent(List.of(
+                new DailyMeasurementView(10L, 2L, LocalDate.of(2024, 1, 4), 1.0, 90.0, 30.0))));
+        final StorageTotalsResponse nationalResponse = storageTotalsStore.getTotals(StorageTotalsStore.Scope.NATIONAL, null, null, null);
+        final StorageTotalsResponse regionResponse = storageTotalsStore.getTotals(StorageTotalsStore.Scope.CNA_REGION, "Noroeste", null, null);
+
+        //then
+        Assertions.assertEquals(3, beforeResponse.damCount().length);
+        Assertions.assertArrayEquals(new int[]{2, 0, 1, 1}, nationalResponse.damCount());
+        Assertions.assertEquals(90.0, nationalResponse.totalCapacity()[3]);
+        Assertions.assertEquals(30.0, regionResponse.weightedFillPercentage()[3]);
+        Assertions.assertEquals(1, storageTotalsStore.getTotals(StorageTotalsStore.Scope.STATE, "Jalisco", null, null).damCount()[2]);
+    }
+
+    @Test
+    public void onDailyMeasurementsCreated_GivenACoveredDayAndADateFarOutsideTheLoadedDays_ShouldOnlyAddTheCoveredDay() {
+        //given
+        storageTotalsStore.getTotals(StorageTotalsStore.Scope.NATIONAL, null, null, null);
+
+        //when
+        storageTotalsStore.onDailyMeasurementsCreated(new DailyMeasurementsCreatedEvent(List.of(
+                new DailyMeasurementView(10L, 2L, LocalDate.of(2024, 1, 2), 1.0, 90.0, 30.0),
+                new DailyMeasurementView(11L, 2L, LocalDate.of(2030, 1, 1), 1.0, 90.0, 30.0))));
+        final StorageTotalsResponse nationalResponse = storageTotalsStore.getTotals(StorageTotalsStore.Scope.NATIONAL, null, null, null);
+
+        //then
+        Assertions.assertArrayEquals(new int[]{2, 1, 1}, nationalResponse.damCount());
+        Assertions.assertEquals(90.0, nationalResponse.totalCapacity()[1]);
+    }
+
+    static DamCatalogView damCatalogView(final Long id, final String state, final String cnaRegion, final Double nameCapacity) {
+        return new DamCatalogView(id, "key" + id, "official" + id, "common" + id, state, "municipality", cnaRegion,
+                1.0, 1.0, "use", "currents", "verterType", "1950", "1", 1.0, 1.0, nameCapacity, "1");
+    }
+}
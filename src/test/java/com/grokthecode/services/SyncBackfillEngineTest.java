@@ -0,0 +1,112 @@
+package com.grokthecode.services;
+
+import com.grokthecode.common.utilities.RetryingClientHttpRequestInterceptor;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.web.client.RestClientException;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Tag("UnitTest")
+public class SyncBackfillEngineTest {
+
+    static SyncBackfillEngine syncBackfillEngine;
+    static List<LocalDate> dateList;
+
+    @BeforeAll
+    public static void setUp() {
+        syncBackfillEngine = new SyncBackfillEngine(1000, 1000, 1, 4, 1000, 3);
+        dateList = LocalDate.of(2023, 1, 1).datesUntil(LocalDate.of(2023, 1, 11)).toList();
+    }
+
+    @Test
+    public void run_GivenDates_ShouldReturnResultsInDateOrder() {
+        //when
+        final List<String> results = syncBackfillEngine.run(dateList, LocalDate::toString,
+                (date, exception) -> "failed " + date);
+
+        //then
+        Assertions.assertEquals(dateList.stream().map(LocalDate::toString).toList(), results);
+    }
+
+    @Test
+    public void run_GivenUpstreamFailure_ShouldRetryAndSucceed() {
+        //given
+        final AtomicInteger attempts = new AtomicInteger();
+
+        //when
+        final List<String> results = syncBackfillEngine.run(List.of(dateList.getFirst()), date -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw new RestClientException("upstream error");
+            }
+            return date.toString();
+        }, (date, exception) -> "failed " + date);
+
+        //then
+        Assertions.assertEquals(3, attempts.get());
+        Assertions.assertEquals(List.of(dateList.getFirst().toString()), results);
+    }
+
+    @Test
+    public void run_GivenRetryingHttpClient_ShouldOnlyRetryInTheEngine() {
+        //given
+        final RetryingClientHttpRequestInterceptor retryingClientHttpRequestInterceptor = new RetryingClientHttpRequestInterceptor(3, 1, 1);
+        final HttpRequest httpRequest = Mockito.mock(HttpRequest.class);
+        final AtomicInteger requests = new AtomicInteger();
+        final ClientHttpRequestExecution clientHttpRequestExecution = (request, body) -> {
+            requests.incrementAndGet();
+            throw new IOException("connection reset");
+        };
+
+        //when
+        final List<String> results = syncBackfillEngine.run(List.of(dateList.getFirst()), date -> {
+            retryingClientHttpRequestInterceptor.intercept(httpRequest, new byte[0], clientHttpRequestExecution);
+            return date.toString();
+        }, (date, exception) -> "failed " + date);
+
+        //then
+        // Three engine attempts of one request each, not three times three.
+        Assertions.assertEquals(3, requests.get());
+        Assertions.assertEquals(List.of("failed " + dateList.getFirst()), results);
+    }
+
+    @Test
+    public void run_GivenNonUpstreamFailure_ShouldNotRetry() {
+        //given
+        final AtomicInteger attempts = new AtomicInteger();
+
+        //when
+        final List<String> results = syncBackfillEngine.run(List.of(dateList.getFirst()), date -> {
+            attempts.incrementAndGet();
+            throw new IllegalArgumentException("dam not found");
+        }, (date, exception) -> "failed " + date);
+
+        //then
+        Assertions.assertEquals(1, attempts.get());
+        Assertions.assertEquals(List.of("failed " + dateList.getFirst()), results);
+    }
+
+    @Test
+    public void run_GivenCancelledRun_ShouldSkipRemainingDates() {
+        //given
+        final AtomicInteger attempts = new AtomicInteger();
+
+        //when
+        final List<String> results = syncBackfillEngine.run(dateList, date -> {
+            attempts.incrementAndGet();
+            return date.toString();
+        }, (date, exception) -> "cancelled " + date, () -> true);
+
+        //then
+        Assertions.assertEquals(0, attempts.get());
+        Assertions.assertEquals(dateList.stream().map(date -> "cancelled " + date).toList(), results);
+    }
+}
@@ -0,0 +1,135 @@
+package com.grokthecode.services;
+
+import com.grokthecode.data.responses.DailyMeasurementSyncResponse;
+import com.grokthecode.data.responses.SyncJobResponse;
+import com.grokthecode.services.exceptions.ResourceNotFoundException;
+import com.grokthecode.services.exceptions.SyncJobLimitExceededException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+@Tag("UnitTest")
+public class SyncJobServiceTest {
+
+    DailyMeasurementService dailyMeasurementService;
+    SyncJobService syncJobService;
+    CountDownLatch startedLatch;
+    CountDownLatch releaseLatch;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        dailyMeasurementService = Mockito.mock(DailyMeasurementService.class);
+        startedLatch = new CountDownLatch(1);
+        releaseLatch = new CountDownLatch(1);
+
+        // One date at a time, each one waiting for the test to release it.
+        syncJobService = new SyncJobService(dailyMeasurementService, new SyncBackfillEngine(1000, 1000, 1, 1, 1000, 1));
+        ReflectionTestUtils.setField(syncJobService, "retentionMinutes", 60L);
+        ReflectionTestUtils.setField(syncJobService, "maxRunningJobs", 1);
+
+        Mockito.when(dailyMeasurementService.syncDamsDailyFill(Mockito.anyString())).thenAnswer(invocationOnMock -> {
+            startedLatch.countDown();
+            releaseLatch.await(5, TimeUnit.SECONDS);
+
+            return new DailyMeasurementSyncResponse(invocationOnMock.getArgument(0), 2, List.of(), List.of());
+        });
+    }
+
+    @AfterEach
+    public void tearDown() {
+        releaseLatch.countDown();
+    }
+
+    @Test
+    public void startDailyFillJob_GivenAJobRunToTheEnd_ShouldReportItCompletedWhenPolled() throws Exception {
+        //when
+        final SyncJobResponse startedSyncJobResponse = syncJobService.startDailyFillJob("2024-01-01", "2024-01-03");
+        releaseLatch.countDown();
+        final SyncJobResponse finishedSyncJobResponse = awaitFinished(startedSyncJobResponse.jobId());
+
+        //then
+        Assertions.assertEquals(SyncJobResponse.Status.COMPLETED, finishedSyncJobResponse.status());
+        Assertions.assertEquals(3, finishedSyncJobResponse.completedDates());
+        Assertions.assertEquals(0, finishedSyncJobResponse.skippedDates());
+        Assertions.assertEquals(6L, finishedSyncJobResponse.syncCount());
+        Assertions.assertEquals(3, finishedSyncJobResponse.dateSummaryList().size());
+    }
+
+    @Test
+    public void cancelJob_GivenDatesNotStarted_ShouldSkipThemAndReportItCancelled() throws Exception {
+        //given
+        final String jobId = syncJobService.startDailyFillJob("2024-01-01", "2024-01-03").jobId();
+        startedLatch.await(5, TimeUnit.SECONDS);
+
+        //when
+        syncJobService.cancelJob(jobId);
+        releaseLatch.countDown();
+        final SyncJobResponse syncJobResponse = awaitFinished(jobId);
+
+        //then
+        Assertions.assertEquals(SyncJobResponse.Status.CANCELLED, syncJobResponse.status());
+        Assertions.assertEquals(1, syncJobResponse.completedDates());
+        Assertions.assertEquals(2, syncJobResponse.skippedDates());
+    }
+
+    @Test
+    public void cancelJob_GivenTheLastDateAlreadyStarted_ShouldReportItCompleted() throws Exception {
+        //given
+        final String jobId = syncJobService.startDailyFillJob("2024-01-01", "2024-01-01").jobId();
+        startedLatch.await(5, TimeUnit.SECONDS);
+
+        //when
+        syncJobService.cancelJob(jobId);
+        releaseLatch.countDown();
+        final SyncJobResponse syncJobResponse = awaitFinished(jobId);
+
+        //then
+        Assertions.assertEquals(SyncJobResponse.Status.COMPLETED, syncJobResponse.status());
+        Assertions.assertEquals(1, syncJobResponse.completedDates());
+        Assertions.assertEquals(0, syncJobResponse.skippedDates());
+    }
+
+    @Test
+    public void startDailyFillJob_GivenTheRunningLimitReached_ShouldRejectTheJob() throws Exception {
+        //given
+        syncJobService.startDailyFillJob("2024-01-01", "2024-01-01");
+
+        //when //then
+        Assertions.assertThrows(SyncJobLimitExceededException.class, () -> syncJobService.startDailyFillJob("2024-01-02", "2024-01-02"));
+    }
+
+    @Test
+    public void evictExpiredJobs_GivenAFinishedJobPastItsRetention_ShouldForgetIt() throws Exception {
+        //given
+        ReflectionTestUtils.setField(syncJobService, "retentionMinutes", 0L);
+        final String jobId = syncJobService.startDailyFillJob("2024-01-01", "2024-01-01").jobId();
+        releaseLatch.countDown();
+        awaitFinished(jobId);
+        Thread.sleep(5);
+
+        //when
+        syncJobService.evictExpiredJobs();
+
+        //then
+        Assertions.assertThrows(ResourceNotFoundException.class, () -> syncJobService.getJob(jobId));
+    }
+
+    private SyncJobResponse awaitFinished(final String jobId) throws Exception {
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        SyncJobResponse syncJobResponse = syncJobService.getJob(jobId);
+
+        while (syncJobResponse.status() == SyncJobResponse.Status.RUNNING && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+            syncJobResponse = syncJobService.getJob(jobId);
+        }
+        return syncJobResponse;
+    }
+}